@@ -6,14 +6,27 @@
 package com.microsoft.azure.maven.function;
 
 import com.microsoft.azure.maven.appservice.AbstractAppServiceMojo;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.logging.Log;
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
 import com.microsoft.azure.toolkit.lib.legacy.function.configurations.RuntimeConfiguration;
+import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandler;
+import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandlerImpl;
 import lombok.Getter;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.plugins.annotations.Parameter;
 
 import java.io.File;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public abstract class AbstractFunctionMojo extends AbstractAppServiceMojo {
 
@@ -175,4 +188,71 @@ public abstract class AbstractFunctionMojo extends AbstractAppServiceMojo {
         return result;
     }
     //endregion
+
+    //region Generate function configurations
+
+    protected AnnotationHandler getAnnotationHandler() {
+        return new AnnotationHandlerImpl();
+    }
+
+    protected Set<Method> findFunctions(final AnnotationHandler handler) throws MalformedURLException {
+        try {
+            Log.debug("ClassPath to resolve: " + getTargetClassUrl());
+            final List<URL> dependencyWithTargetClass = getDependencyArtifactUrls();
+            dependencyWithTargetClass.add(getTargetClassUrl());
+            return handler.findFunctions(dependencyWithTargetClass);
+        } catch (NoClassDefFoundError e) {
+            // fallback to reflect through artifact url, for shaded project(fat jar)
+            Log.debug("ClassPath to resolve: " + getArtifactUrl());
+            return handler.findFunctions(Arrays.asList(getArtifactUrl()));
+        }
+    }
+
+    protected URL getArtifactUrl() throws MalformedURLException {
+        return this.getProject().getArtifact().getFile().toURI().toURL();
+    }
+
+    protected URL getTargetClassUrl() throws MalformedURLException {
+        return outputDirectory.toURI().toURL();
+    }
+
+    /**
+     * @return URLs for the classpath with compile scope needed jars
+     */
+    protected List<URL> getDependencyArtifactUrls() {
+        final List<URL> urlList = new ArrayList<>();
+        final List<String> runtimeClasspathElements = new ArrayList<>();
+        try {
+            runtimeClasspathElements.addAll(this.getProject().getRuntimeClasspathElements());
+        } catch (DependencyResolutionRequiredException e) {
+            Log.debug("Failed to resolve dependencies for compile scope, exception: " + e.getMessage());
+        }
+        for (final String element : runtimeClasspathElements) {
+            final File f = new File(element);
+            try {
+                urlList.add(f.toURI().toURL());
+            } catch (MalformedURLException e) {
+                Log.debug("Failed to get URL for file: " + f.toString());
+            }
+        }
+        return urlList;
+    }
+
+    /**
+     * generate configurations of {@code methods}, the package goal and the watch mode of the run goal share it, so that
+     * the same functions always get the same function.json files.
+     */
+    protected Map<String, FunctionConfiguration> generateFunctionConfigurations(final AnnotationHandler handler,
+                                                                                final Set<Method> methods) throws AzureExecutionException {
+        final Map<String, FunctionConfiguration> configMap = handler.generateConfigurations(methods);
+        final String scriptFilePath = getScriptFilePath();
+        configMap.values().forEach(config -> config.setScriptFile(scriptFilePath));
+        return configMap;
+    }
+
+    protected String getScriptFilePath() {
+        return String.format("../%s.jar", getFinalName());
+    }
+
+    //endregion
 }
@@ -32,7 +32,6 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.Scanner;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -191,7 +190,7 @@ public class AddMojo extends AbstractFunctionMojo {
                     getTemplateNames(templates),
                     this::setFunctionTemplate);
         }
-        final FunctionTemplate result = findTemplateByName(templates, getFunctionTemplate());
+        final FunctionTemplate result = findTemplateByName(getFunctionTemplate());
         getTelemetryProxy().addDefaultProperty(TRIGGER_TYPE, result.getTriggerType());
         return result;
     }
@@ -200,16 +199,13 @@ public class AddMojo extends AbstractFunctionMojo {
         return templates.stream().map(t -> t.getMetadata().getName()).collect(Collectors.toList());
     }
 
-    protected FunctionTemplate findTemplateByName(final List<FunctionTemplate> templates, final String templateName)
-            throws AzureExecutionException {
+    protected FunctionTemplate findTemplateByName(final String templateName) throws AzureExecutionException {
         Log.info("Selected function template: " + templateName);
-        final Optional<FunctionTemplate> template = templates.stream()
-                .filter(t -> t.getMetadata().getName().equalsIgnoreCase(templateName))
-                .findFirst();
+        final FunctionTemplate template = StringUtils.isBlank(templateName) ? null : FunctionUtils.loadFunctionTemplate(templateName);
 
-        if (template.isPresent()) {
+        if (template != null) {
             Log.info(FIND_TEMPLATE_DONE + templateName);
-            return template.get();
+            return template;
         }
 
         throw new AzureExecutionException(FIND_TEMPLATE_FAIL + templateName);
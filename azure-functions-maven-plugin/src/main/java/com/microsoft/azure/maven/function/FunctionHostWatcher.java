@@ -0,0 +1,344 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.maven.function;
+
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionJsonWriter;
+import com.microsoft.azure.toolkit.lib.common.logging.Log;
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * hot reload loop of the local function host. changes of the classes output directory are collected until no more
+ * changes arrive within the debounce period, then only the affected packaging stages run again:
+ * <ul>
+ *     <li>changed classes and resources are synchronized into the staged artifact, which is replaced atomically, the
+ *     running host picks it up through its own file watching. if the artifact is held open by the java worker (e.g. on
+ *     windows), it's replaced while the host is stopped.</li>
+ *     <li>if any class changed, function configurations are generated again and only function.json files whose
+ *     content changes are written.</li>
+ * </ul>
+ * the host is restarted only if bindings changed, that is, a function.json is added, changed or removed. changes
+ * failing to reload are kept and retried along with the following ones.
+ */
+public class FunctionHostWatcher {
+    private static final String FUNCTION_JSON = "function.json";
+    private static final String CLASS_EXTENSION = ".class";
+    private static final Duration HOST_CHECK_INTERVAL = Duration.ofSeconds(1);
+    private static final Duration HOST_STOP_TIMEOUT = Duration.ofSeconds(10);
+
+    private final File classesDirectory;
+    private final File stagingDirectory;
+    private final File stagedArtifact;
+    private final List<String> hostCommand;
+    private final ConfigurationGenerator generator;
+    @Setter
+    private Duration debounce = Duration.ofMillis(500);
+    private Process host;
+    @Getter
+    private volatile int reloads;
+    @Getter
+    private volatile int restarts;
+
+    /**
+     * @param stagedArtifact the artifact in {@code stagingDirectory} that function.json files refer to
+     * @param hostCommand    starts the host in {@code stagingDirectory}
+     */
+    public FunctionHostWatcher(@Nonnull File classesDirectory, @Nonnull File stagingDirectory, @Nonnull File stagedArtifact,
+                               @Nonnull List<String> hostCommand, @Nonnull ConfigurationGenerator generator) {
+        this.classesDirectory = classesDirectory;
+        this.stagingDirectory = stagingDirectory;
+        this.stagedArtifact = stagedArtifact;
+        this.hostCommand = hostCommand;
+        this.generator = generator;
+    }
+
+    /**
+     * start the host and reload it on changes until the host exits or the current thread is interrupted.
+     *
+     * @return exit code of the host
+     */
+    public int run() throws IOException, InterruptedException {
+        final Path root = this.classesDirectory.toPath();
+        try (final WatchService service = FileSystems.getDefault().newWatchService()) {
+            register(service, root);
+            this.startHost();
+            Log.info(String.format("Watching changes of %s.", root));
+            final Set<String> changed = new TreeSet<>();
+            final Set<String> deleted = new TreeSet<>();
+            while (this.host.isAlive()) {
+                // wait for the first change, then for the end of the burst
+                final Duration timeout = changed.isEmpty() && deleted.isEmpty() ? HOST_CHECK_INTERVAL : this.debounce;
+                final WatchKey key = service.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+                if (Objects.isNull(key)) {
+                    if (!changed.isEmpty() || !deleted.isEmpty()) {
+                        try {
+                            this.reload(changed, deleted);
+                            changed.clear();
+                            deleted.clear();
+                        } catch (final IOException e) { // keep watching, and retry with the following changes
+                            Log.warn(String.format("Failed to reload function host: %s", e.getMessage()));
+                        }
+                    }
+                    continue;
+                }
+                final Path directory = (Path) key.watchable();
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) { // events are lost, synchronize all files
+                        register(service, root);
+                        changed.addAll(listFiles(root, root));
+                        continue;
+                    }
+                    final Path path = directory.resolve((Path) event.context());
+                    final String relative = relativize(root, path);
+                    if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                        changed.removeIf(p -> p.equals(relative) || p.startsWith(relative + "/"));
+                        deleted.add(relative);
+                    } else if (Files.isDirectory(path)) {
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) { // files may be created before it's registered
+                            register(service, path);
+                            changed.addAll(listFiles(root, path));
+                        }
+                    } else {
+                        deleted.remove(relative);
+                        changed.add(relative);
+                    }
+                }
+                if (!key.reset()) {
+                    Log.debug(String.format("Stop watching %s.", directory));
+                }
+            }
+            return this.host.exitValue();
+        } finally {
+            this.stopHost();
+        }
+    }
+
+    /**
+     * @param changed paths of changed files relative to the classes directory, separated by '/'
+     * @param deleted paths of deleted files or directories relative to the classes directory, separated by '/'
+     * @return whether the host is restarted
+     */
+    public boolean reload(@Nonnull Set<String> changed, @Nonnull Set<String> deleted) throws IOException, InterruptedException {
+        Log.info(String.format("%d file(s) changed, %d file(s) deleted, reloading.", changed.size(), deleted.size()));
+        final Path patched = this.patchArtifact(changed, deleted);
+        boolean stopped = false;
+        try {
+            try {
+                this.replaceArtifact(patched);
+            } catch (final FileSystemException e) { // the artifact is held open by the java worker, e.g. on windows
+                Log.info("The staged artifact is in use, restarting the function host to replace it.");
+                this.stopHost();
+                stopped = true;
+                this.replaceArtifact(patched);
+            }
+            if (this.syncFunctionJsonFiles(changed, deleted) && !stopped) {
+                Log.info("Function bindings changed, restarting the function host.");
+                this.stopHost();
+                stopped = true;
+            }
+        } finally {
+            Files.deleteIfExists(patched);
+            if (stopped) { // the host is started again even if reloading failed
+                this.startHost();
+                this.restarts++;
+            }
+        }
+        this.reloads++;
+        return stopped;
+    }
+
+    /**
+     * patch the staged artifact with changed files into a temp file in the staging directory.
+     */
+    @Nonnull
+    private Path patchArtifact(@Nonnull Set<String> changed, @Nonnull Set<String> deleted) throws IOException {
+        final Path target = this.stagedArtifact.toPath();
+        final Path temp = Files.createTempFile(this.stagingDirectory.toPath(), "." + this.stagedArtifact.getName(), ".tmp");
+        boolean done = false;
+        try {
+            try (final OutputStream file = Files.newOutputStream(temp); final ZipOutputStream output = new ZipOutputStream(file)) {
+                if (Files.isRegularFile(target)) {
+                    try (final ZipFile artifact = new ZipFile(this.stagedArtifact)) {
+                        for (final Enumeration<? extends ZipEntry> entries = artifact.entries(); entries.hasMoreElements(); ) {
+                            final ZipEntry entry = entries.nextElement();
+                            final String name = StringUtils.removeEnd(entry.getName(), "/");
+                            if (changed.contains(name) || deleted.stream().anyMatch(p -> name.equals(p) || name.startsWith(p + "/"))) {
+                                continue;
+                            }
+                            output.putNextEntry(new ZipEntry(entry.getName()));
+                            try (final InputStream input = artifact.getInputStream(entry)) {
+                                IOUtils.copy(input, output);
+                            }
+                            output.closeEntry();
+                        }
+                    }
+                }
+                for (final String path : changed) {
+                    final File source = new File(this.classesDirectory, path);
+                    if (source.isFile()) { // it might be deleted after the change is reported
+                        output.putNextEntry(new ZipEntry(path));
+                        FileUtils.copyFile(source, output);
+                        output.closeEntry();
+                    }
+                }
+            }
+            done = true;
+            return temp;
+        } finally {
+            if (!done) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * move the patched artifact in place of the staged one.
+     */
+    void replaceArtifact(@Nonnull Path patched) throws IOException {
+        final Path target = this.stagedArtifact.toPath();
+        try {
+            Files.move(patched, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException e) {
+            Files.move(patched, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * generate function configurations again if any class changed and write function.json files whose content changes.
+     *
+     * @return whether any function.json is added, changed or removed
+     */
+    private boolean syncFunctionJsonFiles(@Nonnull Set<String> changedFiles, @Nonnull Set<String> deletedFiles) throws IOException {
+        // a deleted path without extension is usually a package directory
+        final boolean classesChanged = changedFiles.stream().anyMatch(p -> p.endsWith(CLASS_EXTENSION)) ||
+            deletedFiles.stream().anyMatch(p -> p.endsWith(CLASS_EXTENSION) || StringUtils.isEmpty(FilenameUtils.getExtension(p)));
+        if (!classesChanged) {
+            return false;
+        }
+        final Map<String, FunctionConfiguration> configMap;
+        try {
+            configMap = this.generator.generate();
+            FunctionJsonWriter.validate(configMap.values());
+        } catch (final Exception e) { // keep the host running with the last valid configurations
+            Log.warn(String.format("Failed to generate function configurations, function.json files are not updated: %s", e.getMessage()));
+            return false;
+        }
+        boolean changed = false;
+        for (final Map.Entry<String, FunctionConfiguration> entry : configMap.entrySet()) {
+            final File file = new File(new File(this.stagingDirectory, entry.getKey()), FUNCTION_JSON);
+            changed |= FunctionJsonWriter.write(FunctionJsonWriter.getObjectWriter(), entry.getValue(), file);
+        }
+        final File[] directories = Objects.requireNonNull(this.stagingDirectory.listFiles(File::isDirectory));
+        for (final File directory : directories) {
+            if (!configMap.containsKey(directory.getName()) && new File(directory, FUNCTION_JSON).isFile()) {
+                FileUtils.deleteDirectory(directory);
+                changed = true;
+            }
+        }
+        if (!changed) {
+            Log.info("Function bindings are unchanged.");
+        }
+        return changed;
+    }
+
+    private void startHost() throws IOException {
+        Log.info(String.format("Starting function host: %s", StringUtils.join(this.hostCommand, " ")));
+        this.host = new ProcessBuilder(this.hostCommand)
+            .directory(this.stagingDirectory)
+            .inheritIO()
+            .start();
+    }
+
+    private void stopHost() throws InterruptedException {
+        if (Objects.isNull(this.host) || !this.host.isAlive()) {
+            return;
+        }
+        destroyDescendants(this.host);
+        this.host.destroy();
+        if (!this.host.waitFor(HOST_STOP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            this.host.destroyForcibly().waitFor();
+        }
+    }
+
+    /**
+     * the host starts language workers as child processes, which are not stopped with it on every platform. process
+     * handles are only available since java 9.
+     */
+    private static void destroyDescendants(@Nonnull Process process) {
+        try {
+            final Class<?> handleClass = Class.forName("java.lang.ProcessHandle");
+            final Object handle = Process.class.getMethod("toHandle").invoke(process);
+            final Stream<?> descendants = (Stream<?>) handleClass.getMethod("descendants").invoke(handle);
+            for (final Object descendant : descendants.collect(Collectors.toList())) {
+                handleClass.getMethod("destroy").invoke(descendant);
+            }
+        } catch (final ReflectiveOperationException e) {
+            Log.debug(String.format("Failed to stop child processes of function host: %s", e.getMessage()));
+        }
+    }
+
+    private static void register(@Nonnull WatchService service, @Nonnull Path directory) throws IOException {
+        try (final Stream<Path> directories = Files.walk(directory)) {
+            for (final Path path : directories.filter(Files::isDirectory).collect(Collectors.toList())) {
+                path.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+        }
+    }
+
+    @Nonnull
+    private static Set<String> listFiles(@Nonnull Path root, @Nonnull Path directory) throws IOException {
+        try (final Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).map(p -> relativize(root, p)).collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
+    @Nonnull
+    private static String relativize(@Nonnull Path root, @Nonnull Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    @FunctionalInterface
+    public interface ConfigurationGenerator {
+        /**
+         * @return configurations of all functions in the classes directory, by function names
+         */
+        Map<String, FunctionConfiguration> generate() throws Exception;
+    }
+}
@@ -5,15 +5,11 @@
 
 package com.microsoft.azure.maven.function;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.core.util.DefaultIndenter;
-import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.microsoft.azure.maven.model.DeploymentResource;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionJsonWriter;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.StagingSynchronizer;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.logging.Log;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
@@ -23,7 +19,6 @@ import com.microsoft.azure.toolkit.lib.legacy.function.bindings.Binding;
 import com.microsoft.azure.toolkit.lib.legacy.function.bindings.BindingEnum;
 import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandler;
-import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandlerImpl;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandler;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandlerImpl;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionCoreToolsHandler;
@@ -33,7 +28,6 @@ import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.io.input.BOMInputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
@@ -45,10 +39,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.MalformedURLException;
-import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
@@ -59,6 +51,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
 
 /**
@@ -82,6 +75,7 @@ public class PackageMojo extends AbstractFunctionMojo {
     public static final String SAVE_SKIP = "No configurations found. Skip save.";
     public static final String SAVE_FUNCTION_JSON = "Starting processing function: ";
     public static final String SAVE_SUCCESS = "Successfully saved to ";
+    public static final String SAVE_UNCHANGED = "Skip saving unchanged ";
     public static final String COPY_JARS = "Step 7 of 8: Copying JARs to staging directory ";
     public static final String COPY_SUCCESS = "Copied successfully.";
     public static final String INSTALL_EXTENSIONS = "Step 8 of 8: Installing function extensions if needed";
@@ -168,58 +162,14 @@ public class PackageMojo extends AbstractFunctionMojo {
 
     //region Process annotations
 
-    protected AnnotationHandler getAnnotationHandler() {
-        return new AnnotationHandlerImpl();
-    }
-
     protected Set<Method> findAnnotatedMethods(final AnnotationHandler handler) throws MalformedURLException {
         Log.info("");
         Log.info(SEARCH_FUNCTIONS);
-        Set<Method> functions;
-        try {
-            Log.debug("ClassPath to resolve: " + getTargetClassUrl());
-            final List<URL> dependencyWithTargetClass = getDependencyArtifactUrls();
-            dependencyWithTargetClass.add(getTargetClassUrl());
-            functions = handler.findFunctions(dependencyWithTargetClass);
-        } catch (NoClassDefFoundError e) {
-            // fallback to reflect through artifact url, for shaded project(fat jar)
-            Log.debug("ClassPath to resolve: " + getArtifactUrl());
-            functions = handler.findFunctions(Arrays.asList(getArtifactUrl()));
-        }
+        final Set<Method> functions = findFunctions(handler);
         Log.info(functions.size() + FOUND_FUNCTIONS);
         return functions;
     }
 
-    protected URL getArtifactUrl() throws MalformedURLException {
-        return this.getProject().getArtifact().getFile().toURI().toURL();
-    }
-
-    protected URL getTargetClassUrl() throws MalformedURLException {
-        return outputDirectory.toURI().toURL();
-    }
-
-    /**
-     * @return URLs for the classpath with compile scope needed jars
-     */
-    protected List<URL> getDependencyArtifactUrls() {
-        final List<URL> urlList = new ArrayList<>();
-        final List<String> runtimeClasspathElements = new ArrayList<>();
-        try {
-            runtimeClasspathElements.addAll(this.getProject().getRuntimeClasspathElements());
-        } catch (DependencyResolutionRequiredException e) {
-            Log.debug("Failed to resolve dependencies for compile scope, exception: " + e.getMessage());
-        }
-        for (final String element : runtimeClasspathElements) {
-            final File f = new File(element);
-            try {
-                urlList.add(f.toURI().toURL());
-            } catch (MalformedURLException e) {
-                Log.debug("Failed to get URL for file: " + f.toString());
-            }
-        }
-        return urlList;
-    }
-
     //endregion
 
     //region Generate function configurations
@@ -228,22 +178,16 @@ public class PackageMojo extends AbstractFunctionMojo {
                                                                            final Set<Method> methods) throws AzureExecutionException {
         Log.info("");
         Log.info(GENERATE_CONFIG);
-        final Map<String, FunctionConfiguration> configMap = handler.generateConfigurations(methods);
+        final Map<String, FunctionConfiguration> configMap = generateFunctionConfigurations(handler, methods);
         if (configMap.size() == 0) {
             Log.info(GENERATE_SKIP);
         } else {
-            final String scriptFilePath = getScriptFilePath();
-            configMap.values().forEach(config -> config.setScriptFile(scriptFilePath));
             Log.info(GENERATE_DONE);
         }
 
         return configMap;
     }
 
-    protected String getScriptFilePath() {
-        return String.format("../%s.jar", getFinalName());
-    }
-
     //endregion
 
     //region Validate function configurations
@@ -254,7 +198,7 @@ public class PackageMojo extends AbstractFunctionMojo {
         if (configMap.size() == 0) {
             Log.info(VALIDATE_SKIP);
         } else {
-            configMap.values().forEach(FunctionConfiguration::validate);
+            FunctionJsonWriter.validate(configMap.values());
             Log.info(VALIDATE_DONE);
         }
     }
@@ -270,19 +214,27 @@ public class PackageMojo extends AbstractFunctionMojo {
         if (configMap.size() == 0) {
             Log.info(SAVE_SKIP);
         } else {
-            for (final Map.Entry<String, FunctionConfiguration> config : configMap.entrySet()) {
-                writeFunctionJsonFile(objectWriter, config.getKey(), config.getValue());
+            // files are written by worker threads, logs are written from this thread in the order of function names
+            final Map<String, Boolean> written = new ConcurrentSkipListMap<>();
+            FunctionJsonWriter.writeAll(configMap, (name, config) -> written.put(name, writeFunctionJsonFile(objectWriter, name, config)));
+            for (final Map.Entry<String, Boolean> entry : written.entrySet()) {
+                final File functionJsonFile = getFunctionJsonFile(entry.getKey());
+                Log.info(SAVE_FUNCTION_JSON + entry.getKey());
+                Log.info((entry.getValue() ? SAVE_SUCCESS : SAVE_UNCHANGED) + functionJsonFile.getAbsolutePath());
             }
         }
     }
 
-    protected void writeFunctionJsonFile(final ObjectWriter objectWriter, final String functionName,
-                                         final FunctionConfiguration config) throws IOException {
-        Log.info(SAVE_FUNCTION_JSON + functionName);
-        final File functionJsonFile = Paths.get(getDeploymentStagingDirectoryPath(),
-                functionName, FUNCTION_JSON).toFile();
-        writeObjectToFile(objectWriter, config, functionJsonFile);
-        Log.info(SAVE_SUCCESS + functionJsonFile.getAbsolutePath());
+    /**
+     * @return false if the file is not written because its content is the same.
+     */
+    protected boolean writeFunctionJsonFile(final ObjectWriter objectWriter, final String functionName,
+                                            final FunctionConfiguration config) throws IOException {
+        return writeObjectToFile(objectWriter, config, getFunctionJsonFile(functionName));
+    }
+
+    protected File getFunctionJsonFile(final String functionName) {
+        return Paths.get(getDeploymentStagingDirectoryPath(), functionName, FUNCTION_JSON).toFile();
     }
 
     protected void copyHostJson() throws IOException {
@@ -312,20 +264,16 @@ public class PackageMojo extends AbstractFunctionMojo {
         }
     }
 
-    protected void writeObjectToFile(final ObjectWriter objectWriter, final Object object, final File targetFile)
+    /**
+     * @return false if the file is not written because its content is unchanged
+     */
+    protected boolean writeObjectToFile(final ObjectWriter objectWriter, final Object object, final File targetFile)
             throws IOException {
-        targetFile.getParentFile().mkdirs();
-        targetFile.createNewFile();
-        objectWriter.writeValue(targetFile, object);
+        return FunctionJsonWriter.write(objectWriter, object, targetFile);
     }
 
     protected ObjectWriter getObjectWriter() {
-        final DefaultPrettyPrinter.Indenter indenter = DefaultIndenter.SYSTEM_LINEFEED_INSTANCE.withLinefeed(StringUtils.LF);
-        final PrettyPrinter prettyPrinter = new DefaultPrettyPrinter().withObjectIndenter(indenter);
-        return new ObjectMapper()
-                .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
-                .setSerializationInclusion(JsonInclude.Include.NON_NULL)
-                .writer(prettyPrinter);
+        return FunctionJsonWriter.getObjectWriter();
     }
 
     //endregion
@@ -336,19 +284,15 @@ public class PackageMojo extends AbstractFunctionMojo {
         final String stagingDirectory = getDeploymentStagingDirectoryPath();
         Log.info("");
         Log.info(COPY_JARS + stagingDirectory);
-        final File libFolder = Paths.get(stagingDirectory, "lib").toFile();
-        if (libFolder.exists()) {
-            FileUtils.cleanDirectory(libFolder);
-        }
         final Set<Artifact> artifacts = project.getArtifacts();
         final String libraryToExclude = artifacts.stream()
                 .filter(artifact -> StringUtils.equalsAnyIgnoreCase(artifact.getArtifactId(), AZURE_FUNCTIONS_JAVA_CORE_LIBRARY))
                 .map(Artifact::getArtifactId).findFirst().orElse(AZURE_FUNCTIONS_JAVA_LIBRARY);
-        for (final Artifact artifact : artifacts) {
-            if (!StringUtils.equalsIgnoreCase(artifact.getArtifactId(), libraryToExclude)) {
-                copyFileToDirectory(artifact.getFile(), libFolder);
-            }
-        }
+        final List<File> libraries = artifacts.stream()
+                .filter(artifact -> !StringUtils.equalsIgnoreCase(artifact.getArtifactId(), libraryToExclude))
+                .map(Artifact::getFile).collect(Collectors.toList());
+        final StagingSynchronizer.Result result = new StagingSynchronizer().syncLibraries(libraries, new File(stagingDirectory));
+        Log.info(StringUtils.capitalize(result.toString()));
         copyFileToDirectory(getArtifactFile(), new File(stagingDirectory));
         Log.info(COPY_SUCCESS);
     }
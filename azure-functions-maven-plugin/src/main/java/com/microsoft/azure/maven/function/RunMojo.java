@@ -7,6 +7,8 @@ package com.microsoft.azure.maven.function;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
+import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandler;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandler;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandlerImpl;
 import com.microsoft.azure.toolkit.lib.legacy.function.utils.CommandUtils;
@@ -16,13 +18,18 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.maven.artifact.versioning.ComparableVersion;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
 
 import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
 
 /**
  * Run Azure Java Functions locally. Azure Functions Core Tools is required to be installed first.
  */
-@Mojo(name = "run")
+@Mojo(name = "run", requiresDependencyResolution = ResolutionScope.RUNTIME)
 public class RunMojo extends AbstractFunctionMojo {
     protected static final String FUNC_CMD = "func -v";
     protected static final String FUNC_HOST_START_CMD = "func host start";
@@ -51,6 +58,20 @@ public class RunMojo extends AbstractFunctionMojo {
     @Parameter(property = "localDebugConfig", defaultValue = "transport=dt_socket,server=y,suspend=n,address=5005")
     protected String localDebugConfig;
 
+    /**
+     * Watch changes of compiled classes (e.g. by the IDE or `mvn compile` in another terminal) and reload them into
+     * the running function host, the host is restarted only if function bindings change. Function classes are loaded
+     * with the runtime dependencies of the project, so they are resolved by this goal.
+     */
+    @Parameter(property = "functions.watch", defaultValue = "false")
+    protected boolean watch;
+
+    /**
+     * Milliseconds without further changes to wait before reloading in watch mode
+     */
+    @Parameter(property = "functions.watchDebounce", defaultValue = "500")
+    protected long watchDebounce;
+
     //region Getter
 
     public String getLocalDebugConfig() {
@@ -78,7 +99,11 @@ public class RunMojo extends AbstractFunctionMojo {
 
         checkRuntimeCompatibility(commandHandler);
 
-        runFunctions(commandHandler);
+        if (watch) {
+            runFunctionsWithWatch();
+        } else {
+            runFunctions(commandHandler);
+        }
     }
 
     protected void checkStageDirectoryExistence() throws AzureExecutionException {
@@ -110,6 +135,35 @@ public class RunMojo extends AbstractFunctionMojo {
         );
     }
 
+    protected void runFunctionsWithWatch() throws AzureExecutionException {
+        final File stagingDirectory = new File(getDeploymentStagingDirectoryPath());
+        final File stagedArtifact = new File(stagingDirectory, getFinalName() + ".jar");
+        final FunctionHostWatcher watcher = new FunctionHostWatcher(outputDirectory, stagingDirectory, stagedArtifact,
+                Arrays.asList(buildCommand(getStartFunctionHostCommand())), this::generateConfigurations);
+        watcher.setDebounce(Duration.ofMillis(watchDebounce));
+        try {
+            final int exitCode = watcher.run();
+            if (!CommandUtils.getValidReturnCodes().contains(Integer.toUnsignedLong(exitCode))) {
+                throw new AzureExecutionException(RUN_FUNCTIONS_FAILURE);
+            }
+        } catch (IOException e) {
+            throw new AzureExecutionException(RUN_FUNCTIONS_FAILURE, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * generate configurations of functions in the classes output directory the same way as the package goal, so that
+     * function.json files it wrote are only rewritten (and the host restarted) if bindings really change. classes are
+     * loaded by a new class loader every time, which is closed once configurations are generated.
+     */
+    protected Map<String, FunctionConfiguration> generateConfigurations() throws AzureExecutionException, IOException {
+        try (final AnnotationHandler handler = getAnnotationHandler()) {
+            return generateFunctionConfigurations(handler, findFunctions(handler));
+        }
+    }
+
     private void checkRuntimeCompatibility(final CommandHandler handler) throws AzureExecutionException {
         // Maven will always refer JAVA_HOME, which is also adopted by function core tools
         // So we could get function core tools runtime by java.version
@@ -147,5 +201,14 @@ public class RunMojo extends AbstractFunctionMojo {
         return String.format(FUNC_HOST_START_WITH_DEBUG_CMD, this.getLocalDebugConfig());
     }
 
+    /**
+     * the shell is replaced by the host on unix, so that stopping the process stops the host.
+     */
+    protected static String[] buildCommand(final String command) {
+        return CommandUtils.isWindows() ?
+                new String[]{"cmd.exe", "/c", command} :
+                new String[]{"sh", "-c", "exec " + command};
+    }
+
     //endregion
 }
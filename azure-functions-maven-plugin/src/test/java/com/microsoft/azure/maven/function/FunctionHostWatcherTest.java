@@ -0,0 +1,243 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.maven.function;
+
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionJsonWriter;
+import com.microsoft.azure.toolkit.lib.legacy.function.bindings.Binding;
+import com.microsoft.azure.toolkit.lib.legacy.function.bindings.BindingEnum;
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
+import com.microsoft.azure.toolkit.lib.legacy.function.utils.CommandUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystemException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FunctionHostWatcherTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String HELLO_CLASS = "com/example/Hello.class";
+    // a fake `func host start`, which records the functions it starts with and when it's stopped
+    private static final String FUNC_SCRIPT = "trap 'echo stop >> host.log; exit 0' TERM\n" +
+        "echo start $(ls -d */ 2>/dev/null | tr -d '/' | tr '\\n' ' ') >> host.log\n" +
+        "while true; do sleep 0.1; done\n";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File classes;
+    private File staging;
+    private File artifact;
+    private final AtomicReference<Map<String, FunctionConfiguration>> functions = new AtomicReference<>();
+    private FunctionHostWatcher watcher;
+    private Thread thread;
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+    /**
+     * how many times replacing the staged artifact fails next, as if it's held open by the host.
+     */
+    private final AtomicInteger locks = new AtomicInteger();
+
+    @Before
+    public void setUp() throws Exception {
+        Assume.assumeFalse(CommandUtils.isWindows());
+        classes = folder.newFolder("classes");
+        staging = folder.newFolder("staging");
+        artifact = new File(staging, "app.jar");
+        writeClass(HELLO_CLASS, "hello-v1");
+        try (final ZipOutputStream output = new ZipOutputStream(FileUtils.openOutputStream(artifact))) {
+            output.putNextEntry(new ZipEntry(HELLO_CLASS));
+            output.write("hello-v1".getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+        functions.set(createFunctions("hello"));
+        for (final Map.Entry<String, FunctionConfiguration> entry : functions.get().entrySet()) {
+            FunctionJsonWriter.write(FunctionJsonWriter.getObjectWriter(), entry.getValue(),
+                new File(new File(staging, entry.getKey()), "function.json"));
+        }
+        final File func = folder.newFile("func.sh");
+        FileUtils.write(func, FUNC_SCRIPT, StandardCharsets.UTF_8);
+
+        watcher = new FunctionHostWatcher(classes, staging, artifact, Arrays.asList("sh", func.getAbsolutePath()), functions::get) {
+            @Override
+            void replaceArtifact(@Nonnull Path patched) throws IOException {
+                if (locks.getAndDecrement() > 0) {
+                    throw new FileSystemException(artifact.getPath(), null, "in use by another process");
+                }
+                super.replaceArtifact(patched);
+            }
+        };
+        watcher.setDebounce(Duration.ofMillis(500));
+        thread = new Thread(() -> {
+            try {
+                watcher.run();
+            } catch (final InterruptedException e) {
+                // stopped by the test
+            } catch (final Throwable e) {
+                error.set(e);
+            }
+        });
+        thread.start();
+        waitFor(() -> getHostLog().equals(Collections.singletonList("start hello")));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (thread != null) {
+            thread.interrupt();
+            thread.join(TIMEOUT.toMillis());
+            assertFalse(thread.isAlive());
+            assertNull(error.get());
+            assertEquals("stop", getHostLog().get(getHostLog().size() - 1));
+        }
+    }
+
+    @Test
+    public void reloadClassWithoutRestart() throws Exception {
+        writeClass(HELLO_CLASS, "hello-v2");
+        waitFor(() -> watcher.getReloads() == 1);
+
+        assertEquals("hello-v2", readEntry(HELLO_CLASS));
+        assertEquals(0, watcher.getRestarts());
+        assertEquals(Collections.singletonList("start hello"), getHostLog());
+    }
+
+    @Test
+    public void restartOnBindingChanges() throws Exception {
+        functions.set(createFunctions("hello", "world"));
+        writeClass("com/example/World.class", "world-v1");
+        waitFor(() -> watcher.getRestarts() == 1);
+
+        assertTrue(new File(staging, "world/function.json").isFile());
+        assertEquals("world-v1", readEntry("com/example/World.class"));
+        assertEquals(Arrays.asList("start hello", "stop", "start hello world"), getHostLog());
+
+        functions.set(createFunctions("world"));
+        FileUtils.forceDelete(new File(classes, HELLO_CLASS));
+        waitFor(() -> watcher.getRestarts() == 2);
+
+        assertFalse(new File(staging, "hello").exists());
+        assertNull(readEntry(HELLO_CLASS));
+        assertEquals(Arrays.asList("start hello", "stop", "start hello world", "stop", "start world"), getHostLog());
+    }
+
+    @Test
+    public void reloadOnceForBurstOfChanges() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            writeClass(String.format("com/example/Generated%d.class", i), "generated");
+            writeClass(HELLO_CLASS, "hello-v" + i);
+        }
+        waitFor(() -> watcher.getReloads() == 1);
+        Thread.sleep(1000);
+
+        assertEquals(1, watcher.getReloads());
+        assertEquals(0, watcher.getRestarts());
+        assertEquals("hello-v19", readEntry(HELLO_CLASS));
+        for (int i = 0; i < 20; i++) {
+            assertEquals("generated", readEntry(String.format("com/example/Generated%d.class", i)));
+        }
+    }
+
+    @Test
+    public void replaceLockedArtifactWhileHostIsStopped() throws Exception {
+        locks.set(1);
+        writeClass(HELLO_CLASS, "hello-v2");
+        waitFor(() -> watcher.getReloads() == 1);
+
+        assertEquals("hello-v2", readEntry(HELLO_CLASS));
+        assertEquals(1, watcher.getRestarts());
+        assertEquals(Arrays.asList("start hello", "stop", "start hello"), getHostLog());
+    }
+
+    @Test
+    public void retryFailedReload() throws Exception {
+        // both replacing attempts of the first reload fail
+        locks.set(2);
+        writeClass(HELLO_CLASS, "hello-v2");
+        waitFor(() -> watcher.getReloads() == 1);
+
+        assertEquals("two failed attempts and a successful retry", -1, locks.get());
+        assertEquals("hello-v2", readEntry(HELLO_CLASS));
+        assertEquals(1, watcher.getRestarts());
+        assertEquals(Arrays.asList("start hello", "stop", "start hello"), getHostLog());
+    }
+
+    private void writeClass(String path, String content) throws IOException {
+        FileUtils.write(new File(classes, path), content, StandardCharsets.UTF_8);
+    }
+
+    private String readEntry(String name) throws IOException {
+        try (final ZipFile zip = new ZipFile(artifact)) {
+            final ZipEntry entry = zip.getEntry(name);
+            if (entry == null) {
+                return null;
+            }
+            try (final InputStream input = zip.getInputStream(entry)) {
+                return IOUtils.toString(input, StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    private List<String> getHostLog() {
+        try {
+            final File log = new File(staging, "host.log");
+            return log.exists() ? FileUtils.readLines(log, StandardCharsets.UTF_8) : Collections.emptyList();
+        } catch (final IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void waitFor(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline || error.get() != null) {
+                fail(String.format("timeout, error: %s, host log: %s", error.get(), getHostLog()));
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    private static Map<String, FunctionConfiguration> createFunctions(String... names) {
+        final Map<String, FunctionConfiguration> result = new TreeMap<>();
+        for (final String name : names) {
+            final FunctionConfiguration config = new FunctionConfiguration();
+            config.setScriptFile("../app.jar");
+            config.setEntryPoint(String.format("com.example.%s.run", name));
+            final Binding trigger = new Binding(BindingEnum.HttpTrigger);
+            trigger.setName("req");
+            config.getBindings().add(trigger);
+            result.put(name, config);
+        }
+        return result;
+    }
+}
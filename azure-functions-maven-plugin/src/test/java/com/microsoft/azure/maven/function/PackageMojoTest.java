@@ -5,19 +5,25 @@
 
 package com.microsoft.azure.maven.function;
 
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandler;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandlerImpl;
 import org.codehaus.plexus.util.ReflectionUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -30,6 +36,9 @@ import static org.mockito.Mockito.spy;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PackageMojoTest extends MojoTestBase {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void doExecute() throws Exception {
         final PackageMojo mojo = getMojoFromPom();
@@ -72,9 +81,29 @@ public class PackageMojoTest extends MojoTestBase {
         final PackageMojo mojo = getMojoFromPom();
         final PackageMojo mojoSpy = spy(mojo);
         doReturn("target/azure-functions").when(mojoSpy).getDeploymentStagingDirectoryPath();
-        doNothing().when(mojoSpy).writeObjectToFile(isNull(), isNull(), isNotNull());
+        doReturn(true).when(mojoSpy).writeObjectToFile(isNull(), isNull(), isNotNull());
+
+        assertTrue(mojoSpy.writeFunctionJsonFile(null, "httpTrigger", null));
+    }
+
+    @Test
+    public void writeFunctionJsonFiles() throws Exception {
+        final PackageMojo mojoSpy = spy(getMojoFromPom());
+        doReturn(folder.getRoot().getAbsolutePath()).when(mojoSpy).getDeploymentStagingDirectoryPath();
+        final Map<String, FunctionConfiguration> configMap = new HashMap<>();
+        for (int i = 0; i < 8; i++) {
+            final FunctionConfiguration config = new FunctionConfiguration();
+            config.setEntryPoint("com.example.Function.run" + i);
+            configMap.put("function-" + i, config);
+        }
+
+        mojoSpy.writeFunctionJsonFiles(mojoSpy.getObjectWriter(), configMap);
 
-        mojoSpy.writeFunctionJsonFile(null, "httpTrigger", null);
+        for (final String name : configMap.keySet()) {
+            assertTrue(mojoSpy.getFunctionJsonFile(name).isFile());
+            // unchanged
+            assertFalse(mojoSpy.writeFunctionJsonFile(mojoSpy.getObjectWriter(), name, configMap.get(name)));
+        }
     }
 
     private PackageMojo getMojoFromPom() throws Exception {
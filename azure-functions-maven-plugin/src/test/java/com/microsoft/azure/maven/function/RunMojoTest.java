@@ -5,26 +5,49 @@
 
 package com.microsoft.azure.maven.function;
 
+import com.microsoft.azure.functions.HttpMethod;
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionJsonWriter;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
+import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandler;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandler;
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.CommandHandlerImpl;
 import com.microsoft.azure.toolkit.lib.legacy.function.utils.CommandUtils;
 
+import org.apache.commons.io.FileUtils;
+import org.codehaus.plexus.util.ReflectionUtils;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.junit.MockitoJUnitRunner;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+
 import static com.microsoft.azure.maven.function.RunMojo.FUNC_CMD;
 import static com.microsoft.azure.maven.function.RunMojo.FUNC_HOST_START_CMD;
 import static com.microsoft.azure.maven.function.RunMojo.RUNTIME_NOT_FOUND;
 import static com.microsoft.azure.maven.function.RunMojo.RUN_FUNCTIONS_FAILURE;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
@@ -34,6 +57,11 @@ import static org.mockito.Mockito.verify;
 
 @RunWith(MockitoJUnitRunner.class)
 public class RunMojoTest extends MojoTestBase {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File classes;
+    private File staging;
 
     @Test
     public void doExecute() throws Exception {
@@ -119,6 +147,73 @@ public class RunMojoTest extends MojoTestBase {
         assertTrue(mojoSpy.getStartFunctionHostCommand().contains("-agentlib:jdwp"));
     }
 
+    @Test
+    public void reloadUnchangedClassAfterPackageWithoutRestart() throws Exception {
+        copyClass(HelloFunction.class);
+        final PackageMojo packageMojo = configure(spy((PackageMojo) getMojoFromPom("/pom.xml", "package")));
+        doReturn(staging.getAbsolutePath()).when(packageMojo).getDeploymentStagingDirectoryPath();
+        final AnnotationHandler handler = packageMojo.getAnnotationHandler();
+        packageMojo.writeFunctionJsonFiles(packageMojo.getObjectWriter(),
+            packageMojo.getFunctionConfigurations(handler, packageMojo.findAnnotatedMethods(handler)));
+        final File functionJson = new File(staging, "hello/function.json");
+        final byte[] packaged = Files.readAllBytes(functionJson.toPath());
+
+        final RunMojo runMojo = configure(spy(getMojoFromPom()));
+        final Map<String, FunctionConfiguration> generated = runMojo.generateConfigurations();
+        assertArrayEquals(packaged, FunctionJsonWriter.getObjectWriter().writeValueAsBytes(generated.get("hello")));
+
+        // recompiled without changes of bindings
+        final FunctionHostWatcher watcher = new FunctionHostWatcher(classes, staging, new File(staging, "app.jar"),
+            Collections.singletonList("func"), runMojo::generateConfigurations);
+        copyClass(HelloFunction.class);
+        assertFalse(watcher.reload(Collections.singleton(getClassPath(HelloFunction.class)), Collections.emptySet()));
+        assertEquals(0, watcher.getRestarts());
+        assertArrayEquals(packaged, Files.readAllBytes(functionJson.toPath()));
+    }
+
+    @Test(expected = AzureExecutionException.class)
+    public void generateConfigurationsWithDuplicateNames() throws Exception {
+        copyClass(HelloFunction.class);
+        copyClass(AnotherHelloFunction.class);
+        final RunMojo runMojo = configure(spy(getMojoFromPom()));
+
+        runMojo.generateConfigurations();
+    }
+
+    private <T extends AbstractFunctionMojo> T configure(T mojo) throws Exception {
+        classes = new File(folder.getRoot(), "classes");
+        staging = new File(folder.getRoot(), "staging");
+        ReflectionUtils.setVariableValueInObject(mojo, "outputDirectory", classes);
+        ReflectionUtils.setVariableValueInObject(mojo, "finalName", "app");
+        // the annotation library is a dependency of function projects
+        final URL library = FunctionName.class.getProtectionDomain().getCodeSource().getLocation();
+        doAnswer(invocation -> new ArrayList<>(Collections.singletonList(library))).when(mojo).getDependencyArtifactUrls();
+        return mojo;
+    }
+
+    private void copyClass(Class<?> clazz) throws IOException {
+        final String path = getClassPath(clazz);
+        FileUtils.copyURLToFile(Objects.requireNonNull(clazz.getResource("/" + path)), new File(folder.getRoot(), "classes/" + path));
+    }
+
+    private static String getClassPath(Class<?> clazz) {
+        return clazz.getName().replace('.', '/') + ".class";
+    }
+
+    public static class HelloFunction {
+        @FunctionName("hello")
+        public String run(@HttpTrigger(name = "req", methods = {HttpMethod.GET}, authLevel = AuthorizationLevel.ANONYMOUS) String request) {
+            return request;
+        }
+    }
+
+    public static class AnotherHelloFunction {
+        @FunctionName("Hello")
+        public String run(@HttpTrigger(name = "req", methods = {HttpMethod.POST}, authLevel = AuthorizationLevel.ANONYMOUS) String request) {
+            return request;
+        }
+    }
+
     private RunMojo getMojoFromPom() throws Exception {
         final RunMojo mojo = (RunMojo) getMojoFromPom("/pom.xml", "run");
         assertNotNull(mojo);
@@ -9,6 +9,7 @@ import com.azure.core.http.policy.HttpLogDetailLevel;
 import com.azure.core.management.AzureEnvironment;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.microsoft.applicationinsights.TelemetryConfiguration;
 import com.microsoft.applicationinsights.internal.channel.common.ApacheSenderFactory;
 import com.microsoft.azure.maven.exception.MavenDecryptException;
 import com.microsoft.azure.maven.model.MavenAuthConfiguration;
@@ -25,6 +26,7 @@ import com.microsoft.azure.toolkit.lib.auth.AzureAccount;
 import com.microsoft.azure.toolkit.lib.auth.AzureCloud;
 import com.microsoft.azure.toolkit.lib.auth.AzureEnvironmentUtils;
 import com.microsoft.azure.toolkit.lib.auth.AzureToolkitAuthenticationException;
+import com.microsoft.azure.toolkit.lib.common.cache.CacheManager;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.logging.Log;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
@@ -75,6 +77,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -249,6 +252,23 @@ public abstract class AbstractAzureMojo extends AbstractMojo {
     @Parameter(property = "auth")
     protected MavenAuthConfiguration auth;
 
+    /**
+     * Max time (in milliseconds) to wait for pending telemetries to be sent when the goal finishes.
+     * @since 1.24.0
+     */
+    @JsonIgnore
+    @Parameter(property = "telemetryDrainTimeout", defaultValue = "2000")
+    protected long telemetryDrainTimeout = 2000;
+
+    /**
+     * Boolean flag to print a summary (requests, hit rate, loads, evictions and load latencies) of every cache used
+     * by the goal when it finishes, the summary is only printed in debug mode (-X) if set to false.
+     * @since 1.24.0
+     */
+    @JsonIgnore
+    @Parameter(property = "showCacheStatistics", defaultValue = "false")
+    protected boolean showCacheStatistics;
+
     @Component
     @JsonIgnore
     protected SettingsDecrypter settingsDecrypter;
@@ -313,18 +333,23 @@ public abstract class AbstractAzureMojo extends AbstractMojo {
             // Refer here for detail codes: https://github.com/Microsoft/ApplicationInsights-Java/blob/master/core/src
             // /main/java/com/microsoft/applicationinsights/internal/channel/common/ApacheSender43.java#L103
             Optional.ofNullable(TextIOUtils.getTextTerminal()).ifPresent(TextTerminal::dispose);
-            try {
-                // Sleep to wait ai sdk flush telemetries
-                Thread.sleep(2 * 1000);
-            } catch (InterruptedException e) {
-                // swallow this exception
-            }
+            logCacheStatistics();
+            // wait (at most telemetryDrainTimeout) for pending telemetries to be transmitted by the channel before closing the sender
+            Optional.ofNullable(telemetryProxy).ifPresent(proxy -> proxy.close(telemetryDrainTimeout, TimeUnit.MILLISECONDS));
             ApacheSenderFactory.INSTANCE.create().close();
         }
     }
 
     //endregion
 
+    private void logCacheStatistics() {
+        if (showCacheStatistics) {
+            CacheManager.stats().values().forEach(stats -> Log.info(stats.toString()));
+        } else if (Log.isDebugEnabled()) {
+            CacheManager.stats().values().forEach(stats -> Log.debug(stats.toString()));
+        }
+    }
+
     public String getBuildDirectoryAbsolutePath() {
         return buildDirectory.getAbsolutePath();
     }
@@ -443,7 +468,7 @@ public abstract class AbstractAzureMojo extends AbstractMojo {
 
     protected void initTelemetryProxy() {
         final Map<String, String> properties = getTelemetryProperties();
-        telemetryProxy = new AzureTelemetryClient(properties);
+        telemetryProxy = new AzureTelemetryClient(properties, createTelemetryConfiguration());
         AzureTelemeter.setClient(telemetryProxy);
         AzureTelemeter.setEventNamePrefix("AzurePlugin.Maven");
         if (!isAllowTelemetry()) {
@@ -452,6 +477,14 @@ public abstract class AbstractAzureMojo extends AbstractMojo {
         }
     }
 
+    /**
+     * @return a configuration owned by this execution, since its channel is stopped when the goal finishes, while the
+     * plugin (and the active configuration) may be reused by the following modules of the reactor.
+     */
+    protected TelemetryConfiguration createTelemetryConfiguration() {
+        return TelemetryConfiguration.createDefault();
+    }
+
     //endregion
     public Map<String, String> getTelemetryProperties() {
         final Map<String, String> map = new HashMap<>();
@@ -5,6 +5,10 @@
 
 package com.microsoft.azure.maven;
 
+import com.microsoft.applicationinsights.TelemetryConfiguration;
+import com.microsoft.applicationinsights.channel.TelemetryChannel;
+import com.microsoft.applicationinsights.telemetry.EventTelemetry;
+import com.microsoft.applicationinsights.telemetry.Telemetry;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 
 import org.apache.commons.lang3.StringUtils;
@@ -23,7 +27,13 @@ import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
 
 import static com.microsoft.azure.maven.AbstractAzureMojo.INSTALLATION_ID_KEY;
 import static com.microsoft.azure.maven.AbstractAzureMojo.PLUGIN_NAME_KEY;
@@ -33,7 +43,11 @@ import static com.microsoft.azure.maven.AbstractAzureMojo.SUBSCRIPTION_ID_KEY;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 
 @RunWith(MockitoJUnitRunner.class)
 public class AbstractAzureMojoTest {
@@ -64,8 +78,17 @@ public class AbstractAzureMojoTest {
         @Override
         protected void doExecute() throws AzureExecutionException {
         }
+
+        @Override
+        protected TelemetryConfiguration createTelemetryConfiguration() {
+            return telemetryConfiguration;
+        }
     };
 
+    private TelemetryConfiguration telemetryConfiguration;
+    private final List<Telemetry> buffered = new ArrayList<>();
+    private final List<Telemetry> transmitted = new CopyOnWriteArrayList<>();
+
     @Before
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
@@ -75,6 +98,7 @@ public class AbstractAzureMojoTest {
         ReflectionUtils.setVariableValueInObject(mojo, "subscriptionId", SUBSCRIPTION_ID);
         ReflectionUtils.setVariableValueInObject(mojo, "allowTelemetry", false);
         ReflectionUtils.setVariableValueInObject(mojo, "failsOnError", true);
+        telemetryConfiguration = createStubTelemetryConfiguration();
         mojo.initTelemetryProxy();
     }
 
@@ -137,6 +161,25 @@ public class AbstractAzureMojoTest {
         mojo.execute();
     }
 
+    @Test
+    public void transmitLastEventsBeforeShutdown() throws Exception {
+        ReflectionUtils.setVariableValueInObject(mojo, "allowTelemetry", true);
+        mojo.execute();
+
+        final List<String> events = transmitted.stream().map(t -> ((EventTelemetry) t).getName()).collect(Collectors.toList());
+        assertTrue(events.toString(), events.stream().anyMatch(name -> name.endsWith(".start")));
+        assertTrue(events.toString(), events.stream().anyMatch(name -> name.endsWith(".success")));
+    }
+
+    @Test
+    public void transmitTelemetryNotAllowedBeforeShutdown() throws Exception {
+        mojo.execute();
+
+        final List<String> events = transmitted.stream().map(t -> ((EventTelemetry) t).getName()).collect(Collectors.toList());
+        assertTrue(events.toString(), events.contains("TelemetryNotAllowed"));
+        assertFalse(events.toString(), events.stream().anyMatch(name -> name.endsWith(".success")));
+    }
+
     @Test
     public void processException() throws Exception {
         final String message = "test exception message";
@@ -160,4 +203,40 @@ public class AbstractAzureMojoTest {
         assertTrue(map.containsKey(SUBSCRIPTION_ID_KEY));
         assertTrue(map.containsKey(SESSION_ID_KEY));
     }
+
+    /**
+     * a channel that transmits flushed events asynchronously (like the channel of AI SDK), they are only received if
+     * the channel is stopped gracefully before the goal returns.
+     */
+    private TelemetryConfiguration createStubTelemetryConfiguration() {
+        final ExecutorService transmitter = Executors.newSingleThreadExecutor();
+        final TelemetryChannel channel = mock(TelemetryChannel.class);
+        doAnswer(invocation -> {
+            synchronized (buffered) {
+                buffered.add(invocation.getArgument(0));
+            }
+            return null;
+        }).when(channel).send(any());
+        doAnswer(invocation -> {
+            final List<Telemetry> batch;
+            synchronized (buffered) {
+                batch = new ArrayList<>(buffered);
+                buffered.clear();
+            }
+            transmitter.submit(() -> {
+                Thread.sleep(200); // network latency
+                return transmitted.addAll(batch);
+            });
+            return null;
+        }).when(channel).flush();
+        doAnswer(invocation -> {
+            transmitter.shutdown();
+            transmitter.awaitTermination(invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(channel).stop(anyLong(), any());
+        final TelemetryConfiguration configuration = new TelemetryConfiguration();
+        configuration.setInstrumentationKey("00000000-0000-0000-0000-000000000000");
+        configuration.setChannel(channel);
+        return configuration;
+    }
 }
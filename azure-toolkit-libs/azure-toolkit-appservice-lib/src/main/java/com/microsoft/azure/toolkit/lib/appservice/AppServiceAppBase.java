@@ -13,9 +13,11 @@ import com.azure.resourcemanager.appservice.models.WebAppBase;
 import com.azure.resourcemanager.appservice.models.WebSiteBase;
 import com.azure.resourcemanager.resources.fluentcore.arm.ResourceId;
 import com.microsoft.azure.toolkit.lib.Azure;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.OneDeployScheduler;
 import com.microsoft.azure.toolkit.lib.appservice.file.AppServiceKuduClient;
 import com.microsoft.azure.toolkit.lib.appservice.file.IFileClient;
 import com.microsoft.azure.toolkit.lib.appservice.file.IProcessClient;
+import com.microsoft.azure.toolkit.lib.appservice.file.VfsSynchronizer;
 import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
 import com.microsoft.azure.toolkit.lib.appservice.model.CommandOutput;
 import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
@@ -24,6 +26,7 @@ import com.microsoft.azure.toolkit.lib.appservice.model.ProcessInfo;
 import com.microsoft.azure.toolkit.lib.appservice.model.PublishingProfile;
 import com.microsoft.azure.toolkit.lib.appservice.model.Runtime;
 import com.microsoft.azure.toolkit.lib.appservice.model.TunnelStatus;
+import com.microsoft.azure.toolkit.lib.appservice.model.WebAppArtifact;
 import com.microsoft.azure.toolkit.lib.appservice.plan.AppServicePlan;
 import com.microsoft.azure.toolkit.lib.appservice.plan.AppServicePlanModule;
 import com.microsoft.azure.toolkit.lib.appservice.utils.AppServiceUtils;
@@ -112,15 +115,32 @@ public abstract class AppServiceAppBase<
     public void deploy(@Nonnull DeployType deployType, @Nonnull File targetFile, @Nullable String targetPath) {
         final WebSiteBase remote = this.getRemote();
         if (remote instanceof SupportsOneDeploy) {
-            final DeployOptions options = new DeployOptions().withPath(targetPath);
-            AzureMessager.getMessager().info(AzureString.format("Deploying (%s)[%s] %s ...", targetFile.toString(),
-                (deployType.toString()), StringUtils.isBlank(targetPath) ? "" : (" to " + (targetPath))));
-            final com.azure.resourcemanager.appservice.models.DeployType type =
-                com.azure.resourcemanager.appservice.models.DeployType.fromString(deployType.getValue());
-            this.doModify(() -> Objects.requireNonNull(((SupportsOneDeploy) remote)).deploy(type, targetFile, options), Status.DEPLOYING);
+            this.doModify(() -> doDeploy((SupportsOneDeploy) remote, deployType, targetFile, targetPath, null), Status.DEPLOYING);
         }
     }
 
+    /**
+     * deploy {@code artifacts} through the {@code scheduler} as one modification of this app, since concurrent
+     * modifications of the same app are rejected.
+     */
+    public void deploy(@Nonnull List<WebAppArtifact> artifacts, @Nonnull OneDeployScheduler scheduler) {
+        final WebSiteBase remote = this.getRemote();
+        if (remote instanceof SupportsOneDeploy) {
+            this.doModify(() -> scheduler.deploy(artifacts, (artifact, restartSite) ->
+                doDeploy((SupportsOneDeploy) remote, artifact.getDeployType(), artifact.getFile(), artifact.getPath(), restartSite)), Status.DEPLOYING);
+        }
+    }
+
+    private static void doDeploy(@Nonnull SupportsOneDeploy remote, @Nonnull DeployType deployType, @Nonnull File targetFile,
+                                 @Nullable String targetPath, @Nullable Boolean restartSite) {
+        final DeployOptions options = new DeployOptions().withPath(targetPath).withRestartSite(restartSite);
+        AzureMessager.getMessager().info(AzureString.format("Deploying (%s)[%s] %s ...", targetFile.toString(),
+            (deployType.toString()), StringUtils.isBlank(targetPath) ? "" : (" to " + (targetPath))));
+        final com.azure.resourcemanager.appservice.models.DeployType type =
+            com.azure.resourcemanager.appservice.models.DeployType.fromString(deployType.getValue());
+        remote.deploy(type, targetFile, options);
+    }
+
     @Nullable
     public String getHostName() {
         return this.remoteOptional().map(WebSiteBase::defaultHostname).orElse(null);
@@ -165,6 +185,10 @@ public abstract class AppServiceAppBase<
         Optional.ofNullable(getFileClient()).ifPresent(c -> c.uploadFileToPath(content, path));
     }
 
+    public void uploadFileToPath(byte[] content, String path) {
+        Optional.ofNullable(getFileClient()).ifPresent(c -> c.uploadFileToPath(content, path));
+    }
+
     public void createDirectory(String path) {
         Optional.ofNullable(getFileClient()).ifPresent(c -> c.createDirectory(path));
     }
@@ -173,6 +197,14 @@ public abstract class AppServiceAppBase<
         Optional.ofNullable(getFileClient()).ifPresent(c -> c.deleteFile(path));
     }
 
+    /**
+     * @return synchronizer that uploads changed files of a local directory to this app through the vfs api.
+     */
+    @Nonnull
+    public VfsSynchronizer getSynchronizer() {
+        return new VfsSynchronizer(Objects.requireNonNull(getFileClient(), "file client is not available before app is created."));
+    }
+
     @Nonnull
     public List<ProcessInfo> listProcess() {
         return Optional.ofNullable(getProcessClient()).map(IProcessClient::listProcess).orElseGet(Collections::emptyList);
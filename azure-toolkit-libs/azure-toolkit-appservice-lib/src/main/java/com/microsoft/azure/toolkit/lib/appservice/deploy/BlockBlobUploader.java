@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import com.microsoft.azure.storage.RetryNoRetry;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlobRequestOptions;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.BlockSearchMode;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.codec.digest.DigestUtils;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * uploads a file as a block blob in fixed-size blocks, blocks are staged concurrently with their MD5 and retried
+ * individually, then committed with a single Put Block List. ids of staged blocks are recorded in a local journal keyed
+ * by the content hash and the target blob, so that an interrupted upload of the same content to the same blob only
+ * stages the missing blocks when run again, even if the content is packaged to a different temp file.
+ */
+@Slf4j
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class BlockBlobUploader {
+    public static final int DEFAULT_BLOCK_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_BLOCKS = 50000;
+    private static final String JOURNAL_SUFFIX = ".upload-journal";
+    // `~/.azure` is shared with azure cli and other tools
+    private static final Path DEFAULT_JOURNAL_DIRECTORY = Paths.get(System.getProperty("user.home"), ".azure", "azure-toolkit-uploads");
+    // uncommitted blocks are discarded by the service after a week, so are journals of abandoned uploads
+    private static final Duration JOURNAL_LIFETIME = Duration.ofDays(7);
+
+    @Nonnull
+    private final BlockStore store;
+    private int blockSize = DEFAULT_BLOCK_SIZE;
+    private int parallelism = 4;
+    private int maxAttempts = 3;
+    private Duration backoff = Duration.ofSeconds(1);
+    @Nonnull
+    private Path journalDirectory = DEFAULT_JOURNAL_DIRECTORY;
+
+    public void upload(@Nonnull File file) {
+        final String key = this.getKey(file);
+        this.deleteExpiredJournals();
+        this.upload(file, key, this.journalDirectory.resolve(key + JOURNAL_SUFFIX).toFile());
+    }
+
+    /**
+     * @param journal records ids of staged blocks, it's deleted once the blob is committed.
+     */
+    public void upload(@Nonnull File file, @Nonnull File journal) {
+        this.upload(file, this.getKey(file), journal);
+    }
+
+    private void upload(@Nonnull File file, @Nonnull String key, @Nonnull File journal) {
+        final long length = file.length();
+        final long size = getBlockSize(length, this.blockSize);
+        final List<String> blockIds = IntStream.range(0, (int) ((length + size - 1) / size)) // an empty file is committed with no blocks
+            .mapToObj(i -> getBlockId(key, i)).collect(Collectors.toList());
+        final Set<String> staged = this.loadJournal(journal, key);
+        if (!staged.isEmpty()) {
+            AzureMessager.getMessager().info(String.format("Resuming upload of %s, %d of %d blocks are already uploaded.",
+                file.getName(), staged.size(), blockIds.size()));
+        }
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // a failed block doesn't cancel the others, so that they can be skipped when resumed
+            Flux.range(0, blockIds.size()).filter(i -> !staged.contains(blockIds.get(i)))
+                .flatMapDelayError(i -> Mono.fromRunnable(() -> this.stageBlock(channel, blockIds.get(i), i * size, (int) Math.min(size, length - i * size), journal))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .retryWhen(Retry.backoff(this.maxAttempts - 1, this.backoff)), this.parallelism, this.parallelism)
+                .blockLast();
+        } catch (final IOException | RuntimeException e) {
+            final Throwable cause = Exceptions.isRetryExhausted(e) ? e.getCause() : e;
+            throw new AzureToolkitRuntimeException(String.format("Failed to upload %s, run again to resume the upload.", file.getName()), cause);
+        }
+        this.store.commitBlockList(blockIds);
+        try {
+            Files.deleteIfExists(journal.toPath());
+        } catch (final IOException e) {
+            log.debug("failed to delete upload journal {}.", journal, e);
+        }
+    }
+
+    /**
+     * the same content uploaded to the same blob in the same blocks always has the same key.
+     */
+    @Nonnull
+    private String getKey(@Nonnull File file) {
+        return new DeploymentFingerprint().add(DeploymentFingerprint.sha256(file)).add(this.store.getName())
+            .add(String.valueOf(getBlockSize(file.length(), this.blockSize))).getHash().substring(0, 16);
+    }
+
+    private static long getBlockSize(long length, int blockSize) {
+        // a block blob has at most 50,000 blocks, use larger blocks for huge files
+        return Math.max(blockSize, (length + MAX_BLOCKS - 1) / MAX_BLOCKS);
+    }
+
+    private void deleteExpiredJournals() {
+        final long expiry = System.currentTimeMillis() - JOURNAL_LIFETIME.toMillis();
+        final File[] journals = this.journalDirectory.toFile().listFiles((dir, name) -> name.endsWith(JOURNAL_SUFFIX));
+        for (final File journal : journals == null ? new File[0] : journals) {
+            if (journal.lastModified() < expiry && !journal.delete()) {
+                log.debug("failed to delete expired upload journal {}.", journal);
+            }
+        }
+    }
+
+    private void stageBlock(@Nonnull FileChannel channel, @Nonnull String blockId, long offset, int length, @Nonnull File journal) {
+        final byte[] content = new byte[length];
+        final ByteBuffer buffer = ByteBuffer.wrap(content);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new IOException("unexpected end of file");
+                }
+            }
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to read block at %d", offset), e);
+        }
+        this.store.stageBlock(blockId, content, Base64.getEncoder().encodeToString(DigestUtils.md5(content)));
+        this.appendJournal(journal, blockId);
+    }
+
+    @Nonnull
+    private Set<String> loadJournal(@Nonnull File journal, @Nonnull String key) {
+        final Set<String> staged = new LinkedHashSet<>();
+        try {
+            Files.createDirectories(journal.toPath().toAbsolutePath().getParent());
+            if (journal.isFile()) {
+                final List<String> lines = Files.readAllLines(journal.toPath(), StandardCharsets.UTF_8);
+                if (!lines.isEmpty() && key.equals(lines.get(0))) {
+                    staged.addAll(lines.subList(1, lines.size()));
+                    // staged blocks are discarded by the service if not committed in a week
+                    staged.retainAll(this.store.listUncommittedBlocks());
+                }
+            }
+            Files.write(journal.toPath(), Collections.singletonList(key), StandardCharsets.UTF_8);
+            Files.write(journal.toPath(), staged, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        } catch (final IOException | RuntimeException e) { // upload all blocks
+            log.debug("failed to load upload journal {}.", journal, e);
+            staged.clear();
+        }
+        return staged;
+    }
+
+    private synchronized void appendJournal(@Nonnull File journal, @Nonnull String blockId) {
+        try {
+            Files.write(journal.toPath(), Collections.singletonList(blockId), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (final IOException e) { // the block will be uploaded again if the upload is interrupted
+            log.debug("failed to update upload journal {}.", journal, e);
+        }
+    }
+
+    /**
+     * ids of all blocks of a blob must have the same length.
+     */
+    @Nonnull
+    private static String getBlockId(@Nonnull String key, int index) {
+        return Base64.getEncoder().encodeToString(String.format("%s-%06d", key, index).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nonnull
+    public static BlockStore store(@Nonnull CloudBlockBlob blob) {
+        final BlobRequestOptions options = new BlobRequestOptions();
+        // the sdk sends the MD5 of each block as Content-MD5, so that the service rejects corrupted blocks
+        options.setUseTransactionalContentMD5(true);
+        // blocks are retried by the uploader
+        options.setRetryPolicyFactory(new RetryNoRetry());
+        return new BlockStore() {
+            @Nonnull
+            @Override
+            public String getName() {
+                return blob.getUri().toString();
+            }
+
+            @Override
+            public void stageBlock(@Nonnull String blockId, @Nonnull byte[] content, @Nonnull String md5) {
+                try {
+                    blob.uploadBlock(blockId, new ByteArrayInputStream(content), content.length, null, options, null);
+                } catch (final StorageException | IOException e) {
+                    throw new AzureToolkitRuntimeException(String.format("failed to upload block to %s", blob.getName()), e);
+                }
+            }
+
+            @Nonnull
+            @Override
+            public Set<String> listUncommittedBlocks() {
+                try {
+                    return blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, null, null, null).stream()
+                        .map(BlockEntry::getId).collect(Collectors.toSet());
+                } catch (final StorageException e) {
+                    if (e.getHttpStatusCode() == HttpURLConnection.HTTP_NOT_FOUND) {
+                        return Collections.emptySet();
+                    }
+                    throw new AzureToolkitRuntimeException(String.format("failed to list blocks of %s", blob.getName()), e);
+                }
+            }
+
+            @Override
+            public void commitBlockList(@Nonnull List<String> blockIds) {
+                try {
+                    blob.commitBlockList(blockIds.stream().map(id -> new BlockEntry(id, BlockSearchMode.LATEST)).collect(Collectors.toList()));
+                } catch (final StorageException e) {
+                    throw new AzureToolkitRuntimeException(String.format("failed to commit blocks of %s", blob.getName()), e);
+                }
+            }
+        };
+    }
+
+    /**
+     * the block operations of a block blob.
+     */
+    public interface BlockStore {
+        /**
+         * identifies the target blob across runs, e.g. its uri.
+         */
+        @Nonnull
+        String getName();
+
+        /**
+         * @param md5 base64 encoded MD5 of {@code content}, the block must be rejected if they don't match.
+         */
+        void stageBlock(@Nonnull String blockId, @Nonnull byte[] content, @Nonnull String md5);
+
+        @Nonnull
+        Set<String> listUncommittedBlocks();
+
+        void commitBlockList(@Nonnull List<String> blockIds);
+    }
+}
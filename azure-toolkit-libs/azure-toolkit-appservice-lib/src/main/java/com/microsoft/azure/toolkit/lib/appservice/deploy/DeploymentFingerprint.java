@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import com.azure.core.util.FluxUtil;
+import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * SHA-256 fingerprint of deployed content, files of a directory are digested in the order of their relative paths so
+ * that the same content always gets the same fingerprint. if enabled by {@code -Dazure.toolkit.deploy.skipUnchanged=true},
+ * the fingerprint of the last successful deployment is kept in a marker file of the app/slot and deployments with the
+ * same fingerprint are skipped. it's opt-in, since content changed outside of the plugins (e.g. in portal or by other
+ * tools) is not detected.
+ */
+@Slf4j
+public class DeploymentFingerprint {
+    public static final String SKIP_UNCHANGED_PROPERTY = "azure.toolkit.deploy.skipUnchanged";
+    static final String MARKER_PATH = "data/azure-toolkit/deployment.sha256";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MessageDigest digest = newDigest();
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    @Nonnull
+    public DeploymentFingerprint add(@Nullable String value) {
+        this.digest.update(StringUtils.defaultString(value).getBytes(StandardCharsets.UTF_8));
+        this.digest.update((byte) 0);
+        return this;
+    }
+
+    @Nonnull
+    public DeploymentFingerprint add(@Nonnull File file) {
+        return this.add(file, p -> false);
+    }
+
+    /**
+     * @param excluded tests paths (relative to {@code file} and separated by '/') of files to exclude
+     */
+    @Nonnull
+    public DeploymentFingerprint add(@Nonnull File file, @Nonnull Predicate<String> excluded) {
+        final Path root = file.toPath();
+        if (!file.isDirectory()) {
+            return this.addFile(file.getName(), root);
+        }
+        try (final Stream<Path> paths = Files.walk(root)) {
+            final List<Path> files = paths.filter(Files::isRegularFile)
+                .sorted((a, b) -> relativize(root, a).compareTo(relativize(root, b)))
+                .collect(Collectors.toList());
+            for (final Path path : files) {
+                final String relative = relativize(root, path);
+                if (!excluded.test(relative)) {
+                    this.addFile(relative, path);
+                }
+            }
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to compute fingerprint of %s", file), e);
+        }
+        return this;
+    }
+
+    @Nonnull
+    public String getHash() {
+        return toHex(this.digest.digest());
+    }
+
+    /**
+     * @return SHA-256 of the content of {@code file} as hex string
+     */
+    @Nonnull
+    public static String sha256(@Nonnull File file) {
+        final MessageDigest digest = newDigest();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (final InputStream input = Files.newInputStream(file.toPath())) {
+            for (int n = input.read(buffer); n >= 0; n = input.read(buffer)) {
+                digest.update(buffer, 0, n);
+            }
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to compute SHA-256 of %s", file), e);
+        }
+        return toHex(digest.digest());
+    }
+
+    public static boolean isSkipUnchangedEnabled() {
+        return BooleanUtils.toBoolean(System.getProperty(SKIP_UNCHANGED_PROPERTY));
+    }
+
+    /**
+     * run {@code deployment} unless the fingerprint of the content equals that of the last successful deployment of
+     * {@code app}, and record the fingerprint of {@code app} once {@code deployment} succeeded.
+     *
+     * @param fingerprint computes the fingerprint of the content to deploy, it's not called unless skipping is enabled.
+     * @return false if the deployment is skipped.
+     */
+    public static boolean deployIfChanged(@Nonnull AppServiceAppBase<?, ?, ?> app, @Nonnull Supplier<String> fingerprint, @Nonnull Runnable deployment) {
+        if (!isSkipUnchangedEnabled()) {
+            deployment.run();
+            return true;
+        }
+        final String hash = fingerprint.get();
+        if (StringUtils.equals(hash, getDeployedHash(app))) {
+            AzureMessager.getMessager().warning(String.format("Skip deployment, the content is not changed since last deployment (%s), " +
+                "changes made outside of this tool are not detected. Set -D%s=false to force deployment.", StringUtils.substring(hash, 0, 12), SKIP_UNCHANGED_PROPERTY));
+            return false;
+        }
+        deployment.run();
+        setDeployedHash(app, hash);
+        return true;
+    }
+
+    @Nullable
+    static String getDeployedHash(@Nonnull AppServiceAppBase<?, ?, ?> app) {
+        try {
+            return Optional.ofNullable(FluxUtil.collectBytesInByteBufferStream(app.getFileContent(MARKER_PATH)).block())
+                .map(bytes -> new String(bytes, StandardCharsets.UTF_8).trim()).orElse(null);
+        } catch (final RuntimeException e) { // marker doesn't exist or is not accessible, deploy anyway
+            log.debug("failed to read deployment fingerprint of app({}).", app.getName(), e);
+            return null;
+        }
+    }
+
+    static void setDeployedHash(@Nonnull AppServiceAppBase<?, ?, ?> app, @Nonnull String hash) {
+        try {
+            app.uploadFileToPath(hash, MARKER_PATH);
+        } catch (final RuntimeException e) { // the next deployment will not be skipped, nothing else
+            log.debug("failed to save deployment fingerprint of app({}).", app.getName(), e);
+        }
+    }
+
+    @Nonnull
+    private DeploymentFingerprint addFile(@Nonnull String name, @Nonnull Path path) {
+        this.add(name);
+        try (final InputStream input = Files.newInputStream(path)) {
+            this.add(String.valueOf(Files.size(path)));
+            for (int n = input.read(this.buffer); n >= 0; n = input.read(this.buffer)) {
+                this.digest.update(this.buffer, 0, n);
+            }
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to compute fingerprint of %s", path), e);
+        }
+        return this;
+    }
+
+    @Nonnull
+    private static String relativize(@Nonnull Path root, @Nonnull Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    @Nonnull
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new AzureToolkitRuntimeException("SHA-256 is not supported", e);
+        }
+    }
+
+    @Nonnull
+    private static String toHex(@Nonnull byte[] bytes) {
+        final StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import com.azure.core.exception.HttpResponseException;
+import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
+import com.microsoft.azure.toolkit.lib.appservice.model.WebAppArtifact;
+import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskGraph;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.net.HttpURLConnection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * deploys multiple artifacts through OneDeploy: all artifacts except the primary package are deployed without
+ * restarting the site, the primary package (the last war/jar/ear, or the last artifact if there is none) is deployed
+ * once all others succeeded and it's the only call that restarts the site.
+ * kudu holds one deployment lock per site and rejects other deployments with 409 (conflict) while it's held, so
+ * artifacts are deployed one at a time by default, and conflicts (e.g. with a deployment started elsewhere) are retried
+ * every 15 seconds for up to 10 minutes by default, which is sized to how long a deployment takes.
+ * other failures are retried with exponential backoff.
+ */
+@Slf4j
+@Getter
+public class OneDeployScheduler {
+    public static final int DEFAULT_PARALLELISM = 1;
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(2);
+    public static final Duration DEFAULT_CONFLICT_BACKOFF = Duration.ofSeconds(15);
+    public static final Duration DEFAULT_CONFLICT_TIMEOUT = Duration.ofMinutes(10);
+    private static final List<DeployType> PRIMARY_TYPES = Arrays.asList(DeployType.WAR, DeployType.JAR, DeployType.EAR);
+
+    private final int parallelism;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration conflictBackoff;
+    private final Duration conflictTimeout;
+
+    public OneDeployScheduler() {
+        this(DEFAULT_PARALLELISM, DEFAULT_MAX_ATTEMPTS, DEFAULT_INITIAL_BACKOFF);
+    }
+
+    public OneDeployScheduler(int parallelism, int maxAttempts, @Nonnull Duration initialBackoff) {
+        this(parallelism, maxAttempts, initialBackoff, DEFAULT_CONFLICT_BACKOFF, DEFAULT_CONFLICT_TIMEOUT);
+    }
+
+    /**
+     * @param parallelism only set it greater than 1 if the deployer doesn't lock the site, e.g. it deploys to different sites.
+     */
+    public OneDeployScheduler(int parallelism, int maxAttempts, @Nonnull Duration initialBackoff,
+                              @Nonnull Duration conflictBackoff, @Nonnull Duration conflictTimeout) {
+        this.parallelism = Math.max(1, parallelism);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoff = initialBackoff;
+        this.conflictBackoff = conflictBackoff;
+        this.conflictTimeout = conflictTimeout;
+    }
+
+    public void deploy(@Nonnull List<WebAppArtifact> artifacts, @Nonnull Deployer deployer) {
+        if (artifacts.isEmpty()) {
+            return;
+        }
+        final WebAppArtifact primary = getPrimaryArtifact(artifacts);
+        final Progress progress = new Progress(artifacts);
+        final List<AzureTask<?>> others = new ArrayList<>();
+        for (final WebAppArtifact artifact : artifacts) {
+            if (artifact != primary) {
+                others.add(new AzureTask<>(getTitle(artifact), () -> {
+                    this.deploy(artifact, false, deployer, progress);
+                    return null;
+                }));
+            }
+        }
+        final AzureTask<?> last = new AzureTask<>(getTitle(primary), () -> {
+            this.deploy(primary, true, deployer, progress);
+            return null;
+        }).dependsOn(others.toArray(new AzureTask<?>[0]));
+        try {
+            final AzureTaskGraph.Report report = new AzureTaskGraph(this.parallelism).execute(Collections.singletonList(last));
+            log.debug(report.toString());
+        } catch (final AzureToolkitRuntimeException e) {
+            throw e;
+        } catch (final Exception e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to deploy artifacts, %s", e.getMessage()), e);
+        }
+    }
+
+    private void deploy(@Nonnull WebAppArtifact artifact, boolean restartSite, @Nonnull Deployer deployer, @Nonnull Progress progress)
+        throws InterruptedException {
+        long backoff = this.initialBackoff.toMillis();
+        final long conflictDeadline = System.currentTimeMillis() + this.conflictTimeout.toMillis();
+        int attempt = 1;
+        while (true) {
+            try {
+                deployer.deploy(artifact, restartSite);
+                progress.done(artifact);
+                return;
+            } catch (final RuntimeException e) {
+                // conflicts don't count as attempts, the deployment holding the lock may take minutes
+                if (isConflict(e) && System.currentTimeMillis() + this.conflictBackoff.toMillis() < conflictDeadline) {
+                    AzureMessager.getMessager().warning(AzureString.format("Another deployment is in progress, retrying to deploy %s in %s seconds.",
+                        artifact.getFile().getName(), this.conflictBackoff.getSeconds()));
+                    TimeUnit.MILLISECONDS.sleep(this.conflictBackoff.toMillis());
+                    continue;
+                }
+                if (attempt >= this.maxAttempts) {
+                    throw e;
+                }
+                AzureMessager.getMessager().warning(AzureString.format("Failed to deploy %s (attempt %s/%s), retrying in %s seconds: %s",
+                    artifact.getFile().getName(), attempt, this.maxAttempts, backoff / 1000, e.getMessage()));
+                TimeUnit.MILLISECONDS.sleep(backoff);
+                backoff *= 2;
+                attempt++;
+            }
+        }
+    }
+
+    private static boolean isConflict(@Nonnull Throwable error) {
+        return ExceptionUtils.getThrowableList(error).stream()
+            .filter(e -> e instanceof HttpResponseException)
+            .map(e -> ((HttpResponseException) e).getResponse())
+            .anyMatch(r -> Objects.nonNull(r) && r.getStatusCode() == HttpURLConnection.HTTP_CONFLICT);
+    }
+
+    @Nonnull
+    static WebAppArtifact getPrimaryArtifact(@Nonnull List<WebAppArtifact> artifacts) {
+        WebAppArtifact primary = artifacts.get(artifacts.size() - 1);
+        for (final WebAppArtifact artifact : artifacts) {
+            if (PRIMARY_TYPES.contains(artifact.getDeployType())) {
+                primary = artifact;
+            }
+        }
+        return primary;
+    }
+
+    @Nonnull
+    private static AzureString getTitle(@Nonnull WebAppArtifact artifact) {
+        return AzureString.format("Deploy %s", artifact.getFile().getName());
+    }
+
+    @FunctionalInterface
+    public interface Deployer {
+        void deploy(@Nonnull WebAppArtifact artifact, boolean restartSite);
+    }
+
+    private static class Progress {
+        private final int total;
+        private final long totalBytes;
+        private final AtomicInteger finished = new AtomicInteger();
+        private final AtomicLong finishedBytes = new AtomicLong();
+
+        private Progress(@Nonnull List<WebAppArtifact> artifacts) {
+            this.total = artifacts.size();
+            this.totalBytes = artifacts.stream().mapToLong(a -> length(a.getFile())).sum();
+        }
+
+        private void done(@Nonnull WebAppArtifact artifact) {
+            final int count = this.finished.incrementAndGet();
+            final long bytes = this.finishedBytes.addAndGet(length(artifact.getFile()));
+            if (this.total > 1) {
+                AzureMessager.getMessager().info(AzureString.format("Deployed %s/%s artifact(s) (%s/%s).", count, this.total,
+                    FileUtils.byteCountToDisplaySize(bytes), FileUtils.byteCountToDisplaySize(this.totalBytes)));
+            }
+        }
+
+        private static long length(@Nullable File file) {
+            return file == null ? 0 : file.length();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlobContainer;
+import com.microsoft.azure.storage.blob.ListBlobItem;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.legacy.function.Constants;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * deployment packages of an app kept as blobs named by the SHA-256 of their content, so that an unchanged package is
+ * not uploaded again. package blobs of the app other than the newest {@code retention} ones are deleted by
+ * {@link #collectGarbage(String)}.
+ */
+@Slf4j
+@Getter
+@RequiredArgsConstructor
+public class PackageBlobCache {
+    public static final int DEFAULT_RETENTION = 3;
+
+    @Nonnull
+    private final Container container;
+    /**
+     * prefix of package blobs of the app.
+     */
+    @Nonnull
+    private final String prefix;
+    private final int retention;
+
+    public PackageBlobCache(@Nonnull Container container, @Nonnull String prefix) {
+        this(container, prefix, DEFAULT_RETENTION);
+    }
+
+    /**
+     * @return name of the blob with the content of {@code file}, which is uploaded only if it doesn't exist.
+     */
+    @Nonnull
+    public String upload(@Nonnull File file) {
+        final String blobName = this.getBlobName(DeploymentFingerprint.sha256(file));
+        if (this.container.exists(blobName)) {
+            AzureMessager.getMessager().info(String.format("Package %s is already uploaded as %s, skip uploading.", file.getName(), blobName));
+            return blobName;
+        }
+        this.container.upload(file, blobName);
+        return blobName;
+    }
+
+    /**
+     * delete package blobs of the app except {@code current} and the newest ones up to {@code retention} in total, blobs
+     * not named by this cache are never deleted. failures are ignored as they only leave unused blobs behind.
+     *
+     * @return names of deleted blobs
+     */
+    @Nonnull
+    public List<String> collectGarbage(@Nonnull String current) {
+        try {
+            final Pattern pattern = Pattern.compile(Pattern.quote(this.prefix) + "[0-9a-f]{64}" + Pattern.quote(Constants.ZIP_EXT));
+            final List<String> garbage = this.container.list(this.prefix).entrySet().stream()
+                .filter(e -> pattern.matcher(e.getKey()).matches() && !current.equals(e.getKey()))
+                .sorted(Map.Entry.<String, Date>comparingByValue(Comparator.nullsFirst(Comparator.naturalOrder())).reversed())
+                .skip(Math.max(0, this.retention - 1))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+            garbage.forEach(this.container::delete);
+            return garbage;
+        } catch (final RuntimeException e) {
+            log.debug("failed to delete unused package blobs with prefix {}.", this.prefix, e);
+            return Collections.emptyList();
+        }
+    }
+
+    @Nonnull
+    String getBlobName(@Nonnull String sha256) {
+        return this.prefix + sha256 + Constants.ZIP_EXT;
+    }
+
+    @Nonnull
+    public static Container container(@Nonnull CloudBlobContainer container) {
+        return new Container() {
+            @Override
+            public boolean exists(@Nonnull String blobName) {
+                try {
+                    return container.getBlockBlobReference(blobName).exists();
+                } catch (final URISyntaxException | StorageException e) {
+                    throw new AzureToolkitRuntimeException(String.format("failed to check blob %s", blobName), e);
+                }
+            }
+
+            @Override
+            public void upload(@Nonnull File file, @Nonnull String blobName) {
+                try {
+                    new BlockBlobUploader(BlockBlobUploader.store(container.getBlockBlobReference(blobName))).upload(file);
+                } catch (final URISyntaxException | StorageException e) {
+                    throw new AzureToolkitRuntimeException(String.format("failed to upload blob %s", blobName), e);
+                }
+            }
+
+            @Nonnull
+            @Override
+            public Map<String, Date> list(@Nonnull String prefix) {
+                // flat listing returns properties of blobs
+                final Iterable<ListBlobItem> items = container.listBlobs(prefix, true);
+                return StreamSupport.stream(items.spliterator(), false)
+                    .filter(item -> item instanceof CloudBlob).map(item -> (CloudBlob) item)
+                    .collect(Collectors.toMap(CloudBlob::getName, blob -> blob.getProperties().getLastModified()));
+            }
+
+            @Override
+            public void delete(@Nonnull String blobName) {
+                try {
+                    container.getBlockBlobReference(blobName).deleteIfExists();
+                } catch (final URISyntaxException | StorageException e) {
+                    throw new AzureToolkitRuntimeException(String.format("failed to delete blob %s", blobName), e);
+                }
+            }
+        };
+    }
+
+    /**
+     * the blob operations used by the cache.
+     */
+    public interface Container {
+        boolean exists(@Nonnull String blobName);
+
+        void upload(@Nonnull File file, @Nonnull String blobName);
+
+        /**
+         * @return last modified time of blobs whose names start with {@code prefix}
+         */
+        @Nonnull
+        Map<String, Date> list(@Nonnull String prefix);
+
+        void delete(@Nonnull String blobName);
+    }
+}
@@ -33,22 +33,23 @@ public class RunFromBlobFunctionDeployHandler implements IFunctionDeployHandler
     @Override
     public void deploy(File file, WebAppBase target) {
         final CloudStorageAccount storageAccount = DeployUtils.getCloudStorageAccount(target);
+        final CloudBlobContainer container = getOrCreateArtifactContainer(storageAccount);
+        final PackageBlobCache packages = new PackageBlobCache(PackageBlobCache.container(container), getBlobPrefix(target));
         try {
-            final CloudBlockBlob blob = deployArtifactToAzureStorage(target, file, storageAccount);
+            final CloudBlockBlob blob = deployArtifactToAzureStorage(target, file, container, packages);
             final String sasToken = AzureStorageHelper.getSASToken(blob, Period.ofYears(SAS_EXPIRE_DATE_BY_YEAR));
             DeployUtils.updateFunctionAppSetting(target, APP_SETTING_WEBSITE_RUN_FROM_PACKAGE, sasToken);
-        } catch (AzureExecutionException e) {
+            // packages are deleted only after the app setting refers to the new one
+            packages.collectGarbage(blob.getName());
+        } catch (AzureExecutionException | URISyntaxException | StorageException e) {
             throw new AzureToolkitRuntimeException("Failed to upload package to azure storage", e);
         }
     }
 
-    private CloudBlockBlob deployArtifactToAzureStorage(WebAppBase deployTarget, File zipPackage, CloudStorageAccount storageAccount)
-            throws AzureExecutionException {
+    private CloudBlockBlob deployArtifactToAzureStorage(WebAppBase deployTarget, File zipPackage, CloudBlobContainer container,
+                                                        PackageBlobCache packages) throws URISyntaxException, StorageException {
         AzureMessager.getMessager().info(String.format(DEPLOY_START, deployTarget.name()));
-        final CloudBlobContainer container = getOrCreateArtifactContainer(storageAccount);
-        final String blobName = getBlobName(deployTarget, zipPackage);
-        final CloudBlockBlob blob = AzureStorageHelper.uploadFileAsBlob(zipPackage, storageAccount,
-                container.getName(), blobName, BlobContainerPublicAccessType.OFF);
+        final CloudBlockBlob blob = container.getBlockBlobReference(packages.upload(zipPackage));
         AzureMessager.getMessager().info(String.format(DEPLOY_FINISH, deployTarget.defaultHostname()));
         return blob;
     }
@@ -78,9 +79,9 @@ public class RunFromBlobFunctionDeployHandler implements IFunctionDeployHandler
         AzureMessager.getMessager().info(String.format(UPDATE_ACCESS_LEVEL_TO_PRIVATE, DEPLOYMENT_PACKAGE_CONTAINER));
     }
 
-    private String getBlobName(final WebAppBase deployTarget, final File zipPackage) {
+    private String getBlobPrefix(final WebAppBase deployTarget) {
         // replace '/' in resource id to '-' in case create multi-level blob
         final String fixedResourceId = StringUtils.replace(deployTarget.id(), "/", "-").replaceFirst("-", "");
-        return String.format("%s-%s", fixedResourceId, zipPackage.getName());
+        return String.format("%s-", fixedResourceId);
     }
 }
@@ -5,24 +5,42 @@
 package com.microsoft.azure.toolkit.lib.appservice.deploy;
 
 import com.azure.resourcemanager.appservice.models.WebAppBase;
+import com.microsoft.azure.toolkit.lib.appservice.file.AppServiceKuduClient;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
+import java.time.Duration;
 
+@Slf4j
 public class RunFromZipFunctionDeployHandler extends ZIPFunctionDeployHandler {
     private static final String APP_SETTING_WEBSITE_RUN_FROM_PACKAGE = "WEBSITE_RUN_FROM_PACKAGE";
     private static final String RUN_FROM_PACKAGE_VALUE = "1";
+    private static final Duration APP_SETTING_TIMEOUT = Duration.ofSeconds(20);
 
     @Override
     public void deploy(File file, WebAppBase functionApp) {
         DeployUtils.updateFunctionAppSetting(functionApp, APP_SETTING_WEBSITE_RUN_FROM_PACKAGE, RUN_FROM_PACKAGE_VALUE);
-        // todo: Check status from kudu api, refers https://github.com/Azure/azure-functions-core-tools/blob/dev/src/Azure.Functions.Cli/
-        //  Actions/AzureActions/PublishFunctionAppAction.cs#L515
+        waitForKuduAppSetting(functionApp);
+        super.deploy(file, functionApp);
+    }
+
+    // work around for issue https://dev.azure.com/msazure/Unified%20Platform%20KPIs/_workitems/edit/7481871
+    // refers https://github.com/Azure/azure-functions-core-tools/blob/dev/src/Azure.Functions.Cli/Actions/AzureActions/PublishFunctionAppAction.cs#L515
+    private static void waitForKuduAppSetting(WebAppBase functionApp) {
+        final AppServiceKuduClient kuduClient = AppServiceKuduClient.getClient(functionApp, null);
         try {
-            // work around for issue https://dev.azure.com/msazure/Unified%20Platform%20KPIs/_workitems/edit/7481871
-            Thread.sleep(20 * 1000);
-        } catch (InterruptedException e) {
-            // Sorrow exception here as we just wait for 20s for kudu app settings update, which is not required in normal cases
+            new Poller<>(String.format("app setting %s of kudu", APP_SETTING_WEBSITE_RUN_FROM_PACKAGE), kuduClient::getAppSettings)
+                .until(settings -> StringUtils.equals(settings.get(APP_SETTING_WEBSITE_RUN_FROM_PACKAGE), RUN_FROM_PACKAGE_VALUE))
+                .withTimeout(APP_SETTING_TIMEOUT)
+                .poll();
+        } catch (final AzureToolkitRuntimeException e) {
+            // not required in normal cases, deploy anyway after waiting no longer than the former fixed 20s
+            log.debug("failed to wait for kudu app settings of {}.", functionApp.name(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
-        super.deploy(file, functionApp);
     }
 }
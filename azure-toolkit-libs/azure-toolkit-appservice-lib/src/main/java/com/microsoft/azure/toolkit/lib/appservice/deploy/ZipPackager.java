@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
+import org.apache.commons.io.output.CountingOutputStream;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * packs a directory into a zip archive in a single pass. entries are compressed concurrently and written in the order
+ * of their paths, already compressed files (e.g. jars) are stored as is, and excluded files are never written.
+ * archives that would need zip64 (over 4GB or 65535 entries) are written sequentially by {@link ZipOutputStream}.
+ * unix permissions are kept (if the file system supports them) in the external attributes, except in zip64 archives,
+ * which {@link ZipOutputStream} writes with MS-DOS attributes only.
+ */
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class ZipPackager {
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList(
+        "jar", "war", "ear", "zip", "gz", "tgz", "xz", "bz2", "7z", "png", "jpg", "jpeg", "gif", "webp", "woff", "woff2"));
+    /**
+     * entries larger than this are compressed while written instead of in memory.
+     */
+    private static final int IN_MEMORY_LIMIT = 4 * 1024 * 1024;
+    private static final long ZIP32_LIMIT = 0xFFFFFFFFL;
+    private static final int MAX_ENTRIES = 0xFFFF;
+    private static final int VERSION = 20;
+    private static final int UNIX = 3;
+    private static final int UNIX_DIRECTORY = 0040000;
+    private static final int UNIX_FILE = 0100000;
+
+    /**
+     * tests paths (relative to the packed directory and separated by '/') of files to exclude
+     */
+    @Nonnull
+    private final Predicate<String> excluded;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    /**
+     * max bytes of entries being compressed in memory ahead of the writer, an entry larger than this is still prepared
+     * alone.
+     */
+    private long bufferLimit = 64 * 1024 * 1024;
+
+    public ZipPackager() {
+        this(path -> false);
+    }
+
+    public void pack(@Nonnull File directory, @Nonnull File zipFile) {
+        try (final OutputStream output = Files.newOutputStream(zipFile.toPath())) {
+            this.pack(directory, output);
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to pack %s", directory), e);
+        }
+    }
+
+    /**
+     * write the archive to {@code output}, which is not closed, e.g. a request body, so no temp file is needed.
+     */
+    public void pack(@Nonnull File directory, @Nonnull OutputStream output) throws IOException {
+        final List<Source> sources = this.listSources(directory.toPath());
+        final long bound = sources.stream().mapToLong(s -> s.size + s.size / 100 + 256 + 2L * s.name.length()).sum();
+        final OutputStream out = new BufferedOutputStream(CloseShieldOutputStream.wrap(output), 64 * 1024);
+        if (sources.size() > MAX_ENTRIES || bound > ZIP32_LIMIT) {
+            packWithZip64(sources, out);
+        } else {
+            this.packConcurrently(sources, out);
+        }
+        out.flush();
+    }
+
+    @Nonnull
+    private List<Source> listSources(@Nonnull Path root) throws IOException {
+        try (final Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(p -> !p.equals(root))
+                .map(p -> new Source(p, root.relativize(p).toString().replace(File.separatorChar, '/') + (Files.isDirectory(p) ? "/" : "")))
+                .filter(s -> !this.excluded.test(StringUtils.removeEnd(s.name, "/")))
+                .sorted(Comparator.comparing(s -> s.name))
+                .collect(Collectors.toList());
+        }
+    }
+
+    private void packConcurrently(@Nonnull List<Source> sources, @Nonnull OutputStream output) throws IOException {
+        final CountingOutputStream out = new CountingOutputStream(output);
+        final List<Written> written = new ArrayList<>(sources.size());
+        final ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, this.parallelism), r -> {
+            final Thread thread = new Thread(r, "azure-zip-packager");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // entries are prepared at most 2 * parallelism and bufferLimit bytes ahead of the writer to bound memory
+            final Deque<Future<Prepared>> window = new ArrayDeque<>();
+            long buffered = 0;
+            int next = 0;
+            for (final Source source : sources) {
+                while (next < sources.size() && window.size() < 2 * Math.max(1, this.parallelism) &&
+                    (window.isEmpty() || buffered + getBufferSize(sources.get(next)) <= this.bufferLimit)) {
+                    final Source s = sources.get(next++);
+                    buffered += getBufferSize(s);
+                    window.add(pool.submit(() -> prepare(s)));
+                }
+                final Prepared prepared = window.poll().get();
+                buffered -= getBufferSize(source);
+                final long offset = out.getByteCount();
+                if (prepared != null) {
+                    writeLocalHeader(out, source, prepared.method, prepared.crc, prepared.compressedSize, prepared.size, false);
+                    out.write(prepared.data, 0, (int) prepared.compressedSize);
+                    written.add(new Written(source, prepared.method, prepared.crc, prepared.compressedSize, prepared.size, offset, false));
+                } else {
+                    written.add(writeStreaming(out, source, offset));
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("packaging is interrupted", e);
+        } catch (final ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        final long directoryOffset = out.getByteCount();
+        for (final Written entry : written) {
+            writeCentralHeader(out, entry);
+        }
+        writeEndOfCentralDirectory(out, written.size(), out.getByteCount() - directoryOffset, directoryOffset);
+    }
+
+    /**
+     * @return bytes held in memory while the entry is prepared, i.e. its content plus at most as much compressed
+     */
+    private static long getBufferSize(@Nonnull Source source) {
+        return source.directory || source.size > IN_MEMORY_LIMIT ? 0 : 2 * source.size;
+    }
+
+    /**
+     * @return null if the entry is too large to be prepared in memory
+     */
+    @Nullable
+    private static Prepared prepare(@Nonnull Source source) throws IOException {
+        if (source.directory) {
+            return new Prepared(ZipEntry.STORED, 0, new byte[0], 0, 0);
+        }
+        if (source.size > IN_MEMORY_LIMIT) {
+            return null;
+        }
+        final byte[] content = Files.readAllBytes(source.path);
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        if (!isCompressed(source.name)) {
+            final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+            final ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 2 + 64);
+            try (final DeflaterOutputStream deflating = new DeflaterOutputStream(buffer, deflater, 8192)) {
+                deflating.write(content);
+            } finally {
+                deflater.end();
+            }
+            if (buffer.size() < content.length) {
+                return new Prepared(ZipEntry.DEFLATED, crc.getValue(), buffer.toByteArray(), buffer.size(), content.length);
+            }
+        }
+        return new Prepared(ZipEntry.STORED, crc.getValue(), content, content.length, content.length);
+    }
+
+    /**
+     * large entries are deflated (without compression if already compressed) while written, with sizes and crc in a
+     * data descriptor following the data.
+     */
+    @Nonnull
+    private static Written writeStreaming(@Nonnull CountingOutputStream out, @Nonnull Source source, long offset) throws IOException {
+        writeLocalHeader(out, source, ZipEntry.DEFLATED, 0, 0, 0, true);
+        final Deflater deflater = new Deflater(isCompressed(source.name) ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION, true);
+        final long start = out.getByteCount();
+        final CRC32 crc = new CRC32();
+        final long size;
+        try (final InputStream input = new CheckedInputStream(Files.newInputStream(source.path), crc);
+             final DeflaterOutputStream deflating = new DeflaterOutputStream(CloseShieldOutputStream.wrap(out), deflater, 64 * 1024)) {
+            size = IOUtils.copyLarge(input, deflating);
+            deflating.finish();
+        } finally {
+            deflater.end();
+        }
+        final long compressedSize = out.getByteCount() - start;
+        writeInt(out, 0x08074b50L);
+        writeInt(out, crc.getValue());
+        writeInt(out, compressedSize);
+        writeInt(out, size);
+        return new Written(source, ZipEntry.DEFLATED, crc.getValue(), compressedSize, size, offset, true);
+    }
+
+    private static void packWithZip64(@Nonnull List<Source> sources, @Nonnull OutputStream output) throws IOException {
+        final ZipOutputStream zip = new ZipOutputStream(output, StandardCharsets.UTF_8);
+        for (final Source source : sources) {
+            final ZipEntry entry = new ZipEntry(source.name);
+            entry.setTime(source.lastModified);
+            zip.putNextEntry(entry);
+            if (!source.directory) {
+                Files.copy(source.path, zip);
+            }
+            zip.closeEntry();
+        }
+        zip.finish();
+    }
+
+    private static void writeLocalHeader(@Nonnull OutputStream out, @Nonnull Source source, int method, long crc, long compressedSize, long size,
+                                         boolean descriptor) throws IOException {
+        final byte[] name = source.name.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, 0x04034b50L);
+        writeShort(out, VERSION); // version needed to extract
+        writeShort(out, getFlags(descriptor));
+        writeShort(out, method);
+        writeInt(out, toDosTime(source.lastModified));
+        writeInt(out, crc);
+        writeInt(out, compressedSize);
+        writeInt(out, size);
+        writeShort(out, name.length);
+        writeShort(out, 0); // extra field length
+        out.write(name);
+    }
+
+    private static void writeCentralHeader(@Nonnull OutputStream out, @Nonnull Written entry) throws IOException {
+        final byte[] name = entry.source.name.getBytes(StandardCharsets.UTF_8);
+        writeInt(out, 0x02014b50L);
+        // unix permissions are only read from external attributes made by unix
+        writeShort(out, entry.source.mode == 0 ? VERSION : UNIX << 8 | VERSION); // version made by
+        writeShort(out, VERSION); // version needed to extract
+        writeShort(out, getFlags(entry.descriptor));
+        writeShort(out, entry.method);
+        writeInt(out, toDosTime(entry.source.lastModified));
+        writeInt(out, entry.crc);
+        writeInt(out, entry.compressedSize);
+        writeInt(out, entry.size);
+        writeShort(out, name.length);
+        writeShort(out, 0); // extra field length
+        writeShort(out, 0); // comment length
+        writeShort(out, 0); // disk number start
+        writeShort(out, 0); // internal attributes
+        writeInt(out, (long) entry.source.mode << 16 | (entry.source.directory ? 0x10 : 0)); // external attributes, unix mode and MS-DOS directory flag
+        writeInt(out, entry.offset);
+        out.write(name);
+    }
+
+    private static void writeEndOfCentralDirectory(@Nonnull OutputStream out, int entries, long size, long offset) throws IOException {
+        writeInt(out, 0x06054b50L);
+        writeShort(out, 0); // number of this disk
+        writeShort(out, 0); // disk where central directory starts
+        writeShort(out, entries);
+        writeShort(out, entries);
+        writeInt(out, size);
+        writeInt(out, offset);
+        writeShort(out, 0); // comment length
+    }
+
+    private static int getFlags(boolean descriptor) {
+        return 0x0800 | (descriptor ? 0x0008 : 0); // utf-8 names
+    }
+
+    private static boolean isCompressed(@Nonnull String name) {
+        return COMPRESSED_EXTENSIONS.contains(FilenameUtils.getExtension(name).toLowerCase());
+    }
+
+    private static long toDosTime(long millis) {
+        final LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (long) (time.getYear() - 1980) << 25 | (long) time.getMonthValue() << 21 | (long) time.getDayOfMonth() << 16 |
+            (long) time.getHour() << 11 | (long) time.getMinute() << 5 | (long) time.getSecond() >> 1;
+    }
+
+    /**
+     * @return unix file type and permissions, 0 if the file system doesn't support them
+     */
+    private static int getUnixMode(@Nonnull Path path, boolean directory) {
+        try {
+            int mode = directory ? UNIX_DIRECTORY : UNIX_FILE;
+            for (final PosixFilePermission permission : Files.getPosixFilePermissions(path)) {
+                // from OWNER_READ (0400) to OTHERS_EXECUTE (0001)
+                mode |= 1 << (8 - permission.ordinal());
+            }
+            return mode;
+        } catch (final UnsupportedOperationException | IOException e) {
+            return 0;
+        }
+    }
+
+    private static void writeShort(@Nonnull OutputStream out, int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >>> 8) & 0xff);
+    }
+
+    private static void writeInt(@Nonnull OutputStream out, long value) throws IOException {
+        writeShort(out, (int) (value & 0xffff));
+        writeShort(out, (int) ((value >>> 16) & 0xffff));
+    }
+
+    private static class Source {
+        private final Path path;
+        private final String name;
+        private final boolean directory;
+        private final long size;
+        private final long lastModified;
+        private final int mode;
+
+        private Source(@Nonnull Path path, @Nonnull String name) {
+            final File file = path.toFile();
+            this.path = path;
+            this.name = name;
+            this.directory = file.isDirectory();
+            this.size = this.directory ? 0 : file.length();
+            this.lastModified = file.lastModified();
+            this.mode = getUnixMode(path, this.directory);
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Prepared {
+        private final int method;
+        private final long crc;
+        private final byte[] data;
+        private final long compressedSize;
+        private final long size;
+    }
+
+    @RequiredArgsConstructor
+    private static class Written {
+        private final Source source;
+        private final int method;
+        private final long crc;
+        private final long compressedSize;
+        private final long size;
+        private final long offset;
+        private final boolean descriptor;
+    }
+}
@@ -8,6 +8,7 @@ package com.microsoft.azure.toolkit.lib.appservice.file;
 import com.azure.core.annotation.BodyParam;
 import com.azure.core.annotation.Delete;
 import com.azure.core.annotation.Get;
+import com.azure.core.annotation.HeaderParam;
 import com.azure.core.annotation.Headers;
 import com.azure.core.annotation.Host;
 import com.azure.core.annotation.HostParam;
@@ -22,6 +23,7 @@ import com.azure.core.http.rest.Response;
 import com.azure.core.http.rest.RestProxy;
 import com.azure.core.http.rest.StreamResponse;
 import com.azure.core.management.serializer.SerializerFactory;
+import com.azure.core.util.FluxUtil;
 import com.azure.resourcemanager.appservice.models.KuduAuthenticationPolicy;
 import com.azure.resourcemanager.appservice.models.WebAppBase;
 import com.azure.resourcemanager.resources.fluentcore.policy.AuthenticationPolicy;
@@ -42,11 +44,17 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class AppServiceKuduClient implements IFileClient, IProcessClient {
@@ -54,6 +62,7 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
     private final KuduService kuduService;
     private final AppServiceAppBase<?, ?, ?> app;
     private static final String HOME_PREFIX = "/home";
+    private static final int CHUNK_SIZE = 64 * 1024;
 
     private AppServiceKuduClient(String host, KuduService kuduService, AppServiceAppBase<?, ?, ?> app) {
         this.host = host;
@@ -61,7 +70,10 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
         this.kuduService = kuduService;
     }
 
-    public static AppServiceKuduClient getClient(@Nonnull WebAppBase webAppBase, @Nonnull AppServiceAppBase<?, ?, ?> appService) {
+    /**
+     * @param appService owner of files listed by the client, it's not used for operations on processes or settings.
+     */
+    public static AppServiceKuduClient getClient(@Nonnull WebAppBase webAppBase, @Nullable AppServiceAppBase<?, ?, ?> appService) {
         // refers : https://github.com/Azure/azure-sdk-for-java/blob/master/sdk/resourcemanager/azure-resourcemanager-appservice/src/main/java/
         // com/azure/resourcemanager/appservice/implementation/KuduClient.java
         if (webAppBase.defaultHostname() == null) {
@@ -82,6 +94,10 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
                 .policies(policies.toArray(new HttpPipelinePolicy[0]))
                 .httpClient(webAppBase.manager().httpPipeline().getHttpClient())
                 .build();
+        return getClient(host, httpPipeline, appService);
+    }
+
+    static AppServiceKuduClient getClient(@Nonnull String host, @Nonnull HttpPipeline httpPipeline, @Nullable AppServiceAppBase<?, ?, ?> appService) {
         final KuduService kuduService = RestProxy.create(KuduService.class, httpPipeline,
                 SerializerFactory.createDefaultManagementSerializerAdapter());
         return new AppServiceKuduClient(host, kuduService, appService);
@@ -115,6 +131,24 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
         this.kuduService.saveFile(host, path, content).block();
     }
 
+    public void uploadFileToPath(byte[] content, String path) {
+        this.kuduService.saveFile(host, path, content).block();
+    }
+
+    public void saveFile(String path, Path file) {
+        final long length;
+        try {
+            length = Files.size(file);
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to read file %s", file), e);
+        }
+        this.kuduService.saveFile(host, path, Utils.readFile(file, CHUNK_SIZE), length).block();
+    }
+
+    public void saveFile(String path, InputStream input, long length) {
+        this.kuduService.saveFile(host, path, FluxUtil.toFluxByteBuffer(input, CHUNK_SIZE), length).block();
+    }
+
     public void createDirectory(String path) {
         this.kuduService.createDirectory(host, path).block();
     }
@@ -136,6 +170,13 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
         return this.kuduService.getAppServiceTunnelStatus(host).block().getValue();
     }
 
+    /**
+     * @return app settings seen by kudu, which are updated a while after app settings of the app are changed.
+     */
+    public Map<String, String> getAppSettings() {
+        return this.kuduService.getAppSettings(host).block().getValue();
+    }
+
     @Host("{$host}")
     @ServiceInterface(name = "KuduService")
     private interface KuduService {
@@ -158,6 +199,21 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
         @Put("api/vfs/{path}")
         Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path, @BodyParam("application/octet-stream") String content);
 
+        @Headers({
+                "Content-Type: application/octet-stream",
+                "If-Match: *"
+        })
+        @Put("api/vfs/{path}")
+        Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path, @BodyParam("application/octet-stream") byte[] content);
+
+        @Headers({
+                "Content-Type: application/octet-stream",
+                "If-Match: *"
+        })
+        @Put("api/vfs/{path}")
+        Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path,
+                            @BodyParam("application/octet-stream") Flux<ByteBuffer> content, @HeaderParam("Content-Length") long length);
+
         @Headers({
                 "Content-Type: application/json; charset=utf-8"
         })
@@ -190,6 +246,13 @@ public class AppServiceKuduClient implements IFileClient, IProcessClient {
         })
         @Get("AppServiceTunnel/Tunnel.ashx?GetStatus&GetStatusAPIVer=2")
         Mono<Response<TunnelStatus>> getAppServiceTunnelStatus(@HostParam("$host") String host);
+
+        @Headers({
+                "Content-Type: application/json; charset=utf-8",
+                "x-ms-body-logging: false"
+        })
+        @Get("api/settings")
+        Mono<Response<Map<String, String>>> getAppSettings(@HostParam("$host") String host);
     }
 
     @Data
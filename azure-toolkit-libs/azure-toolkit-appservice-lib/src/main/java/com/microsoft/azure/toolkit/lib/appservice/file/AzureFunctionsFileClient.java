@@ -8,6 +8,7 @@ package com.microsoft.azure.toolkit.lib.appservice.file;
 import com.azure.core.annotation.BodyParam;
 import com.azure.core.annotation.Delete;
 import com.azure.core.annotation.Get;
+import com.azure.core.annotation.HeaderParam;
 import com.azure.core.annotation.Headers;
 import com.azure.core.annotation.Host;
 import com.azure.core.annotation.HostParam;
@@ -23,6 +24,7 @@ import com.azure.core.http.rest.Response;
 import com.azure.core.http.rest.RestProxy;
 import com.azure.core.http.rest.StreamResponse;
 import com.azure.core.management.serializer.SerializerFactory;
+import com.azure.core.util.FluxUtil;
 import com.azure.resourcemanager.appservice.models.FunctionApp;
 import com.azure.resourcemanager.appservice.models.FunctionDeploymentSlot;
 import com.azure.resourcemanager.appservice.models.WebAppBase;
@@ -40,7 +42,11 @@ import reactor.core.publisher.Mono;
 
 import javax.annotation.Nonnull;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Collections;
 import java.util.List;
@@ -48,6 +54,7 @@ import java.util.stream.Collectors;
 
 public class AzureFunctionsFileClient implements IFileClient {
     private static final String LINUX_ROOT = "home";
+    private static final int CHUNK_SIZE = 64 * 1024;
 
     private final String host;
     private final FunctionsService functionsService;
@@ -103,6 +110,24 @@ public class AzureFunctionsFileClient implements IFileClient {
         this.functionsService.saveFile(host, getFixedPath(path), content).block();
     }
 
+    public void uploadFileToPath(byte[] content, String path) {
+        this.functionsService.saveFile(host, getFixedPath(path), content).block();
+    }
+
+    public void saveFile(String path, Path file) {
+        final long length;
+        try {
+            length = Files.size(file);
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to read file %s", file), e);
+        }
+        this.functionsService.saveFile(host, getFixedPath(path), Utils.readFile(file, CHUNK_SIZE), length).block();
+    }
+
+    public void saveFile(String path, InputStream input, long length) {
+        this.functionsService.saveFile(host, getFixedPath(path), FluxUtil.toFluxByteBuffer(input, CHUNK_SIZE), length).block();
+    }
+
     public void createDirectory(String path) {
         this.functionsService.createDirectory(host, getFixedPath(path)).block();
     }
@@ -138,6 +163,21 @@ public class AzureFunctionsFileClient implements IFileClient {
         @Put("admin/vfs/{path}")
         Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path, @BodyParam("application/octet-stream") String content);
 
+        @Headers({
+            "Content-Type: application/octet-stream",
+            "If-Match: *"
+        })
+        @Put("admin/vfs/{path}")
+        Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path, @BodyParam("application/octet-stream") byte[] content);
+
+        @Headers({
+            "Content-Type: application/octet-stream",
+            "If-Match: *"
+        })
+        @Put("admin/vfs/{path}")
+        Mono<Void> saveFile(@HostParam("$host") String host, @PathParam("path") String path,
+                            @BodyParam("application/octet-stream") Flux<ByteBuffer> content, @HeaderParam("Content-Length") long length);
+
         @Headers({
             "Content-Type: application/json; charset=utf-8"
         })
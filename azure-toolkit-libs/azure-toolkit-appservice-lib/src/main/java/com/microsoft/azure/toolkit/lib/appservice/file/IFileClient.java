@@ -8,7 +8,9 @@ package com.microsoft.azure.toolkit.lib.appservice.file;
 import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
 import reactor.core.publisher.Flux;
 
+import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.List;
 
 public interface IFileClient {
@@ -20,6 +22,18 @@ public interface IFileClient {
 
     void uploadFileToPath(String content, String path);
 
+    void uploadFileToPath(byte[] content, String path);
+
+    /**
+     * upload {@code file} to {@code path}, the content is streamed rather than loaded into memory.
+     */
+    void saveFile(String path, Path file);
+
+    /**
+     * upload {@code length} bytes read from {@code input} to {@code path}, {@code input} is consumed but not closed.
+     */
+    void saveFile(String path, InputStream input, long length);
+
     void createDirectory(String path);
 
     void deleteFile(String path);
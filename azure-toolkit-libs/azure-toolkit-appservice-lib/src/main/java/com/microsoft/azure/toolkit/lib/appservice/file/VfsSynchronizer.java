@@ -0,0 +1,253 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.file;
+
+import com.azure.core.util.FluxUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeploymentFingerprint;
+import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import com.microsoft.azure.toolkit.lib.common.utils.InstallationIdUtils;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * synchronizes a local directory to a directory of an app through the vfs api of {@link IFileClient}, uploading only
+ * files that changed since the last synchronization. the vfs api exposes no content hash, so the SHA-256 of every
+ * uploaded file is recorded together with the size and mtime reported by the remote in a manifest kept in the app,
+ * a remote file is considered unchanged if its local hash, remote size and remote mtime all match the manifest.
+ */
+@Slf4j
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class VfsSynchronizer {
+    /**
+     * where the toolkit keeps its state in the app (e.g. sync manifests and deployment fingerprints), files in it are
+     * never deleted as orphans.
+     */
+    static final String TOOLKIT_DIRECTORY = "data/azure-toolkit";
+    static final String MANIFEST_DIRECTORY = TOOLKIT_DIRECTORY + "/sync";
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Nonnull
+    private final IFileClient client;
+    private int parallelism = 4;
+    /**
+     * delete remote files that don't exist locally.
+     */
+    private boolean deleteOrphans = false;
+    /**
+     * fall back to the given deployment when more than this fraction of local files changed.
+     */
+    private double fallbackThreshold = 0.5;
+
+    /**
+     * @param fallback deploys the whole directory at once (e.g. zip deploy), used when too many files changed.
+     */
+    @Nonnull
+    public Result sync(@Nonnull File localDirectory, @Nonnull String remoteDirectory, @Nullable Runnable fallback) {
+        final String remoteRoot = StringUtils.stripEnd(remoteDirectory.replace('\\', '/'), "/");
+        final Map<String, String> local = hashLocalFiles(localDirectory);
+        final Map<String, AppServiceFile> remote = new HashMap<>();
+        final Set<String> remoteDirectories = new TreeSet<>();
+        this.listRemote(remoteRoot, "", remote, remoteDirectories);
+        final Map<String, ManifestEntry> manifest = this.loadManifest(remoteRoot);
+
+        final List<String> changed = local.entrySet().stream()
+            .filter(e -> !isUnchanged(manifest.get(e.getKey()), e.getValue(), remote.get(e.getKey())))
+            .map(Map.Entry::getKey).sorted().collect(Collectors.toList());
+        final List<String> orphans = !this.deleteOrphans ? Collections.emptyList() :
+            remote.keySet().stream().filter(p -> !local.containsKey(p) && !isToolkitFile(join(remoteRoot, p))).sorted().collect(Collectors.toList());
+        final Result result = new Result(local.size(), changed.size(), orphans.size());
+        if (Objects.nonNull(fallback) && !local.isEmpty() && changed.size() > local.size() * this.fallbackThreshold) {
+            AzureMessager.getMessager().info(String.format("%d of %d files changed, deploying all files at once.", changed.size(), local.size()));
+            fallback.run();
+            result.fallenBack = true;
+        } else {
+            this.createDirectories(remoteRoot, changed, remoteDirectories);
+            Flux.fromIterable(changed)
+                .flatMap(path -> Mono.fromRunnable(() -> this.upload(localDirectory, remoteRoot, path))
+                    .subscribeOn(Schedulers.boundedElastic())
+                    .retryWhen(Retry.backoff(MAX_ATTEMPTS - 1, Duration.ofSeconds(1))), this.parallelism)
+                .blockLast();
+            orphans.forEach(path -> this.client.deleteFile(join(remoteRoot, path)));
+        }
+        this.saveManifest(remoteRoot, local);
+        return result;
+    }
+
+    private static boolean isUnchanged(@Nullable ManifestEntry entry, @Nonnull String hash, @Nullable AppServiceFile remote) {
+        return Objects.nonNull(entry) && Objects.nonNull(remote) && StringUtils.equals(entry.getSha256(), hash) &&
+            entry.getSize() == remote.getSize() && StringUtils.equals(entry.getMtime(), remote.getMtime());
+    }
+
+    private static boolean isToolkitFile(@Nonnull String remotePath) {
+        return StringUtils.stripStart(remotePath, "/").startsWith(TOOLKIT_DIRECTORY + "/");
+    }
+
+    @Nonnull
+    private static Map<String, String> hashLocalFiles(@Nonnull File localDirectory) {
+        final Path root = localDirectory.toPath();
+        try (final Stream<Path> paths = Files.walk(root)) {
+            final Map<String, String> result = new TreeMap<>();
+            paths.filter(Files::isRegularFile).forEach(p ->
+                result.put(root.relativize(p).toString().replace(File.separatorChar, '/'), DeploymentFingerprint.sha256(p.toFile())));
+            return result;
+        } catch (final IOException e) {
+            throw new AzureToolkitRuntimeException(String.format("failed to list files of %s", localDirectory), e);
+        }
+    }
+
+    private void listRemote(@Nonnull String remoteRoot, @Nonnull String relative, @Nonnull Map<String, AppServiceFile> files,
+                            @Nonnull Set<String> directories) {
+        final List<? extends AppServiceFile> children;
+        try {
+            children = this.client.getFilesInDirectory(join(remoteRoot, relative));
+        } catch (final RuntimeException e) { // directory doesn't exist
+            log.debug("failed to list remote directory {}.", join(remoteRoot, relative), e);
+            return;
+        }
+        directories.add(relative);
+        if (Objects.isNull(children)) {
+            return;
+        }
+        for (final AppServiceFile child : children) {
+            final String path = StringUtils.isEmpty(relative) ? child.getName() : relative + "/" + child.getName();
+            if (child.getType() == AppServiceFile.Type.DIRECTORY) {
+                this.listRemote(remoteRoot, path, files, directories);
+            } else {
+                files.put(path, child);
+            }
+        }
+    }
+
+    private void createDirectories(@Nonnull String remoteRoot, @Nonnull List<String> files, @Nonnull Set<String> existing) {
+        final Set<String> missing = new TreeSet<>(Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder()));
+        for (final String file : files) {
+            for (String dir = parent(file); !existing.contains(dir); dir = parent(dir)) {
+                missing.add(dir);
+                if (dir.isEmpty()) {
+                    break;
+                }
+            }
+        }
+        for (final String dir : missing) { // parents go first
+            this.client.createDirectory(join(remoteRoot, dir));
+            existing.add(dir);
+        }
+    }
+
+    private void upload(@Nonnull File localDirectory, @Nonnull String remoteRoot, @Nonnull String path) {
+        this.client.saveFile(join(remoteRoot, path), new File(localDirectory, path).toPath());
+    }
+
+    @Nonnull
+    private Map<String, ManifestEntry> loadManifest(@Nonnull String remoteRoot) {
+        try {
+            final byte[] bytes = FluxUtil.collectBytesInByteBufferStream(this.client.getFileContent(getManifestPath(remoteRoot))).block();
+            if (Objects.nonNull(bytes)) {
+                return JsonUtils.fromJson(new String(bytes, StandardCharsets.UTF_8), new TypeReference<Map<String, ManifestEntry>>() {
+                });
+            }
+        } catch (final Exception e) { // no manifest, upload all files
+            log.debug("failed to load sync manifest of {}.", remoteRoot, e);
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * re-list the remote directory to record the mtime of the synchronized files.
+     */
+    private void saveManifest(@Nonnull String remoteRoot, @Nonnull Map<String, String> local) {
+        try {
+            final Map<String, AppServiceFile> remote = new HashMap<>();
+            this.listRemote(remoteRoot, "", remote, new TreeSet<>());
+            final Map<String, ManifestEntry> manifest = new LinkedHashMap<>();
+            local.forEach((path, hash) -> Optional.ofNullable(remote.get(path))
+                .ifPresent(f -> manifest.put(path, new ManifestEntry(hash, f.getSize(), f.getMtime()))));
+            this.client.uploadFileToPath(JsonUtils.toJson(manifest), getManifestPath(remoteRoot));
+        } catch (final RuntimeException e) { // the next synchronization will upload more files, nothing else
+            log.debug("failed to save sync manifest of {}.", remoteRoot, e);
+        }
+    }
+
+    @Nonnull
+    private static String getManifestPath(@Nonnull String remoteRoot) {
+        return String.format("%s/%s.json", MANIFEST_DIRECTORY, InstallationIdUtils.hash("vfs:" + remoteRoot));
+    }
+
+    @Nonnull
+    private static String parent(@Nonnull String path) {
+        return path.contains("/") ? StringUtils.substringBeforeLast(path, "/") : "";
+    }
+
+    @Nonnull
+    private static String join(@Nonnull String root, @Nonnull String relative) {
+        return StringUtils.isEmpty(relative) ? root : root + "/" + relative;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class ManifestEntry {
+        private String sha256;
+        private long size;
+        private String mtime;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final int total;
+        private final int changed;
+        private final int deleted;
+        /**
+         * whether the whole directory is deployed by the fallback.
+         */
+        private boolean fallenBack;
+
+        @Override
+        public String toString() {
+            return this.fallenBack ? String.format("deployed all %d files", this.total) :
+                String.format("uploaded %d of %d files, deleted %d", this.changed, this.total, this.deleted);
+        }
+    }
+}
@@ -4,14 +4,8 @@
  */
 package com.microsoft.azure.toolkit.lib.appservice.function.core;
 
-import com.fasterxml.jackson.annotation.JsonInclude;
-import com.fasterxml.jackson.core.PrettyPrinter;
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.core.util.DefaultIndenter;
-import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.microsoft.applicationinsights.core.dependencies.apachecommons.io.input.BOMInputStream;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
@@ -41,6 +35,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.stream.Collectors;
 
 // todo: investigate whether we need to migrate to unified function packager in java tooling
@@ -66,6 +61,7 @@ public class AzureFunctionPackager extends AzureFunctionPackagerBase {
     protected static final String SAVE_SKIP = "No configurations found. Skip save.";
     protected static final String SAVE_FUNCTION_JSON = "Starting processing function: ";
     protected static final String SAVE_SUCCESS = "Successfully saved to ";
+    protected static final String SAVE_UNCHANGED = "Skip %d unchanged function.json file(s).";
     protected static final String COPY_JARS = "Step 7 of 8: Copying JARs to staging directory";
     protected static final String COPY_SUCCESS = "Copied successfully.";
     protected static final String INSTALL_EXTENSIONS = "Step 8 of 8: Installing function extensions if needed";
@@ -110,7 +106,7 @@ public class AzureFunctionPackager extends AzureFunctionPackagerBase {
 
         validateFunctionConfigurations(configMap);
 
-        final ObjectWriter objectWriter = getObjectWriter();
+        final ObjectWriter objectWriter = FunctionJsonWriter.getObjectWriter();
 
         try {
             copyHostJson(project);
@@ -167,7 +163,7 @@ public class AzureFunctionPackager extends AzureFunctionPackagerBase {
         if (configMap.isEmpty()) {
             AzureMessager.getMessager().info(VALIDATE_SKIP);
         } else {
-            configMap.values().forEach(FunctionConfiguration::validate);
+            FunctionJsonWriter.validate(configMap.values());
             AzureMessager.getMessager().info(VALIDATE_DONE);
         }
     }
@@ -178,21 +174,21 @@ public class AzureFunctionPackager extends AzureFunctionPackagerBase {
         if (configMap.size() == 0) {
             AzureMessager.getMessager().info(SAVE_SKIP);
         } else {
-            for (final Map.Entry<String, FunctionConfiguration> config : configMap.entrySet()) {
-                writeFunctionJsonFile(project, objectWriter, config.getKey(), config.getValue());
+            // files are written by worker threads, messages are sent from this thread where the operation context is
+            final Map<String, File> written = new ConcurrentSkipListMap<>();
+            FunctionJsonWriter.writeAll(configMap, (name, config) -> {
+                final File functionJsonFile = Paths.get(project.getStagingFolder().getAbsolutePath(), name, FUNCTION_JSON).toFile();
+                if (FunctionJsonWriter.write(objectWriter, config, functionJsonFile)) {
+                    written.put(name, functionJsonFile);
+                }
+            });
+            written.values().forEach(file -> AzureMessager.getMessager().info(SAVE_SUCCESS + file.getAbsolutePath()));
+            if (written.size() < configMap.size()) {
+                AzureMessager.getMessager().info(String.format(SAVE_UNCHANGED, configMap.size() - written.size()));
             }
         }
     }
 
-    private void writeFunctionJsonFile(FunctionProject project, final ObjectWriter objectWriter, final String functionName,
-                                       final FunctionConfiguration config) throws IOException {
-        AzureMessager.getMessager().info(SAVE_FUNCTION_JSON + functionName);
-        final File functionJsonFile = Paths.get(project.getStagingFolder().getAbsolutePath(),
-            functionName, FUNCTION_JSON).toFile();
-        writeObjectToFile(objectWriter, config, functionJsonFile);
-        AzureMessager.getMessager().info(SAVE_SUCCESS + functionJsonFile.getAbsolutePath());
-    }
-
     private void copyHostJson(FunctionProject project) throws IOException {
         AzureMessager.getMessager().info(LINE_FEED + SAVING_HOST_JSON);
         final File sourceHostJsonFile = ObjectUtils.firstNonNull(project.getHostJsonFile(), new File(project.getBaseDirectory(), HOST_JSON));
@@ -218,32 +214,11 @@ public class AzureFunctionPackager extends AzureFunctionPackagerBase {
         }
     }
 
-    private void writeObjectToFile(final ObjectWriter objectWriter, final Object object, final File targetFile)
-        throws IOException {
-        targetFile.getParentFile().mkdirs();
-        targetFile.createNewFile();
-        objectWriter.writeValue(targetFile, object);
-    }
-
-    private ObjectWriter getObjectWriter() {
-        final DefaultPrettyPrinter.Indenter indenter = DefaultIndenter.SYSTEM_LINEFEED_INSTANCE.withLinefeed(StringUtils.LF);
-        final PrettyPrinter prettyPrinter = new DefaultPrettyPrinter().withObjectIndenter(indenter);
-        return new ObjectMapper()
-            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
-            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
-            .writer(prettyPrinter);
-    }
-
     private void copyJarsToStageDirectory(FunctionProject project) throws IOException {
         final String stagingDirectory = project.getStagingFolder().getAbsolutePath();
         AzureMessager.getMessager().info(LINE_FEED + COPY_JARS + stagingDirectory);
-        final File libFolder = Paths.get(stagingDirectory, "lib").toFile();
-        if (libFolder.exists()) {
-            FileUtils.cleanDirectory(libFolder);
-        }
-        for (final File file : project.getDependencies()) {
-            copyFileToDirectory(file, libFolder);
-        }
+        final StagingSynchronizer.Result result = new StagingSynchronizer().syncLibraries(project.getDependencies(), new File(stagingDirectory));
+        AzureMessager.getMessager().info(StringUtils.capitalize(result.toString()));
         copyFileToDirectory(project.getArtifactFile(), new File(stagingDirectory));
         AzureMessager.getMessager().info(COPY_SUCCESS);
     }
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.function.core;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.PrettyPrinter;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * validates and writes {@code function.json} files of all functions in parallel through a shared {@link ObjectWriter}.
+ * a file is replaced atomically and only if its content changes, so that file watchers (e.g. {@code func host}) don't
+ * see partially written or spurious changes.
+ */
+public class FunctionJsonWriter {
+    private static final ObjectWriter OBJECT_WRITER = createObjectWriter();
+
+    /**
+     * @return the shared writer, which is immutable and thread safe.
+     */
+    @Nonnull
+    public static ObjectWriter getObjectWriter() {
+        return OBJECT_WRITER;
+    }
+
+    /**
+     * validate all configurations concurrently, the error of the first invalid one is rethrown as is.
+     */
+    public static void validate(@Nonnull Collection<FunctionConfiguration> configs) {
+        final Optional<RuntimeException> error = configs.parallelStream().map(config -> {
+            try {
+                config.validate();
+                return null;
+            } catch (final RuntimeException e) {
+                return e;
+            }
+        }).filter(Objects::nonNull).findFirst();
+        if (error.isPresent()) {
+            throw error.get();
+        }
+    }
+
+    /**
+     * run {@code task} for all functions concurrently, the error of the first failed one is rethrown as is.
+     */
+    public static void writeAll(@Nonnull Map<String, FunctionConfiguration> configMap, @Nonnull FunctionJsonTask task) throws IOException {
+        final Optional<Exception> error = configMap.entrySet().parallelStream().map(entry -> {
+            try {
+                task.run(entry.getKey(), entry.getValue());
+                return null;
+            } catch (final IOException | RuntimeException e) {
+                return e;
+            }
+        }).filter(Objects::nonNull).findFirst();
+        if (error.isPresent()) {
+            if (error.get() instanceof IOException) {
+                throw (IOException) error.get();
+            }
+            throw (RuntimeException) error.get();
+        }
+    }
+
+    /**
+     * serialize {@code value} to {@code target} through a temp file in the same directory, which is then moved in place.
+     *
+     * @return false if {@code target} is not written because its content is the same.
+     */
+    public static boolean write(@Nonnull ObjectWriter writer, @Nonnull Object value, @Nonnull File target) throws IOException {
+        final byte[] bytes = writer.writeValueAsBytes(value);
+        final Path path = target.toPath();
+        if (Files.isRegularFile(path) && Files.size(path) == bytes.length && Arrays.equals(Files.readAllBytes(path), bytes)) {
+            return false;
+        }
+        final Path directory = Files.createDirectories(path.toAbsolutePath().getParent());
+        final Path temp = Files.createTempFile(directory, "." + target.getName(), ".tmp");
+        try {
+            Files.write(temp, bytes);
+            try {
+                Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return true;
+    }
+
+    @Nonnull
+    private static ObjectWriter createObjectWriter() {
+        final DefaultPrettyPrinter.Indenter indenter = DefaultIndenter.SYSTEM_LINEFEED_INSTANCE.withLinefeed(StringUtils.LF);
+        final PrettyPrinter prettyPrinter = new DefaultPrettyPrinter().withObjectIndenter(indenter);
+        return new ObjectMapper()
+            .configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+            .setSerializationInclusion(JsonInclude.Include.NON_NULL)
+            .writer(prettyPrinter);
+    }
+
+    @FunctionalInterface
+    public interface FunctionJsonTask {
+        void run(String functionName, FunctionConfiguration config) throws IOException;
+    }
+}
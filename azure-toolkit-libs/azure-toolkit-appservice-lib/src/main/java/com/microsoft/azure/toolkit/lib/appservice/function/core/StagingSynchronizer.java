@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.function.core;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeploymentFingerprint;
+import com.microsoft.azure.toolkit.lib.common.utils.JsonUtils;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * incrementally synchronizes files (e.g. dependency jars) into a flat staging directory. the source path, size and
+ * mtime of every staged file are recorded in a manifest, a file is staged again only if any of them changed and its
+ * content (SHA-256) changed too, files that are no longer wanted are deleted. files are hard linked when possible and
+ * copied otherwise, staged files are always replaced rather than written in place, so a hard linked source (e.g. in
+ * the local maven repository) is never modified.
+ */
+@Slf4j
+@Getter
+@Setter
+public class StagingSynchronizer {
+    public static final String LIB_FOLDER = "lib";
+
+    /**
+     * hard link files if the source and the staging directory are on the same file system.
+     */
+    private boolean hardLink = true;
+    /**
+     * compare the content of files even if their size and mtime are unchanged.
+     */
+    private boolean verifyContent = false;
+
+    /**
+     * @param sources      files to stage, a later file overrides an earlier one with the same name
+     * @param manifestFile records staged files, it should not be in {@code directory}
+     */
+    @Nonnull
+    public Result sync(@Nonnull Collection<File> sources, @Nonnull File directory, @Nonnull File manifestFile) throws IOException {
+        final Map<String, File> wanted = new LinkedHashMap<>();
+        sources.forEach(source -> wanted.put(source.getName(), source));
+        final Map<String, ManifestEntry> manifest = loadManifest(manifestFile);
+        final Map<String, ManifestEntry> updated = new TreeMap<>();
+        final Result result = new Result(wanted.size());
+        Files.createDirectories(directory.toPath());
+        for (final Map.Entry<String, File> e : wanted.entrySet()) {
+            final Path source = e.getValue().toPath();
+            final Path target = directory.toPath().resolve(e.getKey());
+            final BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            final ManifestEntry current = new ManifestEntry(source.toAbsolutePath().toString(), attributes.size(),
+                attributes.lastModifiedTime().toMillis(), null);
+            final ManifestEntry previous = manifest.get(e.getKey());
+            if (!this.isUnchanged(previous, current, target)) {
+                this.stage(source, target, attributes.size(), result);
+            }
+            updated.put(e.getKey(), current);
+        }
+        final List<Path> stales;
+        try (final Stream<Path> children = Files.list(directory.toPath())) {
+            stales = children.filter(p -> !wanted.containsKey(p.getFileName().toString())).collect(Collectors.toList());
+        }
+        for (final Path stale : stales) {
+            FileUtils.forceDelete(stale.toFile());
+            result.deleted++;
+        }
+        if (!Objects.equals(manifest, updated)) {
+            FileUtils.forceMkdirParent(manifestFile);
+            FileUtils.write(manifestFile, JsonUtils.toJson(updated), StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    /**
+     * synchronize {@code files} to the lib folder of the function staging directory.
+     */
+    @Nonnull
+    public Result syncLibraries(@Nonnull Collection<File> files, @Nonnull File stagingDirectory) throws IOException {
+        // the manifest is kept out of the staging directory, so that it's not deployed
+        final File manifest = new File(stagingDirectory.getAbsoluteFile().getParentFile(), String.format(".%s-%s.json", stagingDirectory.getName(), LIB_FOLDER));
+        return this.sync(files, new File(stagingDirectory, LIB_FOLDER), manifest);
+    }
+
+    /**
+     * the hash of a file is computed only if its mtime changed but its size didn't (e.g. a re-downloaded snapshot), or
+     * if {@link #verifyContent} is enabled, and is kept in the manifest for the next synchronization.
+     */
+    private boolean isUnchanged(@Nullable ManifestEntry previous, @Nonnull ManifestEntry current, @Nonnull Path target) throws IOException {
+        if (Objects.isNull(previous) || !StringUtils.equals(previous.getSource(), current.getSource()) ||
+            previous.getSize() != current.getSize() || !Files.isRegularFile(target) || Files.size(target) != current.getSize()) {
+            return false;
+        }
+        if (previous.getMtime() == current.getMtime() && !this.verifyContent) {
+            current.setSha256(previous.getSha256());
+            return true;
+        }
+        current.setSha256(DeploymentFingerprint.sha256(new File(current.getSource())));
+        final String staged = StringUtils.isNotEmpty(previous.getSha256()) && previous.getMtime() == Files.getLastModifiedTime(target).toMillis() ?
+            previous.getSha256() : DeploymentFingerprint.sha256(target.toFile());
+        return StringUtils.equals(current.getSha256(), staged);
+    }
+
+    private void stage(@Nonnull Path source, @Nonnull Path target, long size, @Nonnull Result result) throws IOException {
+        Files.deleteIfExists(target);
+        if (this.hardLink) {
+            try {
+                Files.createLink(target, source);
+                result.linked++;
+                return;
+            } catch (final IOException | UnsupportedOperationException | SecurityException e) { // e.g. across file systems
+                log.debug("failed to hard link {} to {}, copying it instead.", source, target, e);
+                Files.deleteIfExists(target);
+            }
+        }
+        Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+        result.copied++;
+        result.bytesWritten += size;
+    }
+
+    @Nonnull
+    private static Map<String, ManifestEntry> loadManifest(@Nonnull File manifestFile) {
+        if (!manifestFile.isFile()) {
+            return Collections.emptyMap();
+        }
+        try {
+            return JsonUtils.fromJson(FileUtils.readFileToString(manifestFile, StandardCharsets.UTF_8), new TypeReference<Map<String, ManifestEntry>>() {
+            });
+        } catch (final Exception e) { // stage all files again
+            log.debug("failed to load staging manifest {}.", manifestFile, e);
+            return Collections.emptyMap();
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class ManifestEntry {
+        private String source;
+        private long size;
+        private long mtime;
+        @Nullable
+        private String sha256;
+    }
+
+    @Getter
+    public static class Result {
+        private final int total;
+        private int linked;
+        private int copied;
+        private int deleted;
+        private long bytesWritten;
+
+        Result(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("staged %d of %d files (%d hard linked, %d copied, %d bytes written), deleted %d",
+                this.linked + this.copied, this.total, this.linked, this.copied, this.bytesWritten, this.deleted);
+        }
+    }
+}
@@ -0,0 +1,508 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+package com.microsoft.azure.toolkit.lib.appservice.function.impl;
+
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionAnnotation;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionAnnotationClass;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionMethod;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunctionsAnnotationConstants.FUNCTION_NAME;
+
+/**
+ * finds methods annotated with {@code @FunctionName} by reading class files with ASM, no class is loaded. class files
+ * whose constant pool doesn't reference the annotation are skipped without being parsed. annotation types (for
+ * default values and meta annotations) are read from the scanned location and then the classpath.
+ */
+@Slf4j
+public class BytecodeFunctionScanner implements Closeable {
+    private static final String FUNCTION_NAME_TYPE = FUNCTION_NAME.replace('.', '/');
+    private static final String FUNCTION_NAME_DESCRIPTOR = "L" + FUNCTION_NAME_TYPE + ";";
+    private static final byte[] FUNCTION_NAME_DESCRIPTOR_BYTES = FUNCTION_NAME_DESCRIPTOR.getBytes(StandardCharsets.UTF_8);
+    private static final String CLASS_SUFFIX = ".class";
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int PARSING_OPTIONS = ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES;
+
+    private final List<File> classpath;
+    private final Map<File, JarFile> jars = new HashMap<>();
+    private final Map<String, AnnotationType> types = new HashMap<>();
+    private final Map<String, FunctionAnnotationClass> classes = new HashMap<>();
+
+    /**
+     * @param classpath directories and jars to read annotation types from
+     */
+    public BytecodeFunctionScanner(@Nonnull List<File> classpath) {
+        this.classpath = new ArrayList<>(classpath);
+    }
+
+    /**
+     * @param location a classes directory or a jar
+     */
+    @Nonnull
+    public List<FunctionMethod> findAnnotatedMethods(@Nonnull File location) throws IOException {
+        if (!this.classpath.contains(location)) {
+            this.classpath.add(0, location);
+        }
+        return this.scan(location).stream().map(this::toFunctionMethod).collect(Collectors.toList());
+    }
+
+    /**
+     * @param location a classes directory or a jar
+     * @return signatures of the annotated methods, for callers that need to load them.
+     */
+    @Nonnull
+    public List<MethodSignature> findAnnotatedMethodSignatures(@Nonnull File location) throws IOException {
+        return this.scan(location).stream().map(m -> new MethodSignature(Type.getObjectType(m.owner).getClassName(), m.name, m.descriptor))
+            .collect(Collectors.toList());
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (final JarFile jar : this.jars.values()) {
+            jar.close();
+        }
+        this.jars.clear();
+    }
+
+    @Nonnull
+    private List<ScannedMethod> scan(@Nonnull File location) throws IOException {
+        final List<ScannedMethod> result = new ArrayList<>();
+        int scanned = 0;
+        int parsed = 0;
+        if (location.isDirectory()) {
+            final List<Path> files;
+            try (final Stream<Path> paths = Files.walk(location.toPath())) {
+                files = paths.filter(p -> p.toString().endsWith(CLASS_SUFFIX) && Files.isRegularFile(p)).sorted().collect(Collectors.toList());
+            }
+            for (final Path file : files) {
+                scanned++;
+                parsed += scanClass(Files.readAllBytes(file), result) ? 1 : 0;
+            }
+        } else if (location.isFile()) {
+            final JarFile jar = this.getJar(location);
+            for (final Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements(); ) {
+                final JarEntry entry = entries.nextElement();
+                // skip copies of classes for other java versions in multi-release jars
+                if (entry.isDirectory() || !entry.getName().endsWith(CLASS_SUFFIX) || entry.getName().startsWith("META-INF/")) {
+                    continue;
+                }
+                scanned++;
+                try (final InputStream input = jar.getInputStream(entry)) {
+                    parsed += scanClass(IOUtils.toByteArray(input), result) ? 1 : 0;
+                }
+            }
+        }
+        log.debug("scanned {} class file(s) in {}, {} of them referencing @FunctionName, {} function(s) found.", scanned, location, parsed, result.size());
+        return result;
+    }
+
+    /**
+     * @return false if the class is skipped by the constant pool filter
+     */
+    private static boolean scanClass(@Nonnull byte[] bytes, @Nonnull List<ScannedMethod> result) {
+        final ClassReader reader = new ClassReader(bytes);
+        if (!referencesFunctionName(reader, bytes)) {
+            return false;
+        }
+        final FunctionClassVisitor visitor = new FunctionClassVisitor();
+        reader.accept(visitor, PARSING_OPTIONS);
+        result.addAll(visitor.methods);
+        return true;
+    }
+
+    /**
+     * check the UTF8 entries of the constant pool, which {@link ClassReader} has already indexed, for the descriptor
+     * of {@code @FunctionName}.
+     */
+    private static boolean referencesFunctionName(@Nonnull ClassReader reader, @Nonnull byte[] bytes) {
+        for (int i = 1; i < reader.getItemCount(); i++) {
+            final int offset = reader.getItem(i); // 0 for the unusable entry after a long or double
+            if (offset > 0 && bytes[offset - 1] == CONSTANT_UTF8 && equalsUtf8(bytes, offset, FUNCTION_NAME_DESCRIPTOR_BYTES)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean equalsUtf8(@Nonnull byte[] bytes, int offset, @Nonnull byte[] expected) {
+        final int length = ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+        if (length != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (bytes[offset + 2 + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nonnull
+    private FunctionMethod toFunctionMethod(@Nonnull ScannedMethod method) {
+        final FunctionMethod functionMethod = new FunctionMethod();
+        functionMethod.setName(method.name);
+        functionMethod.setReturnTypeName(Type.getReturnType(method.descriptor).getClassName());
+        functionMethod.setDeclaringTypeName(method.declaringTypeName);
+        functionMethod.setAnnotations(method.annotations.stream().map(a -> this.toFunctionAnnotation(a, true)).collect(Collectors.toList()));
+        functionMethod.setParameterAnnotations(method.parameterAnnotations.stream()
+            .map(annotations -> annotations.stream().map(a -> this.toFunctionAnnotation(a, true)).toArray(FunctionAnnotation[]::new))
+            .collect(Collectors.toList()));
+        return functionMethod;
+    }
+
+    /**
+     * properties are split into declared and default ones the same way as {@link DefaultFunctionProject#create}
+     * does with reflection: values equal to the defaults are defaults, and arrays are never equal.
+     */
+    @Nonnull
+    private FunctionAnnotation toFunctionAnnotation(@Nonnull RawAnnotation annotation, boolean resolveMetaAnnotations) {
+        final AnnotationType type = this.getType(annotation.type);
+        final Map<String, Object> properties = new HashMap<>();
+        final Map<String, Object> defaultProperties = new HashMap<>();
+        if (type == null) {
+            annotation.values.forEach((key, value) -> properties.put(key, toPropertyValue(value)));
+        } else {
+            for (final String member : type.members) {
+                final Object value = toPropertyValue(annotation.values.getOrDefault(member, type.defaults.get(member)));
+                if (value == null) {
+                    continue;
+                }
+                if (!type.arrayMembers.contains(member) && Objects.equals(value, toPropertyValue(type.defaults.get(member)))) {
+                    defaultProperties.put(member, value);
+                } else {
+                    properties.put(member, value);
+                }
+            }
+        }
+        final FunctionAnnotation result = new FunctionAnnotation();
+        result.setAnnotationClass(this.getAnnotationClass(annotation.type, type, resolveMetaAnnotations));
+        result.setProperties(properties);
+        result.setDefaultProperties(defaultProperties);
+        return result;
+    }
+
+    @Nonnull
+    private FunctionAnnotationClass getAnnotationClass(@Nonnull String internalName, @Nullable AnnotationType type, boolean resolveMetaAnnotations) {
+        final FunctionAnnotationClass cached = resolveMetaAnnotations ? this.classes.get(internalName) : null;
+        if (cached != null) {
+            return cached;
+        }
+        final FunctionAnnotationClass result = new FunctionAnnotationClass();
+        result.setFullName(type == null ? Type.getObjectType(internalName).getClassName().replace('$', '.') : type.canonicalName);
+        result.setName(StringUtils.substringAfterLast("." + result.getFullName(), "."));
+        result.setAnnotations(Collections.emptyList());
+        if (resolveMetaAnnotations) {
+            this.classes.put(internalName, result);
+            if (type != null) {
+                // meta annotations are not resolved further, like the reflection based implementation
+                result.setAnnotations(type.metaAnnotations.stream().map(a -> this.toFunctionAnnotation(a, false)).collect(Collectors.toList()));
+            }
+        }
+        return result;
+    }
+
+    @Nullable
+    private AnnotationType getType(@Nonnull String internalName) {
+        if (!this.types.containsKey(internalName)) {
+            AnnotationType type = null;
+            try {
+                final byte[] bytes = this.readClass(internalName);
+                if (bytes != null) {
+                    type = new AnnotationType();
+                    new ClassReader(bytes).accept(type, PARSING_OPTIONS);
+                } else {
+                    log.debug("annotation type {} is not found, default values are not available.", internalName);
+                }
+            } catch (final IOException | RuntimeException e) {
+                log.debug("failed to read annotation type {}.", internalName, e);
+                type = null;
+            }
+            this.types.put(internalName, type);
+        }
+        return this.types.get(internalName);
+    }
+
+    @Nullable
+    private byte[] readClass(@Nonnull String internalName) throws IOException {
+        final String path = internalName + CLASS_SUFFIX;
+        for (final File entry : this.classpath) {
+            if (entry.isDirectory()) {
+                final File file = new File(entry, path);
+                if (file.isFile()) {
+                    return Files.readAllBytes(file.toPath());
+                }
+            } else if (entry.isFile()) {
+                final JarFile jar = this.getJar(entry);
+                final JarEntry jarEntry = jar.getJarEntry(path);
+                if (jarEntry != null) {
+                    try (final InputStream input = jar.getInputStream(jarEntry)) {
+                        return IOUtils.toByteArray(input);
+                    }
+                }
+            }
+        }
+        // class files of the jdk, e.g. java.lang.annotation.Retention, read as resources
+        try (final InputStream input = ClassLoader.getSystemResourceAsStream(path)) {
+            return input == null ? null : IOUtils.toByteArray(input);
+        }
+    }
+
+    @Nonnull
+    private JarFile getJar(@Nonnull File file) throws IOException {
+        JarFile jar = this.jars.get(file);
+        if (jar == null) {
+            jar = new JarFile(file);
+            this.jars.put(file, jar);
+        }
+        return jar;
+    }
+
+    /**
+     * converts values read by ASM to those read by reflection, except that enum constants are represented by their
+     * names and classes by their names, which are the same when serialized.
+     */
+    @Nullable
+    private static Object toPropertyValue(@Nullable Object value) {
+        if (value instanceof Type) {
+            return ((Type) value).getClassName();
+        } else if (value instanceof RawAnnotation) {
+            final Map<String, Object> values = new HashMap<>();
+            ((RawAnnotation) value).values.forEach((k, v) -> values.put(k, toPropertyValue(v)));
+            return values;
+        } else if (value instanceof Object[]) {
+            return Stream.of((Object[]) value).map(BytecodeFunctionScanner::toPropertyValue).toArray();
+        }
+        return value;
+    }
+
+    /**
+     * canonical name of a class, e.g. {@code a.b.Outer.Inner} for {@code a/b/Outer$Inner}, resolved with the inner
+     * class entries of its class file.
+     */
+    @Nonnull
+    private static String getCanonicalName(@Nonnull String internalName, @Nonnull Map<String, String[]> innerClasses) {
+        final String[] inner = innerClasses.get(internalName);
+        if (inner == null || inner[0] == null || inner[1] == null) { // top level, local or anonymous class
+            return Type.getObjectType(internalName).getClassName();
+        }
+        return getCanonicalName(inner[0], innerClasses) + "." + inner[1];
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class MethodSignature {
+        /**
+         * binary name of the declaring class, e.g. {@code a.b.Outer$Inner}
+         */
+        private final String className;
+        private final String name;
+        private final String descriptor;
+    }
+
+    @RequiredArgsConstructor
+    private static class RawAnnotation {
+        private final String type;
+        private final Map<String, Object> values = new LinkedHashMap<>();
+    }
+
+    @RequiredArgsConstructor
+    private static class ScannedMethod {
+        private final String owner;
+        private final String declaringTypeName;
+        private final String name;
+        private final String descriptor;
+        private final List<RawAnnotation> annotations;
+        private final List<List<RawAnnotation>> parameterAnnotations;
+    }
+
+    /**
+     * collects visible (runtime retained) annotations of methods annotated with {@code @FunctionName}.
+     */
+    private static class FunctionClassVisitor extends ClassVisitor {
+        private final Map<String, String[]> innerClasses = new HashMap<>();
+        private final List<ScannedMethod> methods = new ArrayList<>();
+        private String owner;
+
+        FunctionClassVisitor() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.owner = name;
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            this.innerClasses.put(name, new String[]{outerName, innerName});
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            final List<RawAnnotation> annotations = new ArrayList<>();
+            final List<List<RawAnnotation>> parameterAnnotations = new ArrayList<>();
+            for (int i = 0; i < Type.getArgumentTypes(descriptor).length; i++) {
+                parameterAnnotations.add(new ArrayList<>());
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotation(String annotationDescriptor, boolean visible) {
+                    return visible ? collect(annotationDescriptor, annotations) : null;
+                }
+
+                @Override
+                public AnnotationVisitor visitParameterAnnotation(int parameter, String annotationDescriptor, boolean visible) {
+                    return visible && parameter < parameterAnnotations.size() ? collect(annotationDescriptor, parameterAnnotations.get(parameter)) : null;
+                }
+
+                @Override
+                public void visitEnd() {
+                    if (annotations.stream().anyMatch(a -> FUNCTION_NAME_TYPE.equals(a.type))) {
+                        // inner classes are visited before methods
+                        methods.add(new ScannedMethod(owner, getCanonicalName(owner, innerClasses), name, descriptor, annotations, parameterAnnotations));
+                    }
+                }
+            };
+        }
+    }
+
+    /**
+     * members, default values and visible meta annotations of an annotation type.
+     */
+    private static class AnnotationType extends ClassVisitor {
+        private final Map<String, String[]> innerClasses = new HashMap<>();
+        private final List<String> members = new ArrayList<>();
+        private final Set<String> arrayMembers = new HashSet<>();
+        private final Map<String, Object> defaults = new HashMap<>();
+        private final List<RawAnnotation> metaAnnotations = new ArrayList<>();
+        private String internalName;
+        private String canonicalName;
+
+        AnnotationType() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.internalName = name;
+        }
+
+        @Override
+        public void visitInnerClass(String name, String outerName, String innerName, int access) {
+            this.innerClasses.put(name, new String[]{outerName, innerName});
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return visible ? collect(descriptor, this.metaAnnotations) : null;
+        }
+
+        @Override
+        public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+            if ((access & (Opcodes.ACC_STATIC | Opcodes.ACC_SYNTHETIC)) != 0) {
+                return null;
+            }
+            this.members.add(name);
+            if (Type.getReturnType(descriptor).getSort() == Type.ARRAY) {
+                this.arrayMembers.add(name);
+            }
+            return new MethodVisitor(Opcodes.ASM9) {
+                @Override
+                public AnnotationVisitor visitAnnotationDefault() {
+                    return new ValueCollector((key, value) -> defaults.put(name, value));
+                }
+            };
+        }
+
+        @Override
+        public void visitEnd() {
+            this.canonicalName = getCanonicalName(this.internalName, this.innerClasses);
+        }
+    }
+
+    @Nonnull
+    private static AnnotationVisitor collect(@Nonnull String descriptor, @Nonnull List<RawAnnotation> target) {
+        final RawAnnotation annotation = new RawAnnotation(Type.getType(descriptor).getInternalName());
+        target.add(annotation);
+        return new ValueCollector(annotation.values::put);
+    }
+
+    /**
+     * passes annotation values to {@code sink}: boxed primitives, strings, primitive arrays, {@link Type}s, enum
+     * constant names, {@link RawAnnotation}s and {@code Object[]}s of them.
+     */
+    private static class ValueCollector extends AnnotationVisitor {
+        private final BiConsumer<String, Object> sink;
+
+        ValueCollector(@Nonnull BiConsumer<String, Object> sink) {
+            super(Opcodes.ASM9);
+            this.sink = sink;
+        }
+
+        @Override
+        public void visit(String name, Object value) {
+            this.sink.accept(name, value);
+        }
+
+        @Override
+        public void visitEnum(String name, String descriptor, String value) {
+            this.sink.accept(name, value);
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String name, String descriptor) {
+            final RawAnnotation annotation = new RawAnnotation(Type.getType(descriptor).getInternalName());
+            this.sink.accept(name, annotation);
+            return new ValueCollector(annotation.values::put);
+        }
+
+        @Override
+        public AnnotationVisitor visitArray(String name) {
+            final List<Object> values = new ArrayList<>();
+            final BiConsumer<String, Object> parent = this.sink;
+            return new ValueCollector((key, value) -> values.add(value)) {
+                @Override
+                public void visitEnd() {
+                    parent.accept(name, values.toArray());
+                }
+            };
+        }
+    }
+}
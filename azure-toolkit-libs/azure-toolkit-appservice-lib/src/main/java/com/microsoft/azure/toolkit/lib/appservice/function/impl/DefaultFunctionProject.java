@@ -15,19 +15,14 @@ import com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionCoreTool
 import com.microsoft.azure.toolkit.lib.legacy.function.handlers.FunctionCoreToolsHandlerImpl;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.ClassUtils;
-import org.reflections.Reflections;
-import org.reflections.scanners.Scanners;
-import org.reflections.util.ConfigurationBuilder;
 
 import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
-import java.net.MalformedURLException;
-import java.net.URL;
-import java.net.URLClassLoader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -35,31 +30,22 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
-import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunctionsAnnotationConstants.FUNCTION_NAME;
-
 @Slf4j
 public class DefaultFunctionProject extends FunctionProject {
 
     @Override
     public List<FunctionMethod> findAnnotatedMethods() {
-        Set<Method> methods;
-        try {
-            try {
-                log.debug("ClassPath to resolve: " + getTargetClassUrl());
-                final List<URL> dependencyWithTargetClass = getDependencyArtifactUrls();
-                dependencyWithTargetClass.add(getTargetClassUrl());
-                methods = findFunctions(dependencyWithTargetClass);
-            } catch (NoClassDefFoundError e) {
-                // fallback to reflect through artifact url, for shaded project(fat jar)
-                log.debug("ClassPath to resolve: " + getArtifactUrl());
-                methods = findFunctions(Collections.singletonList(getArtifactUrl()));
-            }
-            return methods.stream().map(DefaultFunctionProject::create).collect(Collectors.toList());
-        } catch (MalformedURLException e) {
-            throw new AzureToolkitRuntimeException("Invalid URL when resolving functions in class path:" + e.getMessage(), e);
+        // scan the artifact instead for shaded project(fat jar) without classes output directory
+        final File location = Optional.ofNullable(getClassesOutputDirectory()).filter(File::isDirectory).orElse(getArtifactFile());
+        final List<File> classpath = new ArrayList<>(Optional.ofNullable(getDependencies()).orElse(Collections.emptyList()));
+        log.debug("Location to scan: " + location);
+        try (final BytecodeFunctionScanner scanner = new BytecodeFunctionScanner(classpath)) {
+            return scanner.findAnnotatedMethods(location);
+        } catch (IOException e) {
+            throw new AzureToolkitRuntimeException("Failed to scan functions in " + location + ": " + e.getMessage(), e);
         }
     }
 
@@ -76,45 +62,6 @@ public class DefaultFunctionProject extends FunctionProject {
         return new FunctionCoreToolsHandlerImpl(commandHandler);
     }
 
-    private URL getTargetClassUrl() throws MalformedURLException {
-        return getClassesOutputDirectory().toURI().toURL();
-    }
-
-    /**
-     * @return URLs for the classpath with compile scope needed jars
-     */
-    private List<URL> getDependencyArtifactUrls() {
-        final List<URL> urlList = new ArrayList<>();
-        getDependencies().forEach(file -> {
-            try {
-                urlList.add(file.toURI().toURL());
-            } catch (MalformedURLException e) {
-                log.debug("Failed to get URL for file: " + file);
-            }
-        });
-        return urlList;
-    }
-
-    private static Set<Method> findFunctions(final List<URL> urls) {
-        try {
-            final ClassLoader classLoader = getClassLoader(urls);
-            final Class<?> functionNameAnnotation = ClassUtils.getClass(classLoader, FUNCTION_NAME);
-            final ConfigurationBuilder builder = new ConfigurationBuilder().addUrls(urls).setScanners(Scanners.MethodsAnnotated).addClassLoaders(classLoader);
-            return new Reflections(builder).getMethodsAnnotatedWith((Class<? extends Annotation>) functionNameAnnotation);
-        } catch (ClassNotFoundException e) {
-            throw new AzureToolkitRuntimeException(e);
-        }
-    }
-
-    private static ClassLoader getClassLoader(final List<URL> urlList) {
-        final URL[] urlArray = urlList.toArray(new URL[0]);
-        return new URLClassLoader(urlArray, DefaultFunctionProject.class.getClassLoader());
-    }
-
-    private URL getArtifactUrl() throws MalformedURLException {
-        return getArtifactFile().toURI().toURL();
-    }
-
     public static FunctionAnnotation create(@Nonnull Annotation annotation) {
         return create(annotation, true);
     }
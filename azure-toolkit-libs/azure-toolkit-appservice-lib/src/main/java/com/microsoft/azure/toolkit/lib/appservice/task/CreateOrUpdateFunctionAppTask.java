@@ -29,18 +29,22 @@ import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskGraph;
 import com.microsoft.azure.toolkit.lib.resource.ResourceGroup;
 import com.microsoft.azure.toolkit.lib.resource.task.CreateResourceGroupTask;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
 
+@Slf4j
 public class CreateOrUpdateFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
     public static final String APPINSIGHTS_INSTRUMENTATION_KEY = "APPINSIGHTS_INSTRUMENTATIONKEY";
     private static final String APPLICATION_INSIGHTS_CREATE_FAILED = "Unable to create the Application Insights " +
@@ -74,40 +78,60 @@ public class CreateOrUpdateFunctionAppTask extends AzureTask<FunctionAppBase<?,
         initTasks();
     }
 
+    /**
+     * resource group goes first, app service plan and application insights only depend on it and run concurrently,
+     * the function app/slot is created or updated once all of them are done.
+     */
     private void initTasks() {
         final FunctionAppDraft appDraft = Azure.az(AzureFunctions.class).functionApps(functionAppConfig.subscriptionId())
             .updateOrCreate(functionAppConfig.appName(), functionAppConfig.resourceGroup());
-        registerSubTask(getResourceGroupTask(), result -> this.resourceGroup = result);
-        registerSubTask(getServicePlanTask(), result -> this.appServicePlan = result);
+        final AzureTask<?> groupTask = registerSubTask(getResourceGroupTask(), result -> this.resourceGroup = result);
+        final AzureTask<?> planTask = registerSubTask(getServicePlanTask(), result -> this.appServicePlan = result);
+        AzureTask<?> insightsTask = null;
         // get/create AI instances only if user didn't specify AI connection string in app settings
         if (!functionAppConfig.disableAppInsights() && !functionAppConfig.appSettings().containsKey(APPINSIGHTS_INSTRUMENTATION_KEY)) {
             if (StringUtils.isNotEmpty(functionAppConfig.appInsightsKey())) {
                 this.instrumentationKey = functionAppConfig.appInsightsKey();
             } else if (StringUtils.isNotEmpty(functionAppConfig.appInsightsInstance()) || !appDraft.exists()) {
                 // create AI instance by default when create new function
-                registerSubTask(getApplicationInsightsTask(),
+                insightsTask = registerSubTask(getApplicationInsightsTask(),
                     result -> this.instrumentationKey = Optional.ofNullable(result).map(ApplicationInsight::getInstrumentationKey).orElse(null));
             }
         }
+        if (planTask != null) {
+            planTask.dependsOn(groupTask);
+        }
+        if (insightsTask != null) {
+            insightsTask.dependsOn(groupTask);
+        }
+        final AzureTask<?> appTask;
         if (StringUtils.isEmpty(functionAppConfig.deploymentSlotName())) {
             final AzureTask<FunctionApp> functionTask = appDraft.exists() ? getUpdateFunctionAppTask(appDraft) : getCreateFunctionAppTask(appDraft);
-            registerSubTask(functionTask, result -> this.functionApp = result);
+            appTask = registerSubTask(functionTask, result -> this.functionApp = result);
         } else {
             final FunctionAppDeploymentSlotDraft slotDraft = getFunctionDeploymentSlot(appDraft);
             final AzureTask<FunctionAppDeploymentSlot> slotTask = slotDraft.exists() ?
                 getUpdateFunctionSlotTask(slotDraft) : getCreateFunctionSlotTask(slotDraft);
-            registerSubTask(slotTask, result -> this.functionApp = result);
+            appTask = registerSubTask(slotTask, result -> this.functionApp = result);
+        }
+        if (appTask != null) {
+            appTask.dependsOn(groupTask, planTask, insightsTask);
         }
     }
 
-    private <T> void registerSubTask(AzureTask<T> task, Consumer<T> consumer) {
-        if (task != null) {
-            tasks.add(new AzureTask<>(() -> {
-                T result = task.getBody().call();
-                consumer.accept(result);
-                return result;
-            }));
+    @Nullable
+    private <T> AzureTask<T> registerSubTask(@Nullable AzureTask<T> task, Consumer<T> consumer) {
+        if (task == null) {
+            return null;
         }
+        final AzureString title = Optional.ofNullable(task.getDescription()).orElseGet(() -> AzureString.fromString(task.getClass().getSimpleName()));
+        final AzureTask<T> subTask = new AzureTask<>(title, () -> {
+            T result = task.getBody().call();
+            consumer.accept(result);
+            return result;
+        });
+        tasks.add(subTask);
+        return subTask;
     }
 
     private AzureTask<FunctionApp> getCreateFunctionAppTask(final FunctionAppDraft draft) {
@@ -204,7 +228,8 @@ public class CreateOrUpdateFunctionAppTask extends AzureTask<FunctionAppBase<?,
     }
 
     private AzureTask<ApplicationInsight> getApplicationInsightsTask() {
-        return new AzureTask<>(() -> {
+        final AzureString title = AzureString.format("Get or create application insights for function app({0})", functionAppConfig.appName());
+        return new AzureTask<>(title, () -> {
             try {
                 final String name = StringUtils.firstNonEmpty(functionAppConfig.appInsightsInstance(), functionAppConfig.appName());
                 return new GetOrCreateApplicationInsightsTask(functionAppConfig.subscriptionId(),
@@ -217,8 +242,11 @@ public class CreateOrUpdateFunctionAppTask extends AzureTask<FunctionAppBase<?,
         });
     }
 
-    private CreateResourceGroupTask getResourceGroupTask() {
-        return new CreateResourceGroupTask(functionAppConfig.subscriptionId(), functionAppConfig.resourceGroup(), functionAppConfig.region());
+    private AzureTask<ResourceGroup> getResourceGroupTask() {
+        final AzureString title = AzureString.format("Get or create resource group({0})", functionAppConfig.resourceGroup());
+        final CreateResourceGroupTask task = new CreateResourceGroupTask(functionAppConfig.subscriptionId(),
+            functionAppConfig.resourceGroup(), functionAppConfig.region());
+        return new AzureTask<>(title, task::execute);
     }
 
     private AzureTask<AppServicePlan> getServicePlanTask() {
@@ -226,7 +254,8 @@ public class CreateOrUpdateFunctionAppTask extends AzureTask<FunctionAppBase<?,
             AzureMessager.getMessager().info("Skip update app service plan for deployment slot");
             return null;
         }
-        return new AzureTask<>(() -> {
+        final AzureString title = AzureString.format("Create or update app service plan({0})", functionAppConfig.servicePlanName());
+        return new AzureTask<>(title, () -> {
             final AzureAppService az = Azure.az(AzureAppService.class);
             final AppServicePlanConfig config = functionAppConfig.getServicePlanConfig();
             final AppServicePlanDraft draft = az.plans(config.getSubscriptionId())
@@ -260,9 +289,8 @@ public class CreateOrUpdateFunctionAppTask extends AzureTask<FunctionAppBase<?,
 
     @Override
     public FunctionAppBase<?, ?, ?> doExecute() throws Exception {
-        for (AzureTask<?> task : this.tasks) {
-            task.getBody().call();
-        }
+        final AzureTaskGraph.Report report = new AzureTaskGraph().execute(this.tasks);
+        log.debug(report.toString());
         return functionApp;
     }
 }
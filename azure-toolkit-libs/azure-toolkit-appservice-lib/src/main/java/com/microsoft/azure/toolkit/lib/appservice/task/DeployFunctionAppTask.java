@@ -5,6 +5,8 @@
 package com.microsoft.azure.toolkit.lib.appservice.task;
 
 import com.azure.core.management.exception.ManagementException;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeploymentFingerprint;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.ZipPackager;
 import com.microsoft.azure.toolkit.lib.appservice.entity.FunctionEntity;
 import com.microsoft.azure.toolkit.lib.appservice.function.FunctionApp;
 import com.microsoft.azure.toolkit.lib.appservice.function.FunctionAppBase;
@@ -15,9 +17,9 @@ import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.messager.IAzureMessager;
 import com.microsoft.azure.toolkit.lib.common.operation.OperationContext;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.zeroturnaround.zip.ZipUtil;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.util.retry.Retry;
@@ -30,7 +32,6 @@ import java.nio.file.Files;
 import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunctionsAnnotationConstants.ANONYMOUS;
@@ -39,8 +40,9 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
 
     private static final int SYNC_FUNCTION_MAX_ATTEMPTS = 5;
     private static final int SYNC_FUNCTION_DELAY = 1;
-    private static final int LIST_TRIGGERS_MAX_RETRY = 5;
-    private static final int LIST_TRIGGERS_RETRY_PERIOD_IN_SECONDS = 10;
+    private static final Duration LIST_TRIGGERS_INITIAL_INTERVAL = Duration.ofSeconds(2);
+    private static final Duration LIST_TRIGGERS_TIMEOUT = Duration.ofMinutes(1);
+    private static final Duration MAX_POLLING_INTERVAL = Duration.ofSeconds(15);
     private static final String RUNNING = "Running";
     private static final String AUTH_LEVEL = "authLevel";
     private static final String HTTP_TRIGGER = "httpTrigger";
@@ -57,7 +59,7 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
     private static final String FAILED_TO_LIST_TRIGGERS = "Deployment succeeded, but failed to list http trigger urls.";
     private static final String SYNC_TRIGGERS = "Syncing triggers and fetching function information";
     private static final String LIST_TRIGGERS = "Querying triggers...";
-    private static final String LIST_TRIGGERS_WITH_RETRY = "Querying triggers (Attempt {0}/{1})...";
+    private static final String LIST_TRIGGERS_WITH_RETRY = "Querying triggers (Attempt {0})...";
 
     private final FunctionAppBase<?, ?, ?> target;
     private final File stagingDirectory;
@@ -96,26 +98,31 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
 
     private void deployArtifact() {
         messager.info(DEPLOY_START);
-        // For ftp deploy, we need to upload entire staging directory not the zipped package
-        final File file = deployType == FunctionDeployType.FTP ? stagingDirectory : packageStagingDirectory();
-        final long startTime = System.currentTimeMillis();
-        if (deployType == null) {
-            target.deploy(file);
-        } else {
-            target.deploy(file, deployType);
-        }
-        OperationContext.action().setTelemetryProperty("deploy-cost", String.valueOf(System.currentTimeMillis() - startTime));
+        DeploymentFingerprint.deployIfChanged(target, this::getFingerprint, () -> {
+            // For ftp deploy, we need to upload entire staging directory not the zipped package
+            final File file = deployType == FunctionDeployType.FTP ? stagingDirectory : packageStagingDirectory();
+            final long startTime = System.currentTimeMillis();
+            if (deployType == null) {
+                target.deploy(file);
+            } else {
+                target.deploy(file, deployType);
+            }
+            OperationContext.action().setTelemetryProperty("deploy-cost", String.valueOf(System.currentTimeMillis() - startTime));
+        });
         if (!StringUtils.equalsIgnoreCase(target.getStatus(), RUNNING)) {
             target.start();
         }
         messager.info(String.format(DEPLOY_FINISH, target.getHostName()));
     }
 
+    private String getFingerprint() {
+        return new DeploymentFingerprint().add(String.valueOf(deployType)).add(stagingDirectory, LOCAL_SETTINGS_FILE::equals).getHash();
+    }
+
     private File packageStagingDirectory() {
         try {
             final File zipFile = Files.createTempFile("azure-functions", ".zip").toFile();
-            ZipUtil.pack(stagingDirectory, zipFile);
-            ZipUtil.removeEntry(zipFile, LOCAL_SETTINGS_FILE);
+            new ZipPackager(LOCAL_SETTINGS_FILE::equals).pack(stagingDirectory, zipFile);
             return zipFile;
         } catch (IOException e) {
             throw new AzureToolkitRuntimeException("Failed to package function to deploy", e);
@@ -153,6 +160,7 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
     // Refers https://github.com/Azure/azure-functions-core-tools/blob/3.0.3568/src/Azure.Functions.Cli/Actions/AzureActions/PublishFunctionAppAction.cs#L452
     private void syncTriggers(final FunctionApp functionApp) throws InterruptedException {
         messager.info(SYNC_TRIGGERS);
+        // there is no signal of the host being ready to sync, the triggers are verified by listing functions afterwards
         Thread.sleep(5 * 1000);
         Mono.fromRunnable(() -> {
                 try {
@@ -166,15 +174,16 @@ public class DeployFunctionAppTask extends AzureTask<FunctionAppBase<?, ?, ?>> {
             .retryWhen(Retry.fixedDelay(SYNC_FUNCTION_MAX_ATTEMPTS - 1, Duration.ofSeconds(SYNC_FUNCTION_DELAY))).block();
     }
 
-    private List<FunctionEntity> listFunctions(final FunctionApp functionApp) {
+    private List<FunctionEntity> listFunctions(final FunctionApp functionApp) throws InterruptedException {
         final int[] count = {0};
-        return Mono.fromCallable(() -> {
-                final AzureString message = count[0]++ == 0 ? AzureString.fromString(LIST_TRIGGERS) : AzureString.format(LIST_TRIGGERS_WITH_RETRY, count[0], LIST_TRIGGERS_MAX_RETRY);
+        try {
+            return new Poller<>("triggers", () -> {
+                final AzureString message = count[0]++ == 0 ? AzureString.fromString(LIST_TRIGGERS) : AzureString.format(LIST_TRIGGERS_WITH_RETRY, count[0]);
                 messager.info(message);
-                return Optional.of(functionApp.listFunctions())
-                    .filter(CollectionUtils::isNotEmpty)
-                    .orElseThrow(() -> new AzureToolkitRuntimeException(NO_TRIGGERS_FOUNDED));
-            }).subscribeOn(Schedulers.boundedElastic())
-            .retryWhen(Retry.fixedDelay(LIST_TRIGGERS_MAX_RETRY - 1, Duration.ofSeconds(LIST_TRIGGERS_RETRY_PERIOD_IN_SECONDS))).block();
+                return functionApp.listFunctions();
+            }).until(CollectionUtils::isNotEmpty).withInterval(LIST_TRIGGERS_INITIAL_INTERVAL, MAX_POLLING_INTERVAL).withTimeout(LIST_TRIGGERS_TIMEOUT).poll();
+        } catch (AzureToolkitRuntimeException e) {
+            throw new AzureToolkitRuntimeException(NO_TRIGGERS_FOUNDED, e);
+        }
     }
 }
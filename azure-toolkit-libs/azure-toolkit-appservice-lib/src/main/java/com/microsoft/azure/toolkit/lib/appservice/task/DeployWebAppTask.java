@@ -5,6 +5,8 @@
 
 package com.microsoft.azure.toolkit.lib.appservice.task;
 
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeploymentFingerprint;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.OneDeployScheduler;
 import com.microsoft.azure.toolkit.lib.appservice.model.WebAppArtifact;
 import com.microsoft.azure.toolkit.lib.appservice.webapp.WebAppBase;
 import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
@@ -29,6 +31,7 @@ public class DeployWebAppTask extends AzureTask<WebAppBase<?, ?, ?>> {
     private static final String STOP_APP_DONE = "Successfully stopped Web App.";
     private static final String START_APP_DONE = "Successfully started Web App.";
     private static final String RUNNING = "Running";
+    private static final int STOP_APP_DELAY = 10;
     private final WebAppBase<?, ?, ?> webApp;
     private final List<WebAppArtifact> artifacts;
     private final boolean isStopAppDuringDeployment;
@@ -50,13 +53,18 @@ public class DeployWebAppTask extends AzureTask<WebAppBase<?, ?, ?>> {
             AzureMessager.getMessager().info(AzureString.format(SKIP_DEPLOYMENT_FOR_DOCKER_APP_SERVICE, "https://" + webApp.getHostName()));
             return webApp;
         }
+        if (artifacts.stream().anyMatch(artifact -> artifact.getDeployType() == null)) {
+            throw new AzureToolkitRuntimeException("missing deployment type for some artifacts.");
+        }
         try {
             AzureMessager.getMessager().info(String.format(DEPLOY_START, webApp.name()));
-            if (isStopAppDuringDeployment) {
-                stopAppService(webApp);
-            }
-            deployArtifacts();
-            AzureMessager.getMessager().info(String.format(DEPLOY_FINISH, webApp.getHostName()));
+            DeploymentFingerprint.deployIfChanged(webApp, this::getFingerprint, () -> {
+                if (isStopAppDuringDeployment) {
+                    stopAppService(webApp);
+                }
+                deployArtifacts();
+                AzureMessager.getMessager().info(String.format(DEPLOY_FINISH, webApp.getHostName()));
+            });
         } finally {
             startAppService(webApp);
         }
@@ -64,26 +72,37 @@ public class DeployWebAppTask extends AzureTask<WebAppBase<?, ?, ?>> {
     }
 
     private void deployArtifacts() {
-        if (artifacts.stream().anyMatch(artifact -> artifact.getDeployType() == null)) {
-            throw new AzureToolkitRuntimeException("missing deployment type for some artifacts.");
-        }
         final long startTime = System.currentTimeMillis();
         final List<WebAppArtifact> artifactsOneDeploy = this.artifacts.stream()
             .filter(artifact -> artifact.getDeployType() != null)
             .collect(Collectors.toList());
-        artifactsOneDeploy.forEach(resource -> webApp.deploy(resource.getDeployType(), resource.getFile(), resource.getPath()));
+        if (artifactsOneDeploy.size() == 1) {
+            final WebAppArtifact artifact = artifactsOneDeploy.get(0);
+            webApp.deploy(artifact.getDeployType(), artifact.getFile(), artifact.getPath());
+        } else if (artifactsOneDeploy.size() > 1) {
+            webApp.deploy(artifactsOneDeploy, new OneDeployScheduler());
+        }
         OperationContext.action().setTelemetryProperty("deploy-cost", String.valueOf(System.currentTimeMillis() - startTime));
     }
 
+    private String getFingerprint() {
+        final DeploymentFingerprint fingerprint = new DeploymentFingerprint();
+        for (final WebAppArtifact artifact : artifacts) {
+            fingerprint.add(String.valueOf(artifact.getDeployType())).add(artifact.getPath()).add(artifact.getFile());
+        }
+        return fingerprint.getHash();
+    }
+
     private static void stopAppService(WebAppBase<?, ?, ?> target) {
         AzureMessager.getMessager().info(STOP_APP);
         target.stop();
         // workaround for the resources release problem.
         // More details: https://github.com/Microsoft/azure-maven-plugins/issues/191
         try {
-            TimeUnit.SECONDS.sleep(10 /* 10 seconds */);
+            // the site is reported as stopped before its file locks are released, so there is nothing to poll
+            TimeUnit.SECONDS.sleep(STOP_APP_DELAY);
         } catch (InterruptedException e) {
-            // swallow exception
+            Thread.currentThread().interrupt();
         }
         AzureMessager.getMessager().info(STOP_APP_DONE);
     }
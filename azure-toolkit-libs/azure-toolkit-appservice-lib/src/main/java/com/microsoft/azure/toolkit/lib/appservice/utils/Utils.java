@@ -6,18 +6,24 @@ package com.microsoft.azure.toolkit.lib.appservice.utils;
 
 import com.azure.core.http.HttpPipeline;
 import com.azure.core.http.policy.HttpPipelinePolicy;
+import com.azure.core.util.FluxUtil;
 import com.azure.resourcemanager.appservice.models.AppSetting;
 import com.azure.resourcemanager.resources.fluentcore.arm.ResourceId;
 import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.reflect.FieldUtils;
+import reactor.core.publisher.Flux;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.File;
 import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -101,4 +107,12 @@ public class Utils {
         segments = image.split(Pattern.quote("/"));
         return segments[segments.length - 1].trim();
     }
+
+    /**
+     * @return content of {@code file} read lazily in chunks of {@code chunkSize} bytes, so that at most a few chunks are
+     * held in memory. the file is opened on every subscription, so that requests with this body can be retried.
+     */
+    public static Flux<ByteBuffer> readFile(@Nonnull Path file, int chunkSize) {
+        return Flux.using(() -> Files.newInputStream(file), input -> FluxUtil.toFluxByteBuffer(input, chunkSize), IOUtils::closeQuietly);
+    }
 }
@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.appservice.handlers.artifact;
+
+import com.microsoft.azure.toolkit.lib.appservice.deploy.DeploymentFingerprint;
+import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.net.ftp.FTP;
+import org.apache.commons.net.ftp.FTPClient;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * uploads files to a FTP server through a pool of authenticated connections. each directory is created at most once
+ * per uploader, failed files are retried individually on a new connection, and files whose size and SHA-256 equal
+ * those recorded in the remote manifest of the last upload are skipped. files changed on the server by others are
+ * not detected.
+ */
+@Slf4j
+public class ParallelFTPUploader implements Closeable {
+    public static final String MANIFEST_NAME = ".azure-ftp-manifest";
+    public static final int DEFAULT_CONNECTIONS = 4;
+    private static final String UPLOAD_FILE = "Uploading file: %s --> %s";
+    private static final String SKIP_UNCHANGED = "Skip %d unchanged file(s).";
+
+    private final Callable<FTPClient> connector;
+    private final int connections;
+    @Setter
+    private int maxRetries = 3;
+    private final BlockingQueue<FTPClient> idle = new LinkedBlockingQueue<>();
+    private final Map<String, CompletableFuture<Void>> directories = new ConcurrentHashMap<>();
+
+    /**
+     * @param connector opens and authenticates a new connection
+     */
+    public ParallelFTPUploader(@Nonnull Callable<FTPClient> connector, int connections) {
+        this.connector = connector;
+        this.connections = Math.max(1, connections);
+    }
+
+    public ParallelFTPUploader(@Nonnull String ftpServer, @Nonnull String username, @Nonnull String password) {
+        this(() -> login(ftpServer, username, password), DEFAULT_CONNECTIONS);
+    }
+
+    /**
+     * upload all files under {@code sourceDirectory} to {@code targetDirectory}, recording them in the manifest
+     * {@code targetDirectory/.azure-ftp-manifest}.
+     *
+     * @return number of uploaded files, unchanged files are not counted.
+     */
+    public int uploadDirectory(@Nonnull File sourceDirectory, @Nonnull String targetDirectory) throws IOException {
+        final Path root = sourceDirectory.toPath();
+        final Map<File, String> files = new LinkedHashMap<>();
+        try (final Stream<Path> paths = Files.walk(root)) {
+            paths.filter(Files::isRegularFile).sorted().forEach(p -> files.put(p.toFile(),
+                join(targetDirectory, root.relativize(p).toString().replace(File.separatorChar, '/'))));
+        }
+        return this.upload(files, join(targetDirectory, MANIFEST_NAME));
+    }
+
+    /**
+     * @param files        local files and their absolute remote paths
+     * @param manifestPath remote path of the manifest that records uploaded files
+     * @return number of uploaded files, unchanged files are not counted.
+     * @throws IOException if any file is not uploaded after retries, files uploaded so far are still recorded, so
+     *                     that they are skipped next time.
+     */
+    public int upload(@Nonnull Map<File, String> files, @Nonnull String manifestPath) throws IOException {
+        final Map<String, String> manifest = this.withRetries("read " + manifestPath, client -> readManifest(client, manifestPath));
+        final Map<String, String> uploaded = new ConcurrentHashMap<>();
+        final AtomicInteger skipped = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(this.connections, r -> {
+            final Thread thread = new Thread(r, "azure-ftp-uploader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        IOException error = null;
+        try {
+            final List<Future<?>> futures = new ArrayList<>(files.size());
+            files.forEach((file, remotePath) -> futures.add(pool.submit(() -> {
+                final String record = file.length() + " " + DeploymentFingerprint.sha256(file);
+                if (StringUtils.equals(record, manifest.get(remotePath))) {
+                    skipped.incrementAndGet();
+                    return null;
+                }
+                this.withRetries("upload " + file, client -> this.storeFile(client, file, remotePath));
+                uploaded.put(remotePath, record);
+                return null;
+            })));
+            // wait for all files, so that files uploaded are recorded even if others failed
+            for (final Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (final ExecutionException e) {
+                    final IOException cause = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+                    if (error == null) {
+                        error = cause;
+                    } else {
+                        error.addSuppressed(cause);
+                    }
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = new IOException("upload is interrupted", e);
+        } finally {
+            pool.shutdownNow();
+        }
+        if (skipped.get() > 0) {
+            AzureMessager.getMessager().info(String.format(SKIP_UNCHANGED, skipped.get()));
+        }
+        if (!uploaded.isEmpty()) {
+            final Map<String, String> updated = new TreeMap<>(manifest);
+            updated.putAll(uploaded);
+            this.withRetries("write " + manifestPath, client -> this.writeManifest(client, manifestPath, updated));
+        }
+        if (error != null) {
+            throw error;
+        }
+        return uploaded.size();
+    }
+
+    @Override
+    public void close() {
+        for (FTPClient client = this.idle.poll(); client != null; client = this.idle.poll()) {
+            disconnect(client);
+        }
+    }
+
+    /**
+     * open a connection in binary and passive mode.
+     */
+    public static FTPClient login(@Nonnull String ftpServer, @Nonnull String username, @Nonnull String password) throws IOException {
+        final FTPClient client = new FTPClient();
+        client.connect(ftpServer);
+        if (!client.login(username, password)) {
+            final String reply = client.getReplyString();
+            disconnect(client);
+            throw new IOException(String.format("Failed to login FTP server %s: %s", ftpServer, StringUtils.trim(reply)));
+        }
+        client.setFileType(FTP.BINARY_FILE_TYPE);
+        client.enterLocalPassiveMode();
+        return client;
+    }
+
+    private void storeFile(@Nonnull FTPClient client, @Nonnull File file, @Nonnull String remotePath) throws IOException {
+        AzureMessager.getMessager().info(String.format(UPLOAD_FILE, file, remotePath));
+        this.ensureDirectory(client, parent(remotePath));
+        try (final InputStream input = Files.newInputStream(file.toPath())) {
+            if (!client.storeFile(remotePath, input)) {
+                throw new IOException(String.format("Failed to upload file %s: %s", file, StringUtils.trim(client.getReplyString())));
+            }
+        }
+    }
+
+    /**
+     * create {@code directory} and its parents, each of them is created by only one connection even if files in it
+     * are uploaded concurrently.
+     */
+    private void ensureDirectory(@Nonnull FTPClient client, @Nonnull String directory) throws IOException {
+        if (StringUtils.isEmpty(directory) || "/".equals(directory)) {
+            return;
+        }
+        final CompletableFuture<Void> created = new CompletableFuture<>();
+        final CompletableFuture<Void> existing = this.directories.putIfAbsent(directory, created);
+        if (existing != null) {
+            try {
+                existing.get();
+                return;
+            } catch (final ExecutionException e) { // the creator failed, try again on this connection
+                this.directories.remove(directory, existing);
+                this.ensureDirectory(client, directory);
+                return;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("upload is interrupted", e);
+            }
+        }
+        try {
+            this.ensureDirectory(client, parent(directory));
+            if (!client.makeDirectory(directory) && !client.changeWorkingDirectory(directory)) {
+                throw new IOException(String.format("Failed to create directory %s: %s", directory, StringUtils.trim(client.getReplyString())));
+            }
+            created.complete(null);
+        } catch (final IOException | RuntimeException e) {
+            this.directories.remove(directory, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Nonnull
+    private static Map<String, String> readManifest(@Nonnull FTPClient client, @Nonnull String manifestPath) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final Map<String, String> manifest = new TreeMap<>();
+        if (!client.retrieveFile(manifestPath, output)) { // first upload
+            return manifest;
+        }
+        // each line: <size> <sha256> <remote path>
+        for (final String line : new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            final String[] parts = line.split(" ", 3);
+            if (parts.length == 3) {
+                manifest.put(parts[2], parts[0] + " " + parts[1]);
+            }
+        }
+        return manifest;
+    }
+
+    private void writeManifest(@Nonnull FTPClient client, @Nonnull String manifestPath, @Nonnull Map<String, String> manifest) throws IOException {
+        final String content = manifest.entrySet().stream().map(e -> e.getValue() + " " + e.getKey() + "\n").collect(Collectors.joining());
+        this.ensureDirectory(client, parent(manifestPath));
+        if (!client.storeFile(manifestPath, new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+            throw new IOException(String.format("Failed to save %s: %s", manifestPath, StringUtils.trim(client.getReplyString())));
+        }
+    }
+
+    /**
+     * run {@code operation} on a pooled connection, a failed connection is discarded and the operation is retried
+     * on a new one.
+     */
+    private <T> T withRetries(@Nonnull String name, @Nonnull FTPOperation<T> operation) throws IOException {
+        for (int attempt = 1; ; attempt++) {
+            FTPClient client = null;
+            try {
+                client = this.borrow();
+                final T result = operation.apply(client);
+                this.idle.offer(client);
+                return result;
+            } catch (final Exception e) {
+                if (client != null) {
+                    disconnect(client);
+                }
+                if (attempt >= this.maxRetries) {
+                    throw e instanceof IOException ? (IOException) e : new IOException(String.format("Failed to %s", name), e);
+                }
+                log.debug("failed to {} (attempt {}/{}), retrying.", name, attempt, this.maxRetries, e);
+            }
+        }
+    }
+
+    @Nonnull
+    private FTPClient borrow() throws Exception {
+        // at most one connection per worker thread is in use at the same time
+        final FTPClient client = this.idle.poll();
+        return client != null ? client : Objects.requireNonNull(this.connector.call());
+    }
+
+    private static void disconnect(@Nonnull FTPClient client) {
+        try {
+            if (client.isConnected()) {
+                client.disconnect();
+            }
+        } catch (final IOException e) {
+            log.debug("failed to disconnect from FTP server.", e);
+        }
+    }
+
+    @Nonnull
+    private static String join(@Nonnull String directory, @Nonnull String name) {
+        return StringUtils.removeEnd(directory, "/") + "/" + name;
+    }
+
+    @Nonnull
+    private static String parent(@Nonnull String path) {
+        return StringUtils.substring(path, 0, Math.max(0, path.lastIndexOf('/')));
+    }
+
+    @FunctionalInterface
+    private interface FTPOperation<T> {
+        T apply(FTPClient client) throws Exception;
+    }
+}
@@ -14,12 +14,11 @@ import com.microsoft.azure.storage.blob.CloudBlobContainer;
 import com.microsoft.azure.storage.blob.CloudBlockBlob;
 import com.microsoft.azure.storage.blob.SharedAccessBlobPermissions;
 import com.microsoft.azure.storage.blob.SharedAccessBlobPolicy;
+import com.microsoft.azure.toolkit.lib.appservice.deploy.BlockBlobUploader;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.legacy.function.utils.DateUtils;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.net.URISyntaxException;
 import java.security.InvalidKeyException;
 import java.time.LocalDateTime;
@@ -39,9 +38,9 @@ public class AzureStorageHelper {
             blobContainer.createIfNotExists(accessType, null, null);
 
             final CloudBlockBlob blob = blobContainer.getBlockBlobReference(blobName);
-            blob.upload(new FileInputStream(fileToUpload), fileToUpload.length());
+            new BlockBlobUploader(BlockBlobUploader.store(blob)).upload(fileToUpload);
             return blob;
-        } catch (URISyntaxException | StorageException | IOException e) {
+        } catch (URISyntaxException | StorageException e) {
             throw new AzureExecutionException(FAIL_TO_UPLOAD_BLOB, e);
         }
     }
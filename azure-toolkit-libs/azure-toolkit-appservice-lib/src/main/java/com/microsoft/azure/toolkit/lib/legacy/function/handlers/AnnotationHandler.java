@@ -8,16 +8,25 @@ package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-public interface AnnotationHandler {
+public interface AnnotationHandler extends Closeable {
     Set<Method> findFunctions(final List<URL> urls);
 
     Map<String, FunctionConfiguration> generateConfigurations(final Set<Method> methods) throws AzureExecutionException;
 
     FunctionConfiguration generateConfiguration(final Method method) throws AzureExecutionException;
+
+    /**
+     * release resources (e.g. class loaders) of the functions found, call it after their configurations are generated.
+     */
+    @Override
+    default void close() throws IOException {
+    }
 }
@@ -7,6 +7,7 @@ package com.microsoft.azure.toolkit.lib.legacy.function.handlers;
 
 import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionAnnotation;
 import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionMethod;
+import com.microsoft.azure.toolkit.lib.appservice.function.impl.BytecodeFunctionScanner;
 import com.microsoft.azure.toolkit.lib.appservice.function.impl.DefaultFunctionProject;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
@@ -18,22 +19,26 @@ import com.microsoft.azure.toolkit.lib.legacy.function.configurations.Retry;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.reflections.Reflections;
-import org.reflections.scanners.Scanners;
-import org.reflections.util.ConfigurationBuilder;
+import org.objectweb.asm.Type;
 
+import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunctionsAnnotationConstants.EXPONENTIAL_BACKOFF_RETRY;
 import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunctionsAnnotationConstants.FIXED_DELAY_RETRY;
@@ -47,21 +52,72 @@ public class AnnotationHandlerImpl implements AnnotationHandler {
     private static final String MULTI_RETRY_ANNOTATION = "Fixed delay retry and exponential backoff retry are not compatible, " +
         "please use either of them for one trigger";
 
+    private final List<URLClassLoader> classLoaders = new ArrayList<>();
+
+    /**
+     * find functions by reading the bytecode of classes directories in {@code urls} (or all of them if there is no
+     * directory, e.g. a shaded jar), only classes declaring functions are loaded.
+     */
     @Override
     public Set<Method> findFunctions(final List<URL> urls) {
+        final Set<Method> methods = new HashSet<>();
         try {
+            final List<File> files = new ArrayList<>();
+            for (final URL url : urls) {
+                files.add(new File(url.toURI()));
+            }
+            final List<File> directories = files.stream().filter(File::isDirectory).collect(Collectors.toList());
             final ClassLoader classLoader = getClassLoader(urls);
-            final Class<?> functionNameAnnotation = ClassUtils.getClass(classLoader, FUNCTION_NAME);
-            final ConfigurationBuilder builder = new ConfigurationBuilder().addUrls(urls).setScanners(Scanners.MethodsAnnotated).addClassLoaders(classLoader);
-            return new Reflections(builder).getMethodsAnnotatedWith((Class<? extends Annotation>) functionNameAnnotation);
-        } catch (ClassNotFoundException e) {
+            try (final BytecodeFunctionScanner scanner = new BytecodeFunctionScanner(files)) {
+                for (final File location : directories.isEmpty() ? files : directories) {
+                    for (final BytecodeFunctionScanner.MethodSignature signature : scanner.findAnnotatedMethodSignatures(location)) {
+                        final Class<?> clazz = ClassUtils.getClass(classLoader, signature.getClassName(), false);
+                        Arrays.stream(clazz.getDeclaredMethods())
+                            .filter(m -> m.getName().equals(signature.getName()) && Type.getMethodDescriptor(m).equals(signature.getDescriptor()))
+                            .forEach(methods::add);
+                    }
+                }
+            }
+        } catch (ClassNotFoundException | URISyntaxException | IOException e) {
             throw new AzureToolkitRuntimeException(e);
         }
+        return methods;
     }
 
     protected ClassLoader getClassLoader(final List<URL> urlList) {
         final URL[] urlArray = urlList.toArray(new URL[0]);
-        return new URLClassLoader(urlArray, this.getClass().getClassLoader());
+        final URLClassLoader classLoader = new URLClassLoader(urlArray, this.getClass().getClassLoader());
+        synchronized (this.classLoaders) {
+            this.classLoaders.add(classLoader);
+        }
+        return classLoader;
+    }
+
+    /**
+     * close class loaders of the functions found, so that their jars are released.
+     */
+    @Override
+    public void close() throws IOException {
+        final List<URLClassLoader> loaders;
+        synchronized (this.classLoaders) {
+            loaders = new ArrayList<>(this.classLoaders);
+            this.classLoaders.clear();
+        }
+        IOException error = null;
+        for (final URLClassLoader loader : loaders) {
+            try {
+                loader.close();
+            } catch (final IOException e) {
+                if (error == null) {
+                    error = e;
+                } else {
+                    error.addSuppressed(e);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
     }
 
     @Override
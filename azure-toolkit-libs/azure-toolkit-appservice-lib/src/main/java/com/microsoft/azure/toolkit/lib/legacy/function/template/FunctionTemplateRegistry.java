@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * function templates (templates.json) and binding templates (bindings.json) bundled in this library, parsed once and
+ * indexed by name and type. callers get copies of the parsed templates, so that they can't modify the shared ones.
+ */
+public class FunctionTemplateRegistry {
+    private static final String TEMPLATES_JSON = "/templates.json";
+    private static final String BINDINGS_JSON = "/bindings.json";
+    private static FunctionTemplateRegistry instance;
+
+    private final List<FunctionTemplate> templates;
+    private final Map<String, FunctionTemplate> templatesByName;
+    private final Map<String, BindingTemplate> bindingsByType;
+
+    FunctionTemplateRegistry(@Nonnull List<FunctionTemplate> templates, @Nonnull List<BindingTemplate> bindings) {
+        templates.forEach(FunctionTemplateRegistry::freeze);
+        this.templates = Collections.unmodifiableList(new ArrayList<>(templates));
+        // the first one wins, the same as a linear search
+        final Map<String, FunctionTemplate> byName = new HashMap<>();
+        templates.stream().filter(t -> Objects.nonNull(t.getMetadata()) && Objects.nonNull(t.getMetadata().getName()))
+            .forEach(t -> byName.putIfAbsent(normalize(t.getMetadata().getName()), t));
+        this.templatesByName = Collections.unmodifiableMap(byName);
+        final Map<String, BindingTemplate> byType = new HashMap<>();
+        bindings.stream().filter(b -> Objects.nonNull(b.getType())).forEach(b -> byType.putIfAbsent(b.getType(), b));
+        this.bindingsByType = Collections.unmodifiableMap(byType);
+    }
+
+    /**
+     * @return the registry of bundled templates, which are loaded on the first call only.
+     */
+    @Nonnull
+    public static synchronized FunctionTemplateRegistry getInstance() throws IOException {
+        if (instance == null) {
+            final ObjectMapper mapper = new ObjectMapper();
+            try (final InputStream templates = open(TEMPLATES_JSON); final InputStream bindings = open(BINDINGS_JSON)) {
+                final FunctionTemplates functionTemplates = mapper.readValue(templates, FunctionTemplates.class);
+                final BindingsTemplate bindingsTemplate = mapper.readValue(bindings, BindingsTemplate.class);
+                instance = new FunctionTemplateRegistry(
+                    Optional.ofNullable(functionTemplates.getTemplates()).orElse(Collections.emptyList()),
+                    Arrays.asList(Optional.ofNullable(bindingsTemplate.getBindings()).orElse(new BindingTemplate[0])));
+            }
+        }
+        return instance;
+    }
+
+    @Nonnull
+    public List<FunctionTemplate> getTemplates() {
+        return templates.stream().map(FunctionTemplateRegistry::copy).collect(Collectors.toList());
+    }
+
+    /**
+     * @param name name of the template, case-insensitive
+     */
+    @Nullable
+    public FunctionTemplate getTemplate(@Nonnull String name) {
+        return Optional.ofNullable(templatesByName.get(normalize(name))).map(FunctionTemplateRegistry::copy).orElse(null);
+    }
+
+    @Nullable
+    public BindingTemplate getBindingTemplate(@Nonnull String type) {
+        return Optional.ofNullable(bindingsByType.get(type)).map(FunctionTemplateRegistry::copy).orElse(null);
+    }
+
+    @Nonnull
+    private static InputStream open(@Nonnull String resource) throws IOException {
+        final InputStream stream = FunctionTemplateRegistry.class.getResourceAsStream(resource);
+        if (stream == null) {
+            throw new IOException(String.format("resource %s is not found", resource));
+        }
+        return stream;
+    }
+
+    private static void freeze(@Nonnull FunctionTemplate template) {
+        Optional.ofNullable(template.getFiles()).ifPresent(files -> template.setFiles(Collections.unmodifiableMap(files)));
+        Optional.ofNullable(template.getMetadata()).map(TemplateMetadata::getUserPrompt)
+            .ifPresent(prompts -> template.getMetadata().setUserPrompt(Collections.unmodifiableList(prompts)));
+    }
+
+    /**
+     * unmodifiable collections frozen on loading are shared by the copies.
+     */
+    @Nonnull
+    private static FunctionTemplate copy(@Nonnull FunctionTemplate template) {
+        final FunctionTemplate result = new FunctionTemplate();
+        result.setFunction(template.getFunction());
+        result.setFiles(template.getFiles());
+        Optional.ofNullable(template.getMetadata()).ifPresent(metadata -> {
+            final TemplateMetadata copied = new TemplateMetadata();
+            copied.setName(metadata.getName());
+            copied.setLanguage(metadata.getLanguage());
+            copied.setUserPrompt(metadata.getUserPrompt());
+            result.setMetadata(copied);
+        });
+        return result;
+    }
+
+    @Nonnull
+    private static BindingTemplate copy(@Nonnull BindingTemplate binding) {
+        final BindingTemplate result = new BindingTemplate();
+        result.setType(binding.getType());
+        result.setDisplayName(binding.getDisplayName());
+        result.setDirection(binding.getDirection());
+        result.setEnabledInTryMode(binding.isEnabledInTryMode());
+        Optional.ofNullable(binding.getSettings()).ifPresent(settings -> result.setSettings(Arrays.stream(settings)
+            .map(FunctionTemplateRegistry::copy).toArray(FunctionSettingTemplate[]::new)));
+        return result;
+    }
+
+    @Nonnull
+    private static FunctionSettingTemplate copy(@Nonnull FunctionSettingTemplate setting) {
+        final FunctionSettingTemplate result = new FunctionSettingTemplate();
+        result.setName(setting.getName());
+        result.setValue(setting.getValue());
+        result.setDefaultValue(setting.getDefaultValue());
+        result.setRequired(setting.isRequired());
+        result.setLabel(setting.getLabel());
+        result.setHelp(setting.getHelp());
+        Optional.ofNullable(setting.getValidators()).ifPresent(validators -> result.setValidators(Arrays.stream(validators).map(v -> {
+            final ValidatorTemplate validator = new ValidatorTemplate();
+            validator.setExpression(v.getExpression());
+            validator.setErrorText(v.getErrorText());
+            return validator;
+        }).toArray(ValidatorTemplate[]::new)));
+        return result;
+    }
+
+    @Nonnull
+    private static String normalize(@Nonnull String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -17,6 +17,8 @@ import java.util.List;
 public class TemplateMetadata {
     private String name;
 
+    private String language;
+
     private List<String> userPrompt;
 
     @JsonGetter
@@ -29,6 +31,16 @@ public class TemplateMetadata {
         this.name = name;
     }
 
+    @JsonGetter
+    public String getLanguage() {
+        return language;
+    }
+
+    @JsonSetter
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
     @JsonGetter
     public List<String> getUserPrompt() {
         return userPrompt;
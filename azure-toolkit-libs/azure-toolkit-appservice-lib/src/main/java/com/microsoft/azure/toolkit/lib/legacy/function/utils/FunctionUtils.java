@@ -5,20 +5,15 @@
 
 package com.microsoft.azure.toolkit.lib.legacy.function.utils;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionExtensionVersion;
 import com.microsoft.azure.toolkit.lib.legacy.function.template.BindingTemplate;
-import com.microsoft.azure.toolkit.lib.legacy.function.template.BindingsTemplate;
 import com.microsoft.azure.toolkit.lib.legacy.function.template.FunctionTemplate;
-import com.microsoft.azure.toolkit.lib.legacy.function.template.FunctionTemplates;
-import org.apache.commons.io.IOUtils;
+import com.microsoft.azure.toolkit.lib.legacy.function.template.FunctionTemplateRegistry;
 import org.apache.commons.lang3.StringUtils;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 
@@ -37,11 +32,8 @@ public class FunctionUtils {
     }
 
     public static BindingTemplate loadBindingTemplate(String type) {
-        try (final InputStream is = FunctionUtils.class.getResourceAsStream("/bindings.json")) {
-            final String bindingsJsonStr = IOUtils.toString(is, StandardCharsets.UTF_8);
-            final BindingsTemplate bindingsTemplate = new ObjectMapper()
-                    .readValue(bindingsJsonStr, BindingsTemplate.class);
-            return bindingsTemplate.getBindingTemplateByName(type);
+        try {
+            return FunctionTemplateRegistry.getInstance().getBindingTemplate(type);
         } catch (IOException e) {
             AzureMessager.getMessager().warning(LOAD_BINDING_TEMPLATES_FAIL);
             // Add task should work without Binding Template, just return null if binding load fail
@@ -50,17 +42,24 @@ public class FunctionUtils {
     }
 
     public static List<FunctionTemplate> loadAllFunctionTemplates() throws AzureExecutionException {
-        try (final InputStream is = FunctionUtils.class.getResourceAsStream("/templates.json")) {
-            final String templatesJsonStr = IOUtils.toString(is, StandardCharsets.UTF_8);
-            return parseTemplateJson(templatesJsonStr);
+        try {
+            return FunctionTemplateRegistry.getInstance().getTemplates();
         } catch (Exception e) {
             AzureMessager.getMessager().error(LOAD_TEMPLATES_FAIL);
             throw new AzureExecutionException(LOAD_TEMPLATES_FAIL, e);
         }
     }
 
-    private static List<FunctionTemplate> parseTemplateJson(final String templateJson) throws IOException {
-        final FunctionTemplates templates = new ObjectMapper().readValue(templateJson, FunctionTemplates.class);
-        return templates.getTemplates();
+    /**
+     * @param name name of the template, case-insensitive
+     * @return null if there is no such template
+     */
+    public static FunctionTemplate loadFunctionTemplate(String name) throws AzureExecutionException {
+        try {
+            return FunctionTemplateRegistry.getInstance().getTemplate(name);
+        } catch (Exception e) {
+            AzureMessager.getMessager().error(LOAD_TEMPLATES_FAIL);
+            throw new AzureExecutionException(LOAD_TEMPLATES_FAIL, e);
+        }
     }
 }
@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nonnull;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BlockBlobUploaderTest {
+    private static final int BLOCK_SIZE = 1024;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private File journal;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws IOException {
+        content = new byte[BLOCK_SIZE * 10 + 100];
+        new Random(42).nextBytes(content);
+        file = folder.newFile("package.zip");
+        Files.write(file.toPath(), content);
+        journal = new File(folder.getRoot(), "package.zip.journal");
+    }
+
+    @Test
+    public void uploadBlocksConcurrently() {
+        final InMemoryBlockStore store = new InMemoryBlockStore((attempt, index) -> false);
+
+        uploader(store).upload(file, journal);
+
+        assertArrayEquals(content, store.getCommitted());
+        assertEquals(11, store.staged.size());
+        assertEquals(1, store.commits.get());
+        assertTrue(store.peak.get() > 1);
+        assertFalse(journal.exists());
+    }
+
+    @Test
+    public void retryFailedBlocks() {
+        final InMemoryBlockStore store = new InMemoryBlockStore((attempt, index) -> attempt == 1 && index % 3 == 0);
+
+        uploader(store).upload(file, journal);
+
+        assertArrayEquals(content, store.getCommitted());
+        assertEquals(15, store.stages.get());
+    }
+
+    @Test
+    public void rejectCorruptedBlocks() {
+        final InMemoryBlockStore store = new InMemoryBlockStore((attempt, index) -> false);
+        store.corrupt = (attempt, index) -> attempt == 1 && index == 4;
+
+        uploader(store).upload(file, journal);
+
+        assertArrayEquals(content, store.getCommitted());
+        assertEquals(12, store.stages.get());
+    }
+
+    @Test
+    public void resumeInterruptedUpload() {
+        final InMemoryBlockStore store = new InMemoryBlockStore((attempt, index) -> index == 5);
+        try {
+            uploader(store).upload(file, journal);
+            fail("upload should fail.");
+        } catch (final AzureToolkitRuntimeException e) {
+            // expected
+        }
+        assertEquals(0, store.commits.get());
+        assertTrue(journal.exists());
+
+        store.failure = (attempt, index) -> false;
+        store.stages.set(0);
+        uploader(store).upload(file, journal);
+
+        assertEquals(1, store.stages.get());
+        assertArrayEquals(content, store.getCommitted());
+        assertFalse(journal.exists());
+    }
+
+    @Test
+    public void restartIfFileChanged() throws IOException {
+        final InMemoryBlockStore store = new InMemoryBlockStore((attempt, index) -> index == 5);
+        try {
+            uploader(store).upload(file, journal);
+            fail("upload should fail.");
+        } catch (final AzureToolkitRuntimeException e) {
+            // expected
+        }
+
+        content[0]++;
+        Files.write(file.toPath(), content);
+        store.failure = (attempt, index) -> false;
+        store.stages.set(0);
+        uploader(store).upload(file, journal);
+
+        assertEquals(11, store.stages.get());
+        assertArrayEquals(content, store.getCommitted());
+    }
+
+    @Test
+    public void resumeWithSameContentInAnotherFile() throws IOException {
+        final File journals = folder.newFolder("journals");
+        final InMemoryBlockStore store = new InMemoryBlockStore((attempt, index) -> index == 5);
+        try {
+            uploader(store, journals).upload(file);
+            fail("upload should fail.");
+        } catch (final AzureToolkitRuntimeException e) {
+            // expected
+        }
+        assertEquals(1, journals.list().length);
+
+        // packaged again to a new temp file
+        final File another = folder.newFile("azure-functions123.zip");
+        Files.write(another.toPath(), content);
+        store.failure = (attempt, index) -> false;
+        store.stages.set(0);
+        uploader(store, journals).upload(another);
+
+        assertEquals(1, store.stages.get());
+        assertArrayEquals(content, store.getCommitted());
+        assertEquals(0, journals.list().length);
+    }
+
+    @Test
+    public void restartForAnotherBlob() throws IOException {
+        final File journals = folder.newFolder("journals");
+        final InMemoryBlockStore store = new InMemoryBlockStore((attempt, index) -> index == 5);
+        try {
+            uploader(store, journals).upload(file);
+            fail("upload should fail.");
+        } catch (final AzureToolkitRuntimeException e) {
+            // expected
+        }
+
+        final InMemoryBlockStore another = new InMemoryBlockStore((attempt, index) -> false);
+        another.name = "another-blob";
+        uploader(another, journals).upload(file);
+
+        assertEquals(11, another.stages.get());
+        assertArrayEquals(content, another.getCommitted());
+        // the journal of the interrupted upload is kept
+        assertEquals(1, journals.list().length);
+    }
+
+    @Test
+    public void uploadEmptyFile() throws IOException {
+        final File empty = folder.newFile("empty.zip");
+        final InMemoryBlockStore store = new InMemoryBlockStore((attempt, index) -> false);
+
+        uploader(store).upload(empty, journal);
+
+        assertEquals(0, store.getCommitted().length);
+        assertEquals(1, store.commits.get());
+    }
+
+    private static BlockBlobUploader uploader(BlockBlobUploader.BlockStore store) {
+        final BlockBlobUploader uploader = new BlockBlobUploader(store);
+        uploader.setBlockSize(BLOCK_SIZE);
+        uploader.setParallelism(4);
+        uploader.setMaxAttempts(2);
+        uploader.setBackoff(Duration.ofMillis(1));
+        return uploader;
+    }
+
+    private static BlockBlobUploader uploader(BlockBlobUploader.BlockStore store, File journals) {
+        final BlockBlobUploader uploader = uploader(store);
+        uploader.setJournalDirectory(journals.toPath());
+        return uploader;
+    }
+
+    /**
+     * mimics the blob service: blocks are identified by base64 ids of the same length and rejected if their MD5 doesn't
+     * match, failures are injected by (attempt, block index).
+     */
+    private static class InMemoryBlockStore implements BlockBlobUploader.BlockStore {
+        private final Map<String, byte[]> staged = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> attempts = new ConcurrentHashMap<>();
+        private final AtomicInteger stages = new AtomicInteger();
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+        private final List<String> committed = new ArrayList<>();
+        private BiPredicate<Integer, Integer> failure;
+        private BiPredicate<Integer, Integer> corrupt = (attempt, index) -> false;
+        private String name = "blob";
+
+        private InMemoryBlockStore(BiPredicate<Integer, Integer> failure) {
+            this.failure = failure;
+        }
+
+        @Nonnull
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public void stageBlock(@Nonnull String blockId, @Nonnull byte[] content, @Nonnull String md5) {
+            final int index = Integer.parseInt(new String(Base64.getDecoder().decode(blockId)).split("-")[1]);
+            final int attempt = attempts.computeIfAbsent(blockId, id -> new AtomicInteger()).incrementAndGet();
+            stages.incrementAndGet();
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(10);
+                if (failure.test(attempt, index)) {
+                    throw new IllegalStateException("injected failure");
+                }
+                final byte[] received = content.clone();
+                if (corrupt.test(attempt, index)) {
+                    received[0]++;
+                }
+                if (!md5.equals(Base64.getEncoder().encodeToString(DigestUtils.md5(received)))) {
+                    throw new IllegalStateException("Md5Mismatch");
+                }
+                staged.put(blockId, received);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+        }
+
+        @Nonnull
+        @Override
+        public Set<String> listUncommittedBlocks() {
+            return staged.keySet();
+        }
+
+        @Override
+        public void commitBlockList(@Nonnull List<String> blockIds) {
+            assertTrue(staged.keySet().containsAll(blockIds));
+            commits.incrementAndGet();
+            committed.clear();
+            committed.addAll(blockIds);
+        }
+
+        private byte[] getCommitted() {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            committed.forEach(id -> output.write(staged.get(id), 0, staged.get(id).length));
+            return output.toByteArray();
+        }
+    }
+}
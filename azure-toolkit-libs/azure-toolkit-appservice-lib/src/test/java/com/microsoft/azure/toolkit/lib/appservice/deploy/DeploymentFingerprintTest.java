@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class DeploymentFingerprintTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown() {
+        System.clearProperty(DeploymentFingerprint.SKIP_UNCHANGED_PROPERTY);
+    }
+
+    @Test
+    public void fingerprintIsStable() throws IOException {
+        final File staging = createStagingDirectory();
+        final String hash = new DeploymentFingerprint().add(staging).getHash();
+
+        assertEquals(hash, new DeploymentFingerprint().add(staging).getHash());
+        FileUtils.write(new File(staging, "lib/a.jar"), "changed", StandardCharsets.UTF_8);
+        assertNotEquals(hash, new DeploymentFingerprint().add(staging).getHash());
+    }
+
+    @Test
+    public void fingerprintIgnoresExcludedFiles() throws IOException {
+        final File staging = createStagingDirectory();
+        final String hash = new DeploymentFingerprint().add(staging, "local.settings.json"::equals).getHash();
+
+        FileUtils.write(new File(staging, "local.settings.json"), "{\"IsEncrypted\": true}", StandardCharsets.UTF_8);
+        assertEquals(hash, new DeploymentFingerprint().add(staging, "local.settings.json"::equals).getHash());
+    }
+
+    @Test
+    public void fingerprintDependsOnPaths() throws IOException {
+        final File staging = createStagingDirectory();
+        final String hash = new DeploymentFingerprint().add(staging).getHash();
+
+        FileUtils.moveFile(new File(staging, "lib/a.jar"), new File(staging, "lib/c.jar"));
+        assertNotEquals(hash, new DeploymentFingerprint().add(staging).getHash());
+    }
+
+    @Test
+    public void deployUnchangedContentByDefault() throws IOException {
+        final File staging = createStagingDirectory();
+        final AtomicReference<String> marker = new AtomicReference<>();
+        final AppServiceAppBase<?, ?, ?> app = mockApp(marker);
+        final AtomicInteger uploads = new AtomicInteger();
+
+        assertTrue(DeploymentFingerprint.deployIfChanged(app, () -> new DeploymentFingerprint().add(staging).getHash(), uploads::incrementAndGet));
+        assertTrue(DeploymentFingerprint.deployIfChanged(app, () -> new DeploymentFingerprint().add(staging).getHash(), uploads::incrementAndGet));
+        assertEquals(2, uploads.get());
+        assertNull(marker.get());
+    }
+
+    @Test
+    public void skipUnchangedDeployments() throws IOException {
+        final File staging = createStagingDirectory();
+        final AtomicReference<String> marker = new AtomicReference<>();
+        final AppServiceAppBase<?, ?, ?> app = mockApp(marker);
+        final AtomicInteger uploads = new AtomicInteger();
+        System.setProperty(DeploymentFingerprint.SKIP_UNCHANGED_PROPERTY, "true");
+
+        assertTrue(DeploymentFingerprint.deployIfChanged(app, () -> new DeploymentFingerprint().add(staging).getHash(), uploads::incrementAndGet));
+        assertFalse(DeploymentFingerprint.deployIfChanged(app, () -> new DeploymentFingerprint().add(staging).getHash(), uploads::incrementAndGet));
+        assertEquals(1, uploads.get());
+
+        FileUtils.write(new File(staging, "host.json"), "{\"version\": \"2.0\"}", StandardCharsets.UTF_8);
+        assertTrue(DeploymentFingerprint.deployIfChanged(app, () -> new DeploymentFingerprint().add(staging).getHash(), uploads::incrementAndGet));
+        assertEquals(2, uploads.get());
+
+        System.setProperty(DeploymentFingerprint.SKIP_UNCHANGED_PROPERTY, "false");
+        assertTrue(DeploymentFingerprint.deployIfChanged(app, () -> new DeploymentFingerprint().add(staging).getHash(), uploads::incrementAndGet));
+        assertEquals(3, uploads.get());
+    }
+
+    @Test
+    public void keepFingerprintOfFailedDeployment() throws IOException {
+        final File staging = createStagingDirectory();
+        final AtomicReference<String> marker = new AtomicReference<>("previous");
+        final AppServiceAppBase<?, ?, ?> app = mockApp(marker);
+        System.setProperty(DeploymentFingerprint.SKIP_UNCHANGED_PROPERTY, "true");
+        try {
+            DeploymentFingerprint.deployIfChanged(app, () -> new DeploymentFingerprint().add(staging).getHash(), () -> {
+                throw new IllegalStateException("expected");
+            });
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+        assertEquals("previous", marker.get());
+    }
+
+    private File createStagingDirectory() throws IOException {
+        final File staging = folder.newFolder();
+        FileUtils.write(new File(staging, "host.json"), "{}", StandardCharsets.UTF_8);
+        FileUtils.write(new File(staging, "lib/a.jar"), "a", StandardCharsets.UTF_8);
+        FileUtils.write(new File(staging, "lib/b.jar"), "b", StandardCharsets.UTF_8);
+        return staging;
+    }
+
+    private static AppServiceAppBase<?, ?, ?> mockApp(AtomicReference<String> marker) {
+        final AppServiceAppBase<?, ?, ?> app = mock(AppServiceAppBase.class);
+        when(app.getFileContent(eq(DeploymentFingerprint.MARKER_PATH))).thenAnswer(invocation -> marker.get() == null ?
+            Flux.error(new IllegalStateException("404")) : Flux.just(ByteBuffer.wrap(marker.get().getBytes(StandardCharsets.UTF_8))));
+        doAnswer(invocation -> {
+            marker.set(invocation.getArgument(0));
+            return null;
+        }).when(app).uploadFileToPath(anyString(), eq(DeploymentFingerprint.MARKER_PATH));
+        return app;
+    }
+}
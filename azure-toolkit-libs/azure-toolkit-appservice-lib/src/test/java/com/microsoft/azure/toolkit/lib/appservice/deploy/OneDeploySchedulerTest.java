@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import com.azure.core.exception.HttpResponseException;
+import com.azure.core.http.HttpResponse;
+import com.microsoft.azure.toolkit.lib.appservice.model.DeployType;
+import com.microsoft.azure.toolkit.lib.appservice.model.WebAppArtifact;
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.junit.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class OneDeploySchedulerTest {
+
+    @Test
+    public void deployPrimaryPackageLast() {
+        final List<WebAppArtifact> artifacts = new ArrayList<>();
+        artifacts.add(artifact("app.war", DeployType.WAR));
+        for (int i = 0; i < 8; i++) {
+            artifacts.add(artifact("lib" + i + ".jar", DeployType.JAR_LIB));
+        }
+        artifacts.add(artifact("index.html", DeployType.STATIC));
+        final RecordingDeployer deployer = new RecordingDeployer(0);
+
+        new OneDeployScheduler(3, 1, Duration.ZERO).deploy(artifacts, deployer);
+
+        assertEquals(artifacts.size(), deployer.calls.size());
+        assertEquals("app.war", deployer.calls.get(deployer.calls.size() - 1));
+        assertEquals(1, deployer.restarts.size());
+        assertEquals("app.war", deployer.restarts.get(0));
+        assertTrue(deployer.peak.get() > 1);
+        assertTrue(deployer.peak.get() <= 3);
+    }
+
+    @Test
+    public void restartOnLastArtifactIfNoPackage() {
+        final List<WebAppArtifact> artifacts = new ArrayList<>();
+        artifacts.add(artifact("startup.sh", DeployType.SCRIPT_STARTUP));
+        artifacts.add(artifact("index.html", DeployType.STATIC));
+        final RecordingDeployer deployer = new RecordingDeployer(0);
+
+        new OneDeployScheduler().deploy(artifacts, deployer);
+
+        assertEquals("index.html", deployer.calls.get(1));
+        assertEquals(1, deployer.restarts.size());
+        assertEquals("index.html", deployer.restarts.get(0));
+    }
+
+    @Test
+    public void deployOneAtATimeByDefault() {
+        final List<WebAppArtifact> artifacts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            artifacts.add(artifact("lib" + i + ".jar", DeployType.JAR_LIB));
+        }
+        artifacts.add(artifact("app.jar", DeployType.JAR));
+        final RecordingDeployer deployer = new RecordingDeployer(0);
+
+        new OneDeployScheduler().deploy(artifacts, deployer);
+
+        assertEquals(artifacts.size(), deployer.calls.size());
+        assertEquals(1, deployer.peak.get());
+    }
+
+    @Test
+    public void retryConflictsBeyondMaxAttempts() {
+        final List<WebAppArtifact> artifacts = new ArrayList<>();
+        artifacts.add(artifact("app.jar", DeployType.JAR));
+        final RecordingDeployer deployer = new RecordingDeployer(5, conflict());
+
+        new OneDeployScheduler(1, 2, Duration.ofMillis(1), Duration.ofMillis(1), Duration.ofMinutes(1)).deploy(artifacts, deployer);
+
+        assertEquals(Integer.valueOf(6), deployer.attempts.get("app.jar"));
+        assertEquals(1, deployer.restarts.size());
+    }
+
+    @Test
+    public void failOnConflictTimeout() {
+        final List<WebAppArtifact> artifacts = new ArrayList<>();
+        artifacts.add(artifact("app.jar", DeployType.JAR));
+        final RecordingDeployer deployer = new RecordingDeployer(Integer.MAX_VALUE, conflict());
+        try {
+            new OneDeployScheduler(1, 2, Duration.ofMillis(1), Duration.ofMillis(1), Duration.ZERO).deploy(artifacts, deployer);
+            fail("deployment should fail.");
+        } catch (final AzureToolkitRuntimeException e) {
+            // expected
+        }
+        // conflicts beyond the timeout are retried as other failures
+        assertEquals(Integer.valueOf(2), deployer.attempts.get("app.jar"));
+    }
+
+    @Test
+    public void retryFailedArtifacts() {
+        final List<WebAppArtifact> artifacts = new ArrayList<>();
+        artifacts.add(artifact("lib.jar", DeployType.JAR_LIB));
+        artifacts.add(artifact("app.jar", DeployType.JAR));
+        final RecordingDeployer deployer = new RecordingDeployer(2);
+
+        new OneDeployScheduler(2, 3, Duration.ofMillis(1)).deploy(artifacts, deployer);
+
+        assertEquals(Integer.valueOf(3), deployer.attempts.get("lib.jar"));
+        assertEquals(Integer.valueOf(3), deployer.attempts.get("app.jar"));
+        assertEquals("app.jar", deployer.calls.get(1));
+    }
+
+    @Test
+    public void skipPrimaryPackageIfOthersFailed() {
+        final List<WebAppArtifact> artifacts = new ArrayList<>();
+        artifacts.add(artifact("lib.jar", DeployType.JAR_LIB));
+        artifacts.add(artifact("app.jar", DeployType.JAR));
+        final RecordingDeployer deployer = new RecordingDeployer(Integer.MAX_VALUE);
+        try {
+            new OneDeployScheduler(2, 2, Duration.ofMillis(1)).deploy(artifacts, deployer);
+            fail("deployment should fail.");
+        } catch (final AzureToolkitRuntimeException e) {
+            // expected
+        }
+        assertEquals(Integer.valueOf(2), deployer.attempts.get("lib.jar"));
+        assertFalse(deployer.attempts.containsKey("app.jar"));
+    }
+
+    private static RuntimeException conflict() {
+        final HttpResponse response = mock(HttpResponse.class);
+        when(response.getStatusCode()).thenReturn(409);
+        return new HttpResponseException("There is a deployment currently in progress.", response);
+    }
+
+    private static WebAppArtifact artifact(String name, DeployType type) {
+        return WebAppArtifact.builder().file(new File(name)).deployType(type).build();
+    }
+
+    private static class RecordingDeployer implements OneDeployScheduler.Deployer {
+        private final int failures;
+        private final RuntimeException failure;
+        private final List<String> calls = new CopyOnWriteArrayList<>();
+        private final List<String> restarts = new CopyOnWriteArrayList<>();
+        private final Map<String, Integer> attempts = new ConcurrentHashMap<>();
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger peak = new AtomicInteger();
+
+        private RecordingDeployer(int failures) {
+            this(failures, new IllegalStateException("injected failure"));
+        }
+
+        private RecordingDeployer(int failures, RuntimeException failure) {
+            this.failures = failures;
+            this.failure = failure;
+        }
+
+        @Override
+        public void deploy(WebAppArtifact artifact, boolean restartSite) {
+            final String name = artifact.getFile().getName();
+            if (this.attempts.merge(name, 1, Integer::sum) <= this.failures) {
+                throw this.failure;
+            }
+            this.peak.accumulateAndGet(this.running.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.running.decrementAndGet();
+            this.calls.add(name);
+            if (restartSite) {
+                this.restarts.add(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PackageBlobCacheTest {
+    private static final String PREFIX = "subscriptions-xxx-resourceGroups-rg-providers-Microsoft.Web-sites-app-";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private InMemoryContainer container;
+
+    @Before
+    public void setUp() {
+        container = new InMemoryContainer();
+    }
+
+    @Test
+    public void reuseUploadedPackage() throws IOException {
+        final PackageBlobCache cache = new PackageBlobCache(container, PREFIX);
+        final File first = createPackage("package.zip", "v1");
+
+        final String name = cache.upload(first);
+        assertTrue(name.startsWith(PREFIX));
+        assertTrue(name.endsWith(DeploymentFingerprint.sha256(first) + ".zip"));
+        assertEquals(1, container.uploads.get());
+
+        // same content built again
+        assertEquals(name, cache.upload(createPackage("rebuilt.zip", "v1")));
+        assertEquals(1, container.uploads.get());
+
+        assertNotEquals(name, cache.upload(createPackage("changed.zip", "v2")));
+        assertEquals(2, container.uploads.get());
+    }
+
+    @Test
+    public void deletePackagesBeyondRetention() throws IOException {
+        final PackageBlobCache cache = new PackageBlobCache(container, PREFIX, 2);
+        String current = null;
+        for (int i = 0; i < 5; i++) {
+            current = cache.upload(createPackage("package.zip", "v" + i));
+        }
+        final List<String> uploaded = new ArrayList<>(container.blobs.keySet());
+
+        final List<String> deleted = cache.collectGarbage(current);
+
+        assertEquals(new HashSet<>(uploaded.subList(0, 3)), new HashSet<>(deleted));
+        assertEquals(2, container.blobs.size());
+        assertTrue(container.blobs.containsKey(current));
+        assertTrue(container.blobs.containsKey(uploaded.get(3)));
+    }
+
+    @Test
+    public void keepCurrentPackageEvenIfOldest() throws IOException {
+        final PackageBlobCache cache = new PackageBlobCache(container, PREFIX, 1);
+        final String oldest = cache.upload(createPackage("package.zip", "v0"));
+        cache.upload(createPackage("package.zip", "v1"));
+        cache.upload(createPackage("package.zip", "v2"));
+
+        // redeploy of the first package reuses the oldest blob
+        assertEquals(oldest, cache.upload(createPackage("package.zip", "v0")));
+        cache.collectGarbage(oldest);
+
+        assertEquals(1, container.blobs.size());
+        assertTrue(container.blobs.containsKey(oldest));
+    }
+
+    @Test
+    public void keepBlobsNotNamedByCache() throws IOException {
+        container.blobs.put(PREFIX + "package.zip", new Date(0)); // named by previous versions
+        container.blobs.put(PREFIX + "staging-" + repeat('a') + ".zip", new Date(0)); // another app with a longer name
+        final PackageBlobCache cache = new PackageBlobCache(container, PREFIX, 1);
+        final String current = cache.upload(createPackage("package.zip", "v1"));
+
+        assertTrue(cache.collectGarbage(current).isEmpty());
+        assertEquals(3, container.blobs.size());
+    }
+
+    @Test
+    public void ignoreGarbageCollectionFailures() throws IOException {
+        final PackageBlobCache cache = new PackageBlobCache(container, PREFIX, 1);
+        cache.upload(createPackage("package.zip", "v0"));
+        final String current = cache.upload(createPackage("package.zip", "v1"));
+        container.failDelete = true;
+
+        assertTrue(cache.collectGarbage(current).isEmpty());
+        assertFalse(container.blobs.isEmpty());
+    }
+
+    private File createPackage(String name, String content) throws IOException {
+        final File file = new File(folder.newFolder(), name);
+        FileUtils.write(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static String repeat(char c) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 64; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * mimics a blob container, blobs are listed with their last modified time.
+     */
+    private static class InMemoryContainer implements PackageBlobCache.Container {
+        private final Map<String, Date> blobs = new LinkedHashMap<>();
+        private final AtomicInteger uploads = new AtomicInteger();
+        private final AtomicInteger clock = new AtomicInteger();
+        private boolean failDelete = false;
+
+        @Override
+        public boolean exists(@Nonnull String blobName) {
+            return blobs.containsKey(blobName);
+        }
+
+        @Override
+        public void upload(@Nonnull File file, @Nonnull String blobName) {
+            uploads.incrementAndGet();
+            blobs.put(blobName, new Date(1000L * clock.incrementAndGet()));
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, Date> list(@Nonnull String prefix) {
+            return blobs.entrySet().stream().filter(e -> e.getKey().startsWith(prefix))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        }
+
+        @Override
+        public void delete(@Nonnull String blobName) {
+            if (failDelete) {
+                throw new IllegalStateException("injected failure");
+            }
+            blobs.remove(blobName);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.deploy;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+public class ZipPackagerTest {
+    private static final String LOCAL_SETTINGS_FILE = "local.settings.json";
+    private static final int JARS = 300;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File staging;
+    private final Map<String, byte[]> files = new HashMap<>();
+
+    @Before
+    public void setUp() throws IOException {
+        staging = folder.newFolder("staging");
+        final Random random = new Random(3);
+        for (int i = 0; i < JARS; i++) {
+            final byte[] jar = new byte[1024 + random.nextInt(64 * 1024)];
+            random.nextBytes(jar);
+            write(String.format("lib/dependency-%03d.jar", i), jar);
+        }
+        write("host.json", "{\"version\": \"2.0\"}".getBytes(StandardCharsets.UTF_8));
+        write("HttpTrigger-Java/function.json", "{\"bindings\": []}".getBytes(StandardCharsets.UTF_8));
+        write(LOCAL_SETTINGS_FILE, "{\"Values\": {\"secret\": \"xxx\"}}".getBytes(StandardCharsets.UTF_8));
+        // larger than the in-memory limit, written with a data descriptor
+        write("large.txt", StringUtils.repeat("compressible ", 512 * 1024).getBytes(StandardCharsets.UTF_8));
+        final byte[] largeJar = new byte[5 * 1024 * 1024];
+        random.nextBytes(largeJar);
+        write("lib/large.jar", largeJar);
+        assertTrue(new File(staging, "empty").mkdirs());
+    }
+
+    @Test
+    public void packDirectory() throws IOException {
+        final File zip = new File(folder.getRoot(), "package.zip");
+
+        new ZipPackager(LOCAL_SETTINGS_FILE::equals).pack(staging, zip);
+
+        try (final ZipFile zipFile = new ZipFile(zip)) {
+            int count = 0;
+            for (final Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements(); ) {
+                final ZipEntry entry = entries.nextElement();
+                count++;
+                if (entry.isDirectory()) {
+                    continue;
+                }
+                try (final InputStream input = zipFile.getInputStream(entry)) {
+                    assertArrayEquals(entry.getName(), files.get(entry.getName()), IOUtils.toByteArray(input));
+                }
+                if (entry.getName().endsWith(".jar") && entry.getSize() <= 4 * 1024 * 1024) {
+                    assertEquals(ZipEntry.STORED, entry.getMethod());
+                }
+            }
+            // files, lib/, HttpTrigger-Java/ and empty/
+            assertEquals(files.size() - 1 + 3, count);
+            assertNull(zipFile.getEntry(LOCAL_SETTINGS_FILE));
+            assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("host.json").getMethod());
+            assertTrue(zipFile.getEntry("large.txt").getCompressedSize() < zipFile.getEntry("large.txt").getSize() / 10);
+            assertTrue(zipFile.getEntry("empty/").isDirectory());
+        }
+    }
+
+    @Test
+    public void readLocalHeadersSequentially() throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new ZipPackager(LOCAL_SETTINGS_FILE::equals).pack(staging, output);
+
+        int count = 0;
+        try (final ZipInputStream input = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            for (ZipEntry entry = input.getNextEntry(); entry != null; entry = input.getNextEntry()) {
+                assertFalse(LOCAL_SETTINGS_FILE.equals(entry.getName()));
+                if (!entry.isDirectory()) {
+                    assertArrayEquals(entry.getName(), files.get(entry.getName()), IOUtils.toByteArray(input));
+                    count++;
+                }
+            }
+        }
+        assertEquals(files.size() - 1, count);
+    }
+
+    @Test
+    public void streamSameBytesAsFile() throws IOException {
+        final File zip = new File(folder.getRoot(), "package.zip");
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final ZipPackager packager = new ZipPackager(LOCAL_SETTINGS_FILE::equals);
+
+        packager.pack(staging, zip);
+        packager.pack(staging, output);
+
+        // written once, nothing is rewritten to remove excluded entries
+        assertArrayEquals(Files.readAllBytes(zip.toPath()), output.toByteArray());
+    }
+
+    @Test
+    public void packSequentiallyWithSingleThread() throws IOException {
+        final File zip = new File(folder.getRoot(), "package.zip");
+        final ZipPackager packager = new ZipPackager(LOCAL_SETTINGS_FILE::equals);
+        packager.setParallelism(1);
+
+        packager.pack(staging, zip);
+
+        try (final ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(files.size() - 1 + 3, zipFile.size());
+        }
+    }
+
+    @Test
+    public void packWithSmallBufferLimit() throws IOException {
+        final File zip = new File(folder.getRoot(), "package.zip");
+        final ZipPackager packager = new ZipPackager(LOCAL_SETTINGS_FILE::equals);
+        // smaller than most entries, which are then prepared one at a time
+        packager.setBufferLimit(1024);
+
+        packager.pack(staging, zip);
+
+        final File expected = new File(folder.getRoot(), "expected.zip");
+        new ZipPackager(LOCAL_SETTINGS_FILE::equals).pack(staging, expected);
+        assertArrayEquals(Files.readAllBytes(expected.toPath()), Files.readAllBytes(zip.toPath()));
+    }
+
+    @Test
+    public void keepUnixPermissions() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("posix"));
+        final File script = new File(staging, "run.sh");
+        FileUtils.writeStringToFile(script, "#!/bin/sh", StandardCharsets.UTF_8);
+        Files.setPosixFilePermissions(script.toPath(), PosixFilePermissions.fromString("rwxr-x---"));
+        Files.setPosixFilePermissions(new File(staging, "host.json").toPath(), PosixFilePermissions.fromString("rw-r--r--"));
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        new ZipPackager().pack(staging, output);
+
+        final Map<String, int[]> attributes = readCentralDirectory(output.toByteArray());
+        assertEquals(3, attributes.get("run.sh")[0] >> 8);
+        assertEquals(0100750, attributes.get("run.sh")[1] >>> 16);
+        assertEquals(0100644, attributes.get("host.json")[1] >>> 16);
+        assertEquals(0040000, (attributes.get("empty/")[1] >>> 16) & 0170000);
+        assertEquals(0x10, attributes.get("empty/")[1] & 0x10);
+    }
+
+    /**
+     * @return version made by and external attributes of entries in the central directory
+     */
+    private static Map<String, int[]> readCentralDirectory(byte[] zip) {
+        final ByteBuffer buffer = ByteBuffer.wrap(zip).order(ByteOrder.LITTLE_ENDIAN);
+        final int end = zip.length - 22; // no archive comment
+        assertEquals(0x06054b50, buffer.getInt(end));
+        final Map<String, int[]> entries = new HashMap<>();
+        for (int offset = buffer.getInt(end + 16); offset < end; ) {
+            assertEquals(0x02014b50, buffer.getInt(offset));
+            final int nameLength = buffer.getShort(offset + 28) & 0xffff;
+            final int extraLength = buffer.getShort(offset + 30) & 0xffff;
+            final int commentLength = buffer.getShort(offset + 32) & 0xffff;
+            final String name = new String(zip, offset + 46, nameLength, StandardCharsets.UTF_8);
+            entries.put(name, new int[]{buffer.getShort(offset + 4) & 0xffff, buffer.getInt(offset + 38)});
+            offset += 46 + nameLength + extraLength + commentLength;
+        }
+        return entries;
+    }
+
+    private void write(String path, byte[] content) throws IOException {
+        FileUtils.writeByteArrayToFile(new File(staging, path), content);
+        files.put(path, content);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.file;
+
+import com.azure.core.http.HttpHeaders;
+import com.azure.core.http.HttpPipeline;
+import com.azure.core.http.HttpPipelineBuilder;
+import com.azure.core.http.HttpRequest;
+import com.azure.core.http.HttpResponse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AppServiceKuduClientTest {
+    private static final String HOST = "https://app.scm.azurewebsites.net";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicInteger largestChunk = new AtomicInteger();
+    private final AtomicReference<HttpRequest> request = new AtomicReference<>();
+    private final AtomicReference<byte[]> head = new AtomicReference<>();
+
+    @Test
+    public void streamLargeFile() throws IOException {
+        final long size = 2L * 1024 * 1024 * 1024 + 7; // larger than the heap of the build, must never be loaded at once
+        final File file = folder.newFile("large.zip");
+        try (final RandomAccessFile sparse = new RandomAccessFile(file, "rw")) {
+            sparse.setLength(size);
+        }
+
+        AppServiceKuduClient.getClient(HOST, stubPipeline(), null).saveFile("site/wwwroot/large.zip", file.toPath());
+
+        assertEquals(size, received.get());
+        assertEquals(String.valueOf(size), request.get().getHeaders().getValue("Content-Length"));
+        assertEquals("application/octet-stream", request.get().getHeaders().getValue("Content-Type"));
+        assertTrue(request.get().getUrl().toString().endsWith("/api/vfs/site/wwwroot/large.zip"));
+        assertTrue(largestChunk.get() <= 64 * 1024);
+    }
+
+    @Test
+    public void streamBinaryContent() {
+        final byte[] content = new byte[256];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i; // includes bytes that are not valid utf-8
+        }
+
+        AppServiceKuduClient.getClient(HOST, stubPipeline(), null)
+            .saveFile("site/wwwroot/binary.bin", new ByteArrayInputStream(content), content.length);
+
+        assertEquals(content.length, received.get());
+        assertArrayEquals(content, head.get());
+    }
+
+    @Test
+    public void uploadBytesWithoutCharset() {
+        final byte[] content = {(byte) 0xff, (byte) 0xfe, 0, 1};
+
+        AppServiceKuduClient.getClient(HOST, stubPipeline(), null).uploadFileToPath(content, "data/azure-toolkit/sync/manifest.json");
+
+        assertEquals("application/octet-stream", request.get().getHeaders().getValue("Content-Type"));
+        assertArrayEquals(content, head.get());
+    }
+
+    /**
+     * consumes the request body chunk by chunk like a real http client, keeping only the first chunk.
+     */
+    private HttpPipeline stubPipeline() {
+        return new HttpPipelineBuilder().httpClient(req -> {
+            request.set(req);
+            return req.getBody().doOnNext(chunk -> {
+                largestChunk.accumulateAndGet(chunk.remaining(), Math::max);
+                if (head.get() == null) {
+                    final byte[] bytes = new byte[chunk.remaining()];
+                    chunk.duplicate().get(bytes);
+                    head.set(bytes);
+                }
+                received.addAndGet(chunk.remaining());
+            }).then(Mono.fromCallable(() -> new EmptyResponse(req)));
+        }).build();
+    }
+
+    private static class EmptyResponse extends HttpResponse {
+        private EmptyResponse(HttpRequest request) {
+            super(request);
+        }
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getHeaderValue(String name) {
+            return null;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return new HttpHeaders();
+        }
+
+        @Override
+        public Flux<ByteBuffer> getBody() {
+            return Flux.empty();
+        }
+
+        @Override
+        public Mono<byte[]> getBodyAsByteArray() {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<String> getBodyAsString() {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<String> getBodyAsString(Charset charset) {
+            return Mono.empty();
+        }
+    }
+}
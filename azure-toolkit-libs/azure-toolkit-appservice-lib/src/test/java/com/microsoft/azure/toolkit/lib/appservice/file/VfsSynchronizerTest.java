@@ -0,0 +1,234 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.file;
+
+import com.microsoft.azure.toolkit.lib.appservice.model.AppServiceFile;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Flux;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VfsSynchronizerTest {
+    private static final String REMOTE_ROOT = "site/wwwroot";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File local;
+    private InMemoryFileClient client;
+    private VfsSynchronizer synchronizer;
+
+    @Before
+    public void setUp() throws IOException {
+        local = folder.newFolder();
+        write("host.json", "{}");
+        write("lib/a.jar", "a");
+        write("lib/b.jar", "b");
+        write("HttpTrigger/function.json", "{\"bindings\":[]}");
+        client = new InMemoryFileClient();
+        synchronizer = new VfsSynchronizer(client);
+    }
+
+    @Test
+    public void uploadChangedFilesOnly() throws IOException {
+        VfsSynchronizer.Result result = synchronizer.sync(local, REMOTE_ROOT, null);
+        assertEquals(4, result.getChanged());
+        assertEquals(4, client.uploads.get());
+        assertArrayEquals("a".getBytes(StandardCharsets.UTF_8), client.files.get(REMOTE_ROOT + "/lib/a.jar"));
+
+        result = synchronizer.sync(local, REMOTE_ROOT, null);
+        assertEquals(0, result.getChanged());
+        assertEquals(4, client.uploads.get());
+
+        write("lib/a.jar", "changed");
+        result = synchronizer.sync(local, REMOTE_ROOT, null);
+        assertEquals(1, result.getChanged());
+        assertEquals(5, client.uploads.get());
+        assertArrayEquals("changed".getBytes(StandardCharsets.UTF_8), client.files.get(REMOTE_ROOT + "/lib/a.jar"));
+    }
+
+    @Test
+    public void uploadFilesChangedRemotely() {
+        synchronizer.sync(local, REMOTE_ROOT, null);
+        client.uploadFileToPath("modified on server", REMOTE_ROOT + "/host.json");
+        final int uploads = client.uploads.get();
+
+        final VfsSynchronizer.Result result = synchronizer.sync(local, REMOTE_ROOT, null);
+
+        assertEquals(1, result.getChanged());
+        assertEquals(uploads + 1, client.uploads.get());
+        assertArrayEquals("{}".getBytes(StandardCharsets.UTF_8), client.files.get(REMOTE_ROOT + "/host.json"));
+    }
+
+    @Test
+    public void fallbackIfMostFilesChanged() throws IOException {
+        synchronizer.sync(local, REMOTE_ROOT, null);
+        write("lib/a.jar", "a2");
+        write("lib/b.jar", "b2");
+        write("host.json", "{\"version\":\"2.0\"}");
+        final int uploads = client.uploads.get();
+        final AtomicInteger fallbacks = new AtomicInteger();
+
+        final VfsSynchronizer.Result result = synchronizer.sync(local, REMOTE_ROOT, fallbacks::incrementAndGet);
+
+        assertTrue(result.isFallenBack());
+        assertEquals(1, fallbacks.get());
+        assertEquals(uploads, client.uploads.get());
+    }
+
+    @Test
+    public void deleteOrphansIfEnabled() throws IOException {
+        synchronizer.sync(local, REMOTE_ROOT, null);
+        FileUtils.forceDelete(new File(local, "lib/b.jar"));
+
+        synchronizer.sync(local, REMOTE_ROOT, null);
+        assertTrue(client.files.containsKey(REMOTE_ROOT + "/lib/b.jar"));
+
+        synchronizer.setDeleteOrphans(true);
+        final VfsSynchronizer.Result result = synchronizer.sync(local, REMOTE_ROOT, null);
+        assertEquals(1, result.getDeleted());
+        assertFalse(client.files.containsKey(REMOTE_ROOT + "/lib/b.jar"));
+    }
+
+    @Test
+    public void keepToolkitFilesWhenDeletingOrphans() throws IOException {
+        // the remote root contains the manifest and the deployment fingerprint of the toolkit
+        client.createDirectory("data");
+        client.uploadFileToPath("fingerprint", VfsSynchronizer.TOOLKIT_DIRECTORY + "/deployment.sha256");
+        synchronizer.setDeleteOrphans(true);
+        synchronizer.sync(local, "data", null);
+        FileUtils.forceDelete(new File(local, "lib/b.jar"));
+
+        final VfsSynchronizer.Result result = synchronizer.sync(local, "data", null);
+
+        assertEquals(1, result.getDeleted());
+        assertFalse(client.files.containsKey("data/lib/b.jar"));
+        assertTrue(client.files.containsKey(VfsSynchronizer.TOOLKIT_DIRECTORY + "/deployment.sha256"));
+        assertTrue(client.files.keySet().stream().anyMatch(f -> f.startsWith(VfsSynchronizer.MANIFEST_DIRECTORY + "/")));
+    }
+
+    @Test
+    public void createMissingDirectories() {
+        synchronizer.sync(local, REMOTE_ROOT, null);
+
+        assertTrue(client.directories.contains(REMOTE_ROOT + "/lib"));
+        assertTrue(client.directories.contains(REMOTE_ROOT + "/HttpTrigger"));
+    }
+
+    private void write(String path, String content) throws IOException {
+        FileUtils.write(new File(local, path), content, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * mimics the kudu vfs api: listing directories returns size and mtime, putting a file creates missing parents.
+     */
+    private static class InMemoryFileClient implements IFileClient {
+        private final Map<String, byte[]> files = new ConcurrentHashMap<>();
+        private final Map<String, String> mtimes = new ConcurrentHashMap<>();
+        private final Set<String> directories = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger clock = new AtomicInteger();
+        private final AtomicInteger uploads = new AtomicInteger();
+
+        @Override
+        public Flux<ByteBuffer> getFileContent(String path) {
+            final byte[] content = files.get(path);
+            return content == null ? Flux.error(new IllegalStateException("404")) : Flux.just(ByteBuffer.wrap(content));
+        }
+
+        @Override
+        public List<? extends AppServiceFile> getFilesInDirectory(String dir) {
+            if (!directories.contains(dir)) {
+                throw new IllegalStateException("404");
+            }
+            final Stream<AppServiceFile> dirs = directories.stream().filter(d -> isChild(dir, d))
+                .map(d -> new AppServiceFile().withName(StringUtils.substringAfterLast(d, "/")).withMime("inode/directory"));
+            final Stream<AppServiceFile> children = files.keySet().stream().filter(f -> isChild(dir, f))
+                .map(f -> new AppServiceFile().withName(StringUtils.substringAfterLast(f, "/")).withSize(files.get(f).length)
+                    .withMtime(mtimes.get(f)).withMime("application/octet-stream"));
+            return Stream.concat(dirs, children).collect(Collectors.toList());
+        }
+
+        @Override
+        public AppServiceFile getFileByPath(String path) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void uploadFileToPath(String content, String path) {
+            uploadFileToPath(content.getBytes(StandardCharsets.UTF_8), path);
+        }
+
+        @Override
+        public void uploadFileToPath(byte[] content, String path) {
+            if (!path.startsWith(VfsSynchronizer.MANIFEST_DIRECTORY)) {
+                uploads.incrementAndGet();
+            }
+            for (String dir = StringUtils.substringBeforeLast(path, "/"); dir.contains("/"); dir = StringUtils.substringBeforeLast(dir, "/")) {
+                directories.add(dir);
+            }
+            files.put(path, content);
+            mtimes.put(path, String.valueOf(clock.incrementAndGet()));
+        }
+
+        @Override
+        public void saveFile(String path, Path file) {
+            try {
+                uploadFileToPath(Files.readAllBytes(file), path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void saveFile(String path, InputStream input, long length) {
+            try {
+                uploadFileToPath(IOUtils.toByteArray(input, length), path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void createDirectory(String path) {
+            directories.add(path);
+        }
+
+        @Override
+        public void deleteFile(String path) {
+            files.remove(path);
+            mtimes.remove(path);
+        }
+
+        private static boolean isChild(String dir, String path) {
+            return path.startsWith(dir + "/") && !path.substring(dir.length() + 1).contains("/");
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.function.core;
+
+import com.microsoft.azure.toolkit.lib.legacy.function.bindings.Binding;
+import com.microsoft.azure.toolkit.lib.legacy.function.bindings.BindingEnum;
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FunctionJsonWriterTest {
+    private static final int FUNCTIONS = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File staging;
+    private Map<String, FunctionConfiguration> configMap;
+
+    @Before
+    public void setUp() throws IOException {
+        staging = folder.newFolder("staging");
+        configMap = new TreeMap<>();
+        for (int i = 0; i < FUNCTIONS; i++) {
+            configMap.put("function-" + i, createConfiguration(i, BindingEnum.HttpTrigger));
+        }
+    }
+
+    @Test
+    public void writeChangedFilesOnly() throws IOException {
+        final Map<String, Boolean> first = writeAll();
+        assertEquals(FUNCTIONS, first.values().stream().filter(b -> b).count());
+        final File file = getFunctionJson("function-1");
+        assertEquals(new String(FunctionJsonWriter.getObjectWriter().writeValueAsBytes(configMap.get("function-1")), StandardCharsets.UTF_8),
+            FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(0));
+
+        configMap.get("function-2").setScriptFile("../other.jar");
+        final Map<String, Boolean> second = writeAll();
+
+        assertEquals(1, second.values().stream().filter(b -> b).count());
+        assertTrue(second.get("function-2"));
+        // unchanged files are not touched at all
+        assertEquals(0, file.lastModified());
+        assertTrue(FileUtils.readFileToString(getFunctionJson("function-2"), StandardCharsets.UTF_8).contains("../other.jar"));
+        // no temp file is left
+        for (final File directory : Objects.requireNonNull(staging.listFiles())) {
+            assertEquals(directory.getName(), 1, Objects.requireNonNull(directory.list()).length);
+        }
+    }
+
+    @Test
+    public void validateConcurrently() {
+        final AtomicInteger validated = new AtomicInteger();
+        configMap.replaceAll((name, config) -> new FunctionConfiguration() {
+            @Override
+            public void validate() {
+                validated.incrementAndGet();
+                super.validate();
+            }
+        });
+
+        FunctionJsonWriter.validate(configMap.values());
+        assertEquals(FUNCTIONS, validated.get());
+    }
+
+    @Test
+    public void rethrowValidationError() {
+        configMap.put("function-1", createConfiguration(1, BindingEnum.HttpTrigger, BindingEnum.QueueTrigger));
+        try {
+            FunctionJsonWriter.validate(configMap.values());
+            fail("validation should fail.");
+        } catch (final RuntimeException e) {
+            assertTrue(e.getMessage().startsWith(FunctionConfiguration.MULTIPLE_TRIGGER));
+        }
+    }
+
+    @Test
+    public void rethrowWriteError() throws IOException {
+        FileUtils.write(new File(staging, "function-3"), "not a directory", StandardCharsets.UTF_8);
+        try {
+            writeAll();
+            fail("write should fail.");
+        } catch (final IOException e) {
+            assertFalse(getFunctionJson("function-3").exists());
+        }
+    }
+
+    private Map<String, Boolean> writeAll() throws IOException {
+        final Map<String, Boolean> result = new ConcurrentHashMap<>();
+        FunctionJsonWriter.writeAll(configMap, (name, config) ->
+            result.put(name, FunctionJsonWriter.write(FunctionJsonWriter.getObjectWriter(), config, getFunctionJson(name))));
+        return result;
+    }
+
+    private File getFunctionJson(String name) {
+        return new File(new File(staging, name), "function.json");
+    }
+
+    private static FunctionConfiguration createConfiguration(int index, BindingEnum... triggers) {
+        final FunctionConfiguration config = new FunctionConfiguration();
+        config.setScriptFile("../app.jar");
+        config.setEntryPoint("com.example.Function" + index + ".run");
+        for (final BindingEnum trigger : triggers) {
+            final Binding binding = new Binding(trigger);
+            binding.setName("req");
+            binding.setAttribute("authLevel", "ANONYMOUS");
+            config.getBindings().add(binding);
+        }
+        final Binding output = new Binding(BindingEnum.HttpOutput);
+        output.setName("$return");
+        config.getBindings().add(output);
+        return config;
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.appservice.function.core;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StagingSynchronizerTest {
+    private static final int DEPENDENCIES = 400;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File repository;
+    private File staging;
+    private List<File> dependencies;
+
+    @Before
+    public void setUp() throws IOException {
+        repository = folder.newFolder("repository");
+        staging = new File(folder.getRoot(), "azure-functions/app");
+        dependencies = new ArrayList<>();
+        for (int i = 0; i < DEPENDENCIES; i++) {
+            final File jar = new File(repository, String.format("group-%d/artifact-%d.jar", i % 20, i));
+            FileUtils.write(jar, "content of dependency " + i, StandardCharsets.UTF_8);
+            dependencies.add(jar);
+        }
+    }
+
+    @Test
+    public void skipUnchangedDependencies() throws IOException {
+        final StagingSynchronizer synchronizer = new StagingSynchronizer();
+        final StagingSynchronizer.Result first = synchronizer.syncLibraries(dependencies, staging);
+        assertEquals(DEPENDENCIES, first.getLinked() + first.getCopied());
+        assertSameFiles();
+
+        final StagingSynchronizer.Result noop = synchronizer.syncLibraries(dependencies, staging);
+        assertEquals(0, noop.getLinked() + noop.getCopied());
+        assertEquals(0, noop.getBytesWritten());
+        assertEquals(0, noop.getDeleted());
+        // the manifest is not in the staging directory
+        assertEquals(Arrays.asList(StagingSynchronizer.LIB_FOLDER), Arrays.asList(Objects.requireNonNull(staging.list())));
+    }
+
+    @Test
+    public void stageChangedDependenciesOnly() throws IOException {
+        final StagingSynchronizer synchronizer = new StagingSynchronizer();
+        synchronizer.syncLibraries(dependencies, staging);
+        final File changed = dependencies.get(1);
+        FileUtils.write(changed, "new content of dependency", StandardCharsets.UTF_8);
+        final File removed = dependencies.remove(2);
+        final File added = new File(repository, "added.jar");
+        FileUtils.write(added, "added", StandardCharsets.UTF_8);
+        dependencies.add(added);
+        FileUtils.write(new File(staging, "lib/unknown.jar"), "unknown", StandardCharsets.UTF_8);
+
+        final StagingSynchronizer.Result result = synchronizer.syncLibraries(dependencies, staging);
+
+        assertEquals(2, result.getLinked() + result.getCopied());
+        assertEquals(2, result.getDeleted());
+        assertFalse(new File(staging, "lib/" + removed.getName()).exists());
+        assertFalse(new File(staging, "lib/unknown.jar").exists());
+        assertSameFiles();
+    }
+
+    @Test
+    public void skipTouchedDependencies() throws IOException {
+        final StagingSynchronizer synchronizer = new StagingSynchronizer();
+        synchronizer.setHardLink(false);
+        synchronizer.syncLibraries(dependencies, staging);
+        final File touched = dependencies.get(0);
+        assertTrue(touched.setLastModified(touched.lastModified() - 60000));
+        final File sameSize = dependencies.get(3);
+        FileUtils.write(sameSize, "content of dependency X", StandardCharsets.UTF_8);
+        assertTrue(sameSize.setLastModified(sameSize.lastModified() + 60000));
+
+        final StagingSynchronizer.Result result = synchronizer.syncLibraries(dependencies, staging);
+
+        // only the dependency whose content changed is copied, by comparing hashes
+        assertEquals(1, result.getCopied());
+        assertEquals(sameSize.length(), result.getBytesWritten());
+        assertSameFiles();
+        assertEquals(0, synchronizer.syncLibraries(dependencies, staging).getCopied());
+    }
+
+    @Test
+    public void copyWithoutHardLinks() throws IOException {
+        final StagingSynchronizer synchronizer = new StagingSynchronizer();
+        synchronizer.setHardLink(false);
+
+        final StagingSynchronizer.Result result = synchronizer.syncLibraries(dependencies, staging);
+
+        assertEquals(0, result.getLinked());
+        assertEquals(DEPENDENCIES, result.getCopied());
+        assertEquals(dependencies.stream().mapToLong(File::length).sum(), result.getBytesWritten());
+        assertSameFiles();
+    }
+
+    private void assertSameFiles() throws IOException {
+        final File lib = new File(staging, StagingSynchronizer.LIB_FOLDER);
+        assertEquals(dependencies.size(), Objects.requireNonNull(lib.list()).length);
+        for (final File dependency : dependencies) {
+            assertTrue(dependency.getName(), FileUtils.contentEquals(dependency, new File(lib, dependency.getName())));
+        }
+    }
+}
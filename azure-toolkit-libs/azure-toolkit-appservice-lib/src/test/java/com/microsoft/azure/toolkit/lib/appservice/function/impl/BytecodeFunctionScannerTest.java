@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+package com.microsoft.azure.toolkit.lib.appservice.function.impl;
+
+import com.microsoft.azure.functions.annotation.AuthorizationLevel;
+import com.microsoft.azure.functions.annotation.FunctionName;
+import com.microsoft.azure.functions.annotation.HttpTrigger;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunctionPackager;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionAnnotation;
+import com.microsoft.azure.toolkit.lib.appservice.function.core.FunctionMethod;
+import com.microsoft.azure.toolkit.lib.legacy.function.bindings.Binding;
+import com.microsoft.azure.toolkit.lib.legacy.function.configurations.FunctionConfiguration;
+import com.microsoft.azure.toolkit.lib.legacy.function.handlers.AnnotationHandlerImplTest;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+
+import static com.microsoft.azure.toolkit.lib.appservice.function.core.AzureFunctionsAnnotationConstants.CUSTOM_BINDING;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class BytecodeFunctionScannerTest {
+    private static final int CLASSES = 5000;
+    private static final int FUNCTIONS = 200;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File library;
+
+    @Before
+    public void setUp() throws Exception {
+        library = new File(FunctionName.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    @Test
+    public void readSameAnnotationsAsReflection() throws Exception {
+        final File testClasses = new File(AnnotationHandlerImplTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final List<Method> methods = Arrays.stream(AnnotationHandlerImplTest.FunctionEntryPoints.class.getDeclaredMethods())
+            .filter(m -> m.isAnnotationPresent(FunctionName.class)).collect(Collectors.toList());
+
+        final Map<String, FunctionMethod> scanned;
+        try (final BytecodeFunctionScanner scanner = new BytecodeFunctionScanner(Collections.singletonList(library))) {
+            scanned = scanner.findAnnotatedMethods(testClasses).stream().collect(Collectors.toMap(FunctionMethod::toString, Function.identity()));
+        }
+
+        assertEquals(methods.size(), scanned.size());
+        for (final Method method : methods) {
+            final FunctionMethod expected = DefaultFunctionProject.create(method);
+            final FunctionMethod actual = scanned.get(expected.toString());
+            assertNotNull(expected.toString(), actual);
+            assertEquals(expected.getReturnTypeName(), actual.getReturnTypeName());
+            assertSameAnnotations(expected.getAnnotations(), actual.getAnnotations());
+            assertEquals(expected.getParameterAnnotations().size(), actual.getParameterAnnotations().size());
+            for (int i = 0; i < expected.getParameterAnnotations().size(); i++) {
+                assertSameAnnotations(Arrays.asList(expected.getParameterAnnotations().get(i)), Arrays.asList(actual.getParameterAnnotations().get(i)));
+            }
+        }
+    }
+
+    @Test
+    public void resolveExtendedCustomBinding() throws Exception {
+        final File testClasses = new File(AnnotationHandlerImplTest.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        final Map<String, FunctionMethod> scanned;
+        try (final BytecodeFunctionScanner scanner = new BytecodeFunctionScanner(Collections.singletonList(library))) {
+            scanned = scanner.findAnnotatedMethods(testClasses).stream().collect(Collectors.toMap(FunctionMethod::getName, Function.identity()));
+        }
+
+        final FunctionAnnotation annotation = scanned.get(AnnotationHandlerImplTest.EXTENDING_CUSTOM_BINDING_METHOD).getParameterAnnotations().get(0)[0];
+        final FunctionAnnotation customBinding = annotation.getAnnotationClass().getAnnotation(CUSTOM_BINDING);
+        assertNotNull(customBinding);
+        assertEquals("message", customBinding.getStringValue("name", true));
+
+        final Binding named = getBinding(scanned.get(AnnotationHandlerImplTest.EXTENDING_CUSTOM_BINDING_METHOD), "customBinding");
+        assertEquals("extendingCustomBinding", named.getName());
+        assertEquals("testPath", named.getAttribute("path"));
+        final Binding unnamed = getBinding(scanned.get(AnnotationHandlerImplTest.EXTENDING_CUSTOM_BINDING_WITHOUT_NAME_METHOD), "customBinding");
+        assertEquals("message", unnamed.getName());
+    }
+
+    @Test
+    public void scanLargeProjectWithoutLoadingClasses() throws IOException {
+        final File classes = folder.newFolder("classes");
+        for (int i = 0; i < CLASSES; i++) {
+            final String name = String.format("com/example/p%d/Class%d", i % 50, i);
+            final boolean function = i % (CLASSES / FUNCTIONS) == 0;
+            FileUtils.writeByteArrayToFile(new File(classes, name + ".class"), generateClass(name, function ? "function-" + i : null));
+        }
+        // the generated classes are only loadable through the context class loader, which records the attempts
+        final CountingClassLoader loader = new CountingClassLoader(classes, "com.example.");
+        final ClassLoader original = Thread.currentThread().getContextClassLoader();
+        final List<FunctionMethod> methods;
+        Thread.currentThread().setContextClassLoader(loader);
+        try {
+            methods = scan(classes);
+        } finally {
+            Thread.currentThread().setContextClassLoader(original);
+            loader.close();
+        }
+
+        assertEquals(FUNCTIONS, methods.size());
+        assertEquals(Collections.emptyList(), loader.getRequested());
+
+        final FunctionMethod method = methods.stream().filter(m -> m.getDeclaringTypeName().equals("com.example.p0.Class0")).findFirst().orElse(null);
+        assertNotNull(method);
+        assertEquals("function-0", method.getAnnotation(FunctionName.class).getStringValue("value", false));
+        assertEquals("ANONYMOUS", String.valueOf(getBinding(method, "httpTrigger").getAttribute("authLevel")));
+    }
+
+    @Test
+    public void scanShadedJar() throws IOException {
+        final File jar = folder.newFile("app.jar");
+        try (final JarOutputStream output = new JarOutputStream(new FileOutputStream(jar))) {
+            for (int i = 0; i < 10; i++) {
+                final String name = "com/example/Class" + i;
+                final byte[] bytes = generateClass(name, i % 5 == 0 ? "function-" + i : null);
+                output.putNextEntry(new JarEntry(name + ".class"));
+                output.write(bytes);
+                // copies for other java versions are ignored
+                output.putNextEntry(new JarEntry("META-INF/versions/11/" + name + ".class"));
+                output.write(bytes);
+            }
+        }
+
+        final List<FunctionMethod> methods;
+        try (final BytecodeFunctionScanner scanner = new BytecodeFunctionScanner(Collections.singletonList(library))) {
+            methods = scanner.findAnnotatedMethods(jar);
+        }
+
+        assertEquals(Arrays.asList("com.example.Class0.run", "com.example.Class5.run"),
+            methods.stream().map(FunctionMethod::toString).sorted().collect(Collectors.toList()));
+    }
+
+    private List<FunctionMethod> scan(File classes) throws IOException {
+        try (final BytecodeFunctionScanner scanner = new BytecodeFunctionScanner(Collections.singletonList(library))) {
+            return scanner.findAnnotatedMethods(classes);
+        }
+    }
+
+    private static Binding getBinding(FunctionMethod method, String type) {
+        final DefaultFunctionProject project = new DefaultFunctionProject();
+        project.setArtifactFile(new File("app.jar"));
+        final FunctionConfiguration config = AzureFunctionPackager.getInstance().generateConfiguration(project, method);
+        return config.getBindings().stream().filter(b -> type.equals(b.getType())).findFirst().orElse(null);
+    }
+
+    private static void assertSameAnnotations(List<FunctionAnnotation> expected, List<FunctionAnnotation> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            final String name = expected.get(i).getAnnotationClassName();
+            assertEquals(name, actual.get(i).getAnnotationClassName());
+            assertEquals(name, normalize(expected.get(i).getDeclaredAnnotationProperties()), normalize(actual.get(i).getDeclaredAnnotationProperties()));
+            assertEquals(name, normalize(expected.get(i).getAllAnnotationProperties()), normalize(actual.get(i).getAllAnnotationProperties()));
+        }
+    }
+
+    /**
+     * enum constants and classes are read as their names from bytecode, and arrays are compared by content.
+     */
+    private static Map<String, Object> normalize(Map<String, Object> properties) {
+        final Map<String, Object> result = new HashMap<>();
+        properties.forEach((key, value) -> result.put(key, normalize(value)));
+        return result;
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        } else if (value instanceof Class) {
+            return ((Class<?>) value).getName();
+        } else if (value != null && value.getClass().isArray()) {
+            final List<Object> values = new ArrayList<>();
+            for (int i = 0; i < Array.getLength(value); i++) {
+                values.add(normalize(Array.get(value, i)));
+            }
+            return values;
+        }
+        return value;
+    }
+
+    /**
+     * records names of the classes requested from it within the given package.
+     */
+    private static class CountingClassLoader extends URLClassLoader {
+        private final String prefix;
+        private final List<String> requested = Collections.synchronizedList(new ArrayList<>());
+
+        CountingClassLoader(File classes, String prefix) throws MalformedURLException {
+            super(new URL[]{classes.toURI().toURL()}, BytecodeFunctionScannerTest.class.getClassLoader());
+            this.prefix = prefix;
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            record(name);
+            return super.loadClass(name, resolve);
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            record(name);
+            return super.findClass(name);
+        }
+
+        private void record(String name) {
+            if (name.startsWith(this.prefix)) {
+                this.requested.add(name);
+            }
+        }
+
+        List<String> getRequested() {
+            return new ArrayList<>(this.requested);
+        }
+    }
+
+    /**
+     * {@code public String run(String req)}, annotated as an anonymous http triggered function if {@code functionName}
+     * is not null.
+     */
+    private static byte[] generateClass(String internalName, @Nullable String functionName) {
+        final ClassWriter writer = new ClassWriter(0);
+        writer.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC, internalName, null, "java/lang/Object", null);
+        final MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "run", "(Ljava/lang/String;)Ljava/lang/String;", null, null);
+        if (functionName != null) {
+            final AnnotationVisitor name = method.visitAnnotation(Type.getDescriptor(FunctionName.class), true);
+            name.visit("value", functionName);
+            name.visitEnd();
+            final AnnotationVisitor trigger = method.visitParameterAnnotation(0, Type.getDescriptor(HttpTrigger.class), true);
+            trigger.visit("name", "req");
+            trigger.visitEnum("authLevel", Type.getDescriptor(AuthorizationLevel.class), AuthorizationLevel.ANONYMOUS.name());
+            trigger.visitEnd();
+        }
+        method.visitCode();
+        method.visitVarInsn(Opcodes.ALOAD, 1);
+        method.visitInsn(Opcodes.ARETURN);
+        method.visitMaxs(1, 2);
+        method.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+}
@@ -7,20 +7,28 @@ package com.microsoft.azure.toolkit.lib.legacy.appservice.handlers.artifact;
 
 import com.microsoft.azure.toolkit.lib.common.exception.AzureExecutionException;
 
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.net.ftp.FTPClient;
 import org.junit.Assert;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentMatchers;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.MockitoJUnitRunner;
 
-import static org.mockito.Mockito.verifyNoMoreInteractions;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 @RunWith(MockitoJUnitRunner.class)
 public class FTPUploaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     private FTPUploader ftpUploader = null;
 
     @Before
@@ -36,7 +44,7 @@ public class FTPUploaderTest {
         // Failure
         AzureExecutionException exception = null;
         Mockito.doReturn(false).when(uploaderSpy).uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(),
-                ArgumentMatchers.anyString());
+                ArgumentMatchers.anyString(), ArgumentMatchers.anyInt());
         try {
             uploaderSpy.uploadDirectoryWithRetries("ftpServer", "username", "password", "sourceDir", "targetDir", 1);
         } catch (AzureExecutionException e) {
@@ -47,24 +55,27 @@ public class FTPUploaderTest {
 
         // Success
         Mockito.doReturn(true).when(uploaderSpy).uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(),
-                ArgumentMatchers.anyString());
+                ArgumentMatchers.anyString(), ArgumentMatchers.anyInt());
         uploaderSpy.uploadDirectoryWithRetries("ftpServer", "username", "password", "sourceDir", "targetDir", 1);
     }
 
     @Test
     public void uploadDirectory() throws Exception {
+        final File source = folder.newFolder("source");
+        FileUtils.write(new File(source, "index.html"), "hello", StandardCharsets.UTF_8);
         final FTPUploader uploaderSpy = Mockito.spy(ftpUploader);
         final FTPClient ftpClient = Mockito.mock(FTPClient.class);
+        Mockito.doReturn(true).when(ftpClient).isConnected();
+        Mockito.doReturn(true).when(ftpClient).makeDirectory(ArgumentMatchers.anyString());
+        Mockito.doReturn(true).when(ftpClient).storeFile(ArgumentMatchers.anyString(), ArgumentMatchers.any(InputStream.class));
         Mockito.doReturn(ftpClient).when(uploaderSpy).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.doNothing().when(uploaderSpy).uploadDirectory(ArgumentMatchers.any(FTPClient.class), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
 
-        uploaderSpy.uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.verify(ftpClient, Mockito.times(1)).disconnect();
-        Mockito.verifyNoMoreInteractions(ftpClient);
-        Mockito.verify(uploaderSpy, Mockito.times(1)).uploadDirectory(ArgumentMatchers.any(FTPClient.class), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
+        Assert.assertTrue(uploaderSpy.uploadDirectory("ftpServer", "username", "password", source.getAbsolutePath(), "/site/wwwroot", 1));
+        Mockito.verify(ftpClient, Mockito.times(1)).storeFile(ArgumentMatchers.eq("/site/wwwroot/index.html"), ArgumentMatchers.any(InputStream.class));
+        Mockito.verify(ftpClient, Mockito.times(1)).storeFile(ArgumentMatchers.eq("/site/wwwroot/" + ParallelFTPUploader.MANIFEST_NAME), ArgumentMatchers.any(InputStream.class));
+        // the connection is reused and closed at last
         Mockito.verify(uploaderSpy, Mockito.times(1)).getFTPClient(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        Mockito.verify(uploaderSpy, Mockito.times(1)).uploadDirectory(ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString(), ArgumentMatchers.anyString());
-        verifyNoMoreInteractions(uploaderSpy);
+        Mockito.verify(ftpClient, Mockito.times(1)).disconnect();
     }
 
     @Test
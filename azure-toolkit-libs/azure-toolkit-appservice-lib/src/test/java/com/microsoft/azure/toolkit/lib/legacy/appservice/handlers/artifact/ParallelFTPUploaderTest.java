@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.appservice.handlers.artifact;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.net.ftp.FTP;
+import org.apache.commons.net.ftp.FTPClient;
+import org.apache.ftpserver.FtpServer;
+import org.apache.ftpserver.FtpServerFactory;
+import org.apache.ftpserver.ftplet.Authority;
+import org.apache.ftpserver.ftplet.UserManager;
+import org.apache.ftpserver.listener.Listener;
+import org.apache.ftpserver.listener.ListenerFactory;
+import org.apache.ftpserver.usermanager.PropertiesUserManagerFactory;
+import org.apache.ftpserver.usermanager.impl.BaseUser;
+import org.apache.ftpserver.usermanager.impl.ConcurrentLoginPermission;
+import org.apache.ftpserver.usermanager.impl.WritePermission;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelFTPUploaderTest {
+    private static final String USERNAME = "app";
+    private static final String PASSWORD = "password";
+    private static final String TARGET = "/site/wwwroot";
+    private static final int FILES = 120;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FtpServer server;
+    private int port;
+    private File home;
+    private File source;
+    private final AtomicInteger logins = new AtomicInteger();
+    private final Map<String, AtomicInteger> directories = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        home = folder.newFolder("home");
+        source = folder.newFolder("source");
+        for (int i = 0; i < FILES; i++) {
+            FileUtils.write(new File(source, String.format("dir-%d/sub-%d/file-%d.txt", i % 3, i % 2, i)), "content " + i, StandardCharsets.UTF_8);
+        }
+
+        final PropertiesUserManagerFactory userManagerFactory = new PropertiesUserManagerFactory();
+        userManagerFactory.setFile(folder.newFile("users.properties"));
+        final UserManager userManager = userManagerFactory.createUserManager();
+        final BaseUser user = new BaseUser();
+        user.setName(USERNAME);
+        user.setPassword(PASSWORD);
+        user.setHomeDirectory(home.getAbsolutePath());
+        user.setAuthorities(Arrays.<Authority>asList(new WritePermission(), new ConcurrentLoginPermission(0, 0)));
+        userManager.save(user);
+
+        final ListenerFactory listenerFactory = new ListenerFactory();
+        listenerFactory.setServerAddress("localhost");
+        listenerFactory.setPort(0);
+        final Listener listener = listenerFactory.createListener();
+        final FtpServerFactory serverFactory = new FtpServerFactory();
+        serverFactory.setUserManager(userManager);
+        serverFactory.addListener("default", listener);
+        server = serverFactory.createServer();
+        server.start();
+        port = listener.getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop();
+    }
+
+    @Test
+    public void uploadDirectoryConcurrently() throws IOException {
+        try (final ParallelFTPUploader uploader = newUploader()) {
+            assertEquals(FILES, uploader.uploadDirectory(source, TARGET));
+        }
+
+        assertSameFiles();
+        assertTrue(new File(home, "site/wwwroot/" + ParallelFTPUploader.MANIFEST_NAME).isFile());
+        assertTrue(logins.get() <= ParallelFTPUploader.DEFAULT_CONNECTIONS);
+        // "/site", "/site/wwwroot", 3 "dir-x" and 6 "dir-x/sub-y"
+        assertEquals(11, directories.size());
+        directories.forEach((directory, count) -> assertEquals(directory, 1, count.get()));
+    }
+
+    @Test
+    public void skipUnchangedFiles() throws IOException {
+        try (final ParallelFTPUploader uploader = newUploader()) {
+            uploader.uploadDirectory(source, TARGET);
+        }
+        FileUtils.write(new File(source, "dir-0/sub-0/file-0.txt"), "changed", StandardCharsets.UTF_8);
+        FileUtils.write(new File(source, "dir-0/sub-0/file-1.txt"), "same size", StandardCharsets.UTF_8);
+        FileUtils.write(new File(source, "dir-3/new.txt"), "new", StandardCharsets.UTF_8);
+
+        try (final ParallelFTPUploader uploader = newUploader()) {
+            assertEquals(3, uploader.uploadDirectory(source, TARGET));
+        }
+
+        assertSameFiles();
+    }
+
+    @Test
+    public void retryFailedFiles() throws IOException {
+        failures.put(TARGET + "/dir-1/sub-1/file-7.txt", new AtomicInteger(2));
+        failures.put(TARGET + "/dir-2/sub-0/file-8.txt", new AtomicInteger(1));
+
+        try (final ParallelFTPUploader uploader = newUploader()) {
+            uploader.setMaxRetries(3);
+            assertEquals(FILES, uploader.uploadDirectory(source, TARGET));
+        }
+
+        assertSameFiles();
+    }
+
+    @Test
+    public void resumeFailedUpload() throws IOException {
+        failures.put(TARGET + "/dir-1/sub-1/file-7.txt", new AtomicInteger(Integer.MAX_VALUE));
+        try (final ParallelFTPUploader uploader = newUploader()) {
+            uploader.setMaxRetries(2);
+            uploader.uploadDirectory(source, TARGET);
+            fail("upload should fail.");
+        } catch (final IOException e) {
+            assertTrue(e.getMessage().contains("file-7.txt"));
+        }
+        failures.clear();
+
+        // files uploaded by the failed run are recorded
+        try (final ParallelFTPUploader uploader = newUploader()) {
+            assertEquals(1, uploader.uploadDirectory(source, TARGET));
+        }
+        assertSameFiles();
+    }
+
+    private ParallelFTPUploader newUploader() {
+        return new ParallelFTPUploader(() -> {
+            logins.incrementAndGet();
+            final FTPClient client = new InstrumentedClient();
+            client.connect("localhost", port);
+            assertTrue(client.login(USERNAME, PASSWORD));
+            client.setFileType(FTP.BINARY_FILE_TYPE);
+            client.enterLocalPassiveMode();
+            return client;
+        }, ParallelFTPUploader.DEFAULT_CONNECTIONS);
+    }
+
+    private void assertSameFiles() throws IOException {
+        for (final File file : FileUtils.listFiles(source, null, true)) {
+            final String path = source.toPath().relativize(file.toPath()).toString();
+            assertEquals(path, FileUtils.readFileToString(file, StandardCharsets.UTF_8),
+                FileUtils.readFileToString(new File(home, "site/wwwroot/" + path), StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * counts directory creations and fails uploads of files in {@link #failures}.
+     */
+    private class InstrumentedClient extends FTPClient {
+        @Override
+        public boolean makeDirectory(String pathname) throws IOException {
+            directories.computeIfAbsent(pathname, k -> new AtomicInteger()).incrementAndGet();
+            return super.makeDirectory(pathname);
+        }
+
+        @Override
+        public boolean storeFile(String remote, InputStream local) throws IOException {
+            final AtomicInteger remaining = failures.get(remote);
+            if (remaining != null && remaining.getAndDecrement() > 0) {
+                throw new IOException("injected failure of " + remote);
+            }
+            return super.storeFile(remote, local);
+        }
+    }
+}
@@ -47,6 +47,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.lang.reflect.Method;
 import java.net.URL;
+import java.net.URLClassLoader;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -245,6 +246,17 @@ public class AnnotationHandlerImplTest {
         Assert.assertTrue(methodNames.contains(EXTENDING_CUSTOM_BINDING_WITHOUT_NAME_METHOD));
     }
 
+    @Test
+    public void closeClassLoaders() throws Exception {
+        final AnnotationHandlerImpl handler = getAnnotationHandler();
+        final URLClassLoader classLoader = (URLClassLoader) handler.getClassLoader(Arrays.asList(getClassUrl()));
+        final String resource = FunctionEntryPoints.class.getName().replace('.', '/') + ".class";
+        Assert.assertNotNull(classLoader.findResource(resource));
+
+        handler.close();
+        Assert.assertNull(classLoader.findResource(resource));
+    }
+
     @Test
     public void generateConfigurations() throws Exception {
         final AnnotationHandler handler = getAnnotationHandler();
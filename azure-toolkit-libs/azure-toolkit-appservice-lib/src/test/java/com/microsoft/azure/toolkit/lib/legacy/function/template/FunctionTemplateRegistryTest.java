@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.legacy.function.template;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.toolkit.lib.legacy.function.utils.FunctionUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class FunctionTemplateRegistryTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void lookupSameTemplatesAsParsing() throws Exception {
+        final FunctionTemplateRegistry registry = FunctionTemplateRegistry.getInstance();
+        final List<FunctionTemplate> parsed = parseTemplates();
+        assertFalse(parsed.isEmpty());
+        assertEquals(parsed.size(), registry.getTemplates().size());
+        for (final FunctionTemplate expected : parsed) {
+            final String name = expected.getMetadata().getName();
+            final FunctionTemplate actual = registry.getTemplate(name.toUpperCase());
+            assertEquals(name, toJson(expected), toJson(actual));
+            assertEquals(name, toJson(expected), toJson(FunctionUtils.loadFunctionTemplate(name)));
+        }
+        assertNull(registry.getTemplate("NoSuchTrigger"));
+    }
+
+    @Test
+    public void lookupSameBindingsAsParsing() throws Exception {
+        final FunctionTemplateRegistry registry = FunctionTemplateRegistry.getInstance();
+        final BindingsTemplate parsed = parseBindings();
+        for (final BindingTemplate binding : parsed.getBindings()) {
+            assertEquals(binding.getType(), toJson(parsed.getBindingTemplateByName(binding.getType())),
+                toJson(registry.getBindingTemplate(binding.getType())));
+        }
+        // every template has the binding template of its trigger
+        for (final FunctionTemplate template : registry.getTemplates()) {
+            assertEquals(toJson(parsed.getBindingTemplateByName(template.getTriggerType())),
+                toJson(FunctionUtils.loadBindingTemplate(template.getTriggerType())));
+        }
+        assertNull(registry.getBindingTemplate("noSuchTrigger"));
+    }
+
+    @Test
+    public void parseOnce() throws Exception {
+        final FunctionTemplateRegistry registry = FunctionTemplateRegistry.getInstance();
+        assertSame(registry, FunctionTemplateRegistry.getInstance());
+    }
+
+    @Test
+    public void keepSharedTemplatesUnmodified() throws Exception {
+        final FunctionTemplateRegistry registry = FunctionTemplateRegistry.getInstance();
+        final FunctionTemplate template = registry.getTemplate("HttpTrigger");
+        final String expected = toJson(template);
+        template.setFunction("modified");
+        template.getMetadata().setName("modified");
+        try {
+            template.getMetadata().getUserPrompt().add("modified");
+            fail("templates should not be modified.");
+        } catch (final UnsupportedOperationException e) {
+            // expected
+        }
+        final BindingTemplate binding = registry.getBindingTemplate("httpTrigger");
+        final String expectedBinding = toJson(binding);
+        binding.getSettings()[0].setDefaultValue("modified");
+        binding.setSettings(new FunctionSettingTemplate[0]);
+
+        assertNotSame(template, registry.getTemplate("HttpTrigger"));
+        assertEquals(expected, toJson(registry.getTemplate("HttpTrigger")));
+        assertEquals(expected, toJson(FunctionUtils.loadAllFunctionTemplates().stream()
+            .filter(t -> "HttpTrigger".equals(t.getMetadata().getName())).findFirst().orElse(null)));
+        assertEquals(expectedBinding, toJson(FunctionUtils.loadBindingTemplate("httpTrigger")));
+    }
+
+    private List<FunctionTemplate> parseTemplates() throws IOException {
+        try (final InputStream is = FunctionTemplateRegistryTest.class.getResourceAsStream("/templates.json")) {
+            return mapper.readValue(IOUtils.toString(is, StandardCharsets.UTF_8), FunctionTemplates.class).getTemplates();
+        }
+    }
+
+    private BindingsTemplate parseBindings() throws IOException {
+        try (final InputStream is = FunctionTemplateRegistryTest.class.getResourceAsStream("/bindings.json")) {
+            return mapper.readValue(IOUtils.toString(is, StandardCharsets.UTF_8), BindingsTemplate.class);
+        }
+    }
+
+    private String toJson(Object value) throws IOException {
+        return mapper.writeValueAsString(value);
+    }
+}
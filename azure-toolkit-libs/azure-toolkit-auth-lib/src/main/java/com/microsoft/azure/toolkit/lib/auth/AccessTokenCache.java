@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.util.logging.ClientLogger;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * in-memory access token cache honoring {@link AccessToken#getExpiresAt()}, tokens are refreshed proactively on a
+ * background scheduler shortly before they expire if they have been requested since the last refresh, and concurrent
+ * refreshes of the same token share one request.
+ */
+class AccessTokenCache {
+    private static final ClientLogger LOGGER = new ClientLogger(AccessTokenCache.class);
+    static final Duration REFRESH_BEFORE_EXPIRY = Duration.ofMinutes(5);
+    /**
+     * tokens expiring within it are not served, so that they won't expire before reaching the server.
+     */
+    static final Duration EXPIRY_SKEW = Duration.ofMinutes(2);
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        final Thread thread = new Thread(r, "azure-token-refresher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    AccessTokenCache() {
+        this(SCHEDULER);
+    }
+
+    AccessTokenCache(@Nonnull ScheduledExecutorService scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * @param key    identity of the token, e.g. tenant and scopes
+     * @param loader requests a new token, it's retained for proactive refreshing
+     */
+    @Nonnull
+    public Mono<AccessToken> getToken(@Nonnull String key, @Nonnull Supplier<Mono<AccessToken>> loader) {
+        final Entry entry = this.entries.computeIfAbsent(key, k -> new Entry(k, loader));
+        return Mono.defer(() -> {
+            entry.accessed.set(true);
+            final AccessToken token = entry.token;
+            if (Objects.nonNull(token) && !isExpiring(token, EXPIRY_SKEW)) {
+                return Mono.just(token);
+            }
+            return Mono.fromFuture(entry.refresh());
+        });
+    }
+
+    public void clear() {
+        this.entries.clear();
+    }
+
+    private static boolean isExpiring(@Nonnull AccessToken token, @Nonnull Duration ahead) {
+        return token.getExpiresAt().isBefore(OffsetDateTime.now().plus(ahead));
+    }
+
+    @RequiredArgsConstructor
+    private class Entry {
+        private final String key;
+        private final Supplier<Mono<AccessToken>> loader;
+        /**
+         * if the token is requested since the last proactive refresh, idle tokens are left to expire.
+         */
+        private final AtomicBoolean accessed = new AtomicBoolean();
+        private volatile AccessToken token;
+        @Nullable
+        private CompletableFuture<AccessToken> refreshing;
+
+        synchronized CompletableFuture<AccessToken> refresh() {
+            if (Objects.isNull(this.refreshing)) {
+                final CompletableFuture<AccessToken> future = this.loader.get().toFuture();
+                this.refreshing = future;
+                future.whenComplete((t, e) -> this.onRefreshed(future, t));
+            }
+            return this.refreshing;
+        }
+
+        private synchronized void onRefreshed(@Nonnull CompletableFuture<AccessToken> future, @Nullable AccessToken token) {
+            if (this.refreshing == future) {
+                this.refreshing = null;
+            }
+            if (Objects.isNull(token)) { // failed, the next request will retry.
+                return;
+            }
+            this.token = token;
+            final long delay = Duration.between(OffsetDateTime.now(), token.getExpiresAt()).minus(REFRESH_BEFORE_EXPIRY).toMillis();
+            if (delay > 0 && delay < Duration.ofDays(1).toMillis()) { // skip tokens that never expire.
+                AccessTokenCache.this.scheduler.schedule(this::refreshIfCached, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        private void refreshIfCached() {
+            if (AccessTokenCache.this.entries.get(this.key) != this) {
+                return;
+            }
+            if (this.accessed.getAndSet(false)) {
+                LOGGER.verbose("proactively refreshing token[{}].", this.key);
+                this.refresh();
+            } else { // it will be refreshed on demand once requested again.
+                LOGGER.verbose("stop refreshing token[{}], it's not requested since last refresh.", this.key);
+            }
+        }
+    }
+}
@@ -20,9 +20,12 @@ import com.azure.identity.implementation.MsalToken;
 import com.azure.identity.implementation.util.ScopeUtil;
 import com.azure.resourcemanager.resources.ResourceManager;
 import com.azure.resourcemanager.resources.models.Tenant;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.account.IAccount;
 import com.microsoft.azure.toolkit.lib.common.cache.CacheEvict;
+import com.microsoft.azure.toolkit.lib.common.cache.PersistentCache;
 import com.microsoft.azure.toolkit.lib.common.cache.Preloader;
 import com.microsoft.azure.toolkit.lib.common.event.AzureEventBus;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
@@ -57,13 +60,24 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Getter
 @RequiredArgsConstructor
 public abstract class Account implements IAccount {
     protected static final TokenCachePersistenceOptions PERSISTENCE_OPTIONS = new TokenCachePersistenceOptions().setName("azure-toolkit.cache");
     private static final ClientLogger LOGGER = new ClientLogger(Account.class);
+    private static final String SUBSCRIPTION_INDEX = "accounts/{}/subscriptions";
+    private static final JavaType SUBSCRIPTION_INDEX_TYPE = TypeFactory.defaultInstance().constructCollectionType(List.class, Subscription.class);
+    private static final Duration SUBSCRIPTION_INDEX_TTL = Duration.ofHours(6);
+    private static final Duration TENANT_TIMEOUT = Duration.ofSeconds(30);
+    static final int TENANT_CONCURRENCY = 8;
     private final Map<String, TokenCredential> tenantCredentialCache = new ConcurrentHashMap<>();
+    /**
+     * management tokens of this account only, they are bound to the credential and user of it.
+     */
+    @Getter(AccessLevel.NONE)
+    private final AccessTokenCache managementTokens = new AccessTokenCache();
     @Nonnull
     private final AuthConfiguration config;
     protected String username;
@@ -73,6 +87,12 @@ public abstract class Account implements IAccount {
     private TokenCredential defaultTokenCredential;
     @Getter(AccessLevel.NONE)
     private List<Subscription> subscriptions;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.PACKAGE)
+    private Duration tenantTimeout = TENANT_TIMEOUT;
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.PACKAGE)
+    private PersistentCache subscriptionIndex = PersistentCache.getInstance();
 
     @Nonnull
     protected abstract TokenCredential buildDefaultTokenCredential();
@@ -93,6 +113,7 @@ public abstract class Account implements IAccount {
 
     void login() {
         this.defaultTokenCredential = this.buildDefaultTokenCredential();
+        this.resolveUsername(this.defaultTokenCredential);
         this.reloadSubscriptions();
         this.setupAfterLogin(this.defaultTokenCredential);
         this.config.setType(this.getType());
@@ -111,14 +132,18 @@ public abstract class Account implements IAccount {
     protected Optional<AccessToken> getManagementToken() {
         final String[] scopes = ScopeUtil.resourceToScopes(this.getEnvironment().getManagementEndpoint());
         final TokenRequestContext request = new TokenRequestContext().addScopes(scopes);
+        final String key = String.format("%s:%s", this.config.getTenant(), String.join(",", scopes));
         try {
-            return this.buildDefaultTokenCredential().getToken(request).blockOptional();
+            return this.managementTokens.getToken(key, () -> this.buildDefaultTokenCredential().getToken(request)).blockOptional();
         } catch (Throwable t) {
             return Optional.empty();
         }
     }
 
-    protected void setupAfterLogin(TokenCredential defaultTokenCredential) {
+    /**
+     * resolve the signed-in user before loading subscriptions, since the persisted subscription index is per user.
+     */
+    protected void resolveUsername(TokenCredential defaultTokenCredential) {
         final String[] scopes = ScopeUtil.resourceToScopes(this.getEnvironment().getManagementEndpoint());
         final TokenRequestContext request = new TokenRequestContext().addScopes(scopes);
         final AccessToken token = defaultTokenCredential.getToken(request).blockOptional()
@@ -128,6 +153,9 @@ public abstract class Account implements IAccount {
                 .map(MsalToken::getAccount).map(com.microsoft.aad.msal4j.IAccount::username)
                 .orElse(this.getClientId());
         }
+    }
+
+    protected void setupAfterLogin(TokenCredential defaultTokenCredential) {
         Optional.ofNullable(this.getConfig().getDoAfterLogin()).ifPresent(Runnable::run);
     }
 
@@ -136,44 +164,104 @@ public abstract class Account implements IAccount {
     void logout() {
         this.subscriptions = null;
         this.defaultTokenCredential = null;
+        this.managementTokens.clear();
     }
 
     public List<Subscription> reloadSubscriptions() {
-        final List<String> selected = Optional.ofNullable(this.subscriptions).orElse(Collections.emptyList())
-            .stream().filter(Subscription::isSelected)
-            .map(Subscription::getId)
-            .collect(Collectors.toList());
-        this.subscriptions = Optional.ofNullable(this.loadSubscriptions()).orElse(Collections.emptyList()).stream()
+        this.setSubscriptions(this.loadSubscriptions());
+        return this.getSubscriptions();
+    }
+
+    private synchronized void setSubscriptions(@Nullable List<Subscription> loaded) {
+        // keep the current selection, including the one restored from config, on the installed subscriptions
+        final Stream<String> current = Optional.ofNullable(this.subscriptions).orElse(Collections.emptyList()).stream()
+            .filter(Subscription::isSelected).map(Subscription::getId);
+        final Stream<String> configured = Optional.ofNullable(this.config.getSelectedSubscriptions()).orElse(Collections.emptyList()).stream();
+        final Set<String> selected = Stream.concat(current, configured).map(String::toLowerCase).collect(Collectors.toSet());
+        this.subscriptions = Optional.ofNullable(loaded).orElse(Collections.emptyList()).stream()
             .sorted(Comparator.comparing(s -> s.getName().toLowerCase()))
             .collect(Collectors.toList());
         this.subscriptions.stream()
             .filter(s -> selected.contains(s.getId().toLowerCase()))
             .forEach(s -> s.setSelected(true));
-        return this.getSubscriptions();
     }
 
+    /**
+     * load subscriptions from the persisted tenant-subscription index if it's fresh, and revalidate it in background,
+     * otherwise load subscriptions of all tenants from Azure.
+     */
     protected List<Subscription> loadSubscriptions() {
-        final TokenCredential credential = this.defaultTokenCredential;
-        final ResourceManager.Authenticated client = configureAzure().authenticate(credential, new AzureProfile(this.getEnvironment()));
-        final List<Tenant> tenants = client.tenants().list().stream().collect(Collectors.toList());
-        return tenants.stream()
-            .flatMap(t -> this.loadSubscriptions(t.tenantId()).stream())
+        final String indexKey = this.getSubscriptionIndexKey();
+        if (Objects.isNull(indexKey)) {
+            return this.loadSubscriptionsFromAzure(null);
+        }
+        final AzureTaskManager manager = AzureTaskManager.getInstance();
+        final Object indexed = this.subscriptionIndex.get(SUBSCRIPTION_INDEX, indexKey, SUBSCRIPTION_INDEX_TYPE);
+        if (Objects.nonNull(manager) && indexed instanceof List && CollectionUtils.isNotEmpty((List<?>) indexed)) {
+            LOGGER.verbose(String.format("loaded subscriptions from index[%s], revalidating in background.", indexKey));
+            manager.runOnPooledThread(() -> this.setSubscriptions(this.loadSubscriptionsFromAzure(indexKey)));
+            //noinspection unchecked
+            return (List<Subscription>) indexed;
+        }
+        return this.loadSubscriptionsFromAzure(indexKey);
+    }
+
+    @Nonnull
+    private List<Subscription> loadSubscriptionsFromAzure(@Nullable String indexKey) {
+        final List<String> tenantIds = this.listTenantIds();
+        // load subscriptions of tenants concurrently and merge them as they arrive
+        final List<Subscription> subscriptions = Flux.fromIterable(tenantIds)
+            .flatMap(this::loadSubscriptions, TENANT_CONCURRENCY)
+            .flatMapIterable(s -> s)
+            .collectList().blockOptional().orElse(Collections.emptyList()).stream()
             .filter(Utils.distinctByKey(Subscription::getId))
             .collect(Collectors.toList());
+        if (Objects.nonNull(indexKey) && CollectionUtils.isNotEmpty(subscriptions)) {
+            final List<Subscription> index = subscriptions.stream() // never persist the selection state
+                .map(s -> new Subscription(s.getId(), s.getName(), s.getTenantId(), false))
+                .collect(Collectors.toList());
+            this.subscriptionIndex.put(SUBSCRIPTION_INDEX, indexKey, index, SUBSCRIPTION_INDEX_TTL.getSeconds());
+        }
+        return subscriptions;
+    }
+
+    @Nonnull
+    private Mono<List<Subscription>> loadSubscriptions(String tenantId) {
+        return Mono.defer(() -> this.listSubscriptions(tenantId)).timeout(this.tenantTimeout).onErrorResume(ex -> {
+            AzureMessager.getMessager().warning(String.format("Cannot get subscriptions for tenant %s " +
+                ", please verify you have proper permissions over this tenant, detailed error: %s", tenantId, ex.getMessage()));
+            return Mono.just(new ArrayList<>());
+        });
+    }
+
+    /**
+     * @return ids of all tenants the default credential has access to.
+     */
+    @Nonnull
+    protected List<String> listTenantIds() {
+        final ResourceManager.Authenticated client = configureAzure().authenticate(this.defaultTokenCredential, new AzureProfile(this.getEnvironment()));
+        return client.tenants().list().stream().map(Tenant::tenantId).collect(Collectors.toList());
     }
 
     @Nonnull
-    private List<Subscription> loadSubscriptions(String tenantId) {
+    protected Mono<List<Subscription>> listSubscriptions(@Nonnull String tenantId) {
         final TokenCredential credential = this.getTenantTokenCredential(tenantId);
         final AzureProfile profile = new AzureProfile(tenantId, null, this.getEnvironment());
         final ResourceManager.Authenticated client = configureAzure().authenticate(credential, profile);
-        final List<Subscription> subscriptions = client.subscriptions().listAsync().onErrorResume(ex -> {
-                AzureMessager.getMessager().warning(String.format("Cannot get subscriptions for tenant %s " +
-                    ", please verify you have proper permissions over this tenant, detailed error: %s", tenantId, ex.getMessage()));
-                return Flux.fromIterable(new ArrayList<>());
-            }).map(Subscription::new)
-            .collect(Collectors.toList()).flatMapIterable(s -> s).collectList().block();
-        return Optional.ofNullable(subscriptions).orElse(Collections.emptyList());
+        return client.subscriptions().listAsync().map(Subscription::new).collectList();
+    }
+
+    /**
+     * @return key of the subscription index of the signed-in user, or null if the user is unknown.
+     */
+    @Nullable
+    private String getSubscriptionIndexKey() {
+        final String username = this.getUsername();
+        if (StringUtils.isBlank(username)) {
+            return null;
+        }
+        return String.format("%s/%s/%s/%s/%s", this.getType(), this.getClientId(), username.toLowerCase(),
+            StringUtils.defaultString(this.config.getTenant()), AzureEnvironmentUtils.azureEnvironmentToString(this.getEnvironment()));
     }
 
     @Nonnull
@@ -190,11 +278,10 @@ public abstract class Account implements IAccount {
             throw new AzureToolkitRuntimeException("No subscriptions are selected. You must select at least one subscription.", IAccountActions.SELECT_SUBS);
         }
         final Set<String> selected = selectedSubscriptionIds.stream().map(String::toLowerCase).collect(Collectors.toSet());
-        this.getSubscriptions().forEach(s -> s.setSelected(false));
-        this.getSubscriptions().stream()
-            .filter(s -> selected.contains(s.getId().toLowerCase()))
-            .forEach(s -> s.setSelected(true));
-        this.config.setSelectedSubscriptions(selectedSubscriptionIds);
+        synchronized (this) { // subscriptions may be replaced by the background revalidation meanwhile
+            this.getSubscriptions().forEach(s -> s.setSelected(selected.contains(s.getId().toLowerCase())));
+            this.config.setSelectedSubscriptions(selectedSubscriptionIds);
+        }
         AzureEventBus.emit("account.subscription_changed.account", this);
         final AzureTaskManager manager = AzureTaskManager.getInstance();
         if (Objects.nonNull(manager)) {
@@ -187,7 +187,7 @@ public class AzureAccount implements IAzureAccount {
     /**
      * see doc for: az account list-locations -o table
      */
-    @Cacheable(cacheName = "subscriptions/{}/regions", key = "$subscriptionId")
+    @Cacheable(cacheName = "subscriptions/{}/regions", key = "$subscriptionId", persistent = true)
     public List<Region> listRegions(String subscriptionId) {
         return getSubscription(subscriptionId).listLocations().stream()
             .filter(l -> l.regionType() == RegionType.PHYSICAL) // use distinct since com.azure.core.management.Region impels equals
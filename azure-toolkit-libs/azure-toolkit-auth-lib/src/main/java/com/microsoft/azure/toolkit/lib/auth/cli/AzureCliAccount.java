@@ -59,6 +59,11 @@ public class AzureCliAccount extends Account {
         return new ArrayList<>(cliSubs);
     }
 
+    @Override
+    protected void resolveUsername(TokenCredential defaultTokenCredential) {
+        // username is resolved from the default subscription of azure cli after loading subscriptions.
+    }
+
     @Override
     protected void setupAfterLogin(TokenCredential defaultTokenCredential) {
         List<Subscription> subscriptions = this.getSubscriptions();
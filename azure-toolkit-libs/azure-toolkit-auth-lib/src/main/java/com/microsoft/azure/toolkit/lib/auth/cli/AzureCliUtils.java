@@ -7,6 +7,8 @@ package com.microsoft.azure.toolkit.lib.auth.cli;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.github.zafarkhaja.semver.Version;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.AzureConfiguration;
 import com.microsoft.azure.toolkit.lib.auth.AzureToolkitAuthenticationException;
@@ -20,14 +22,26 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import static com.microsoft.azure.toolkit.lib.common.utils.Utils.distinctByKey;
 
 public class AzureCliUtils {
     private static final String MIN_VERSION = "2.11.0";
+    // probing spawns `az` processes which are slow, the installation is probed only once and sign-in state at most once a minute.
+    private static final Supplier<Boolean> cliInstalled = Suppliers.memoize(AzureCliUtils::probeCliInstalled);
+    private static final Supplier<Boolean> signedIn = Suppliers.memoizeWithExpiration(AzureCliUtils::probeSignedIn, 1, TimeUnit.MINUTES);
 
     public static boolean isAppropriateCliInstalled() {
+        return cliInstalled.get();
+    }
+
+    public static boolean isSignedIn() {
+        return signedIn.get();
+    }
+
+    private static boolean probeCliInstalled() {
         try {
             final String str = AzureCliUtils.executeAzureCli("az version --output json");
             final TypeReference<HashMap<String, Object>> typeRef = new TypeReference<HashMap<String, Object>>() {
@@ -41,7 +55,7 @@ public class AzureCliUtils {
         }
     }
 
-    public static boolean isSignedIn() {
+    private static boolean probeSignedIn() {
         try {
             final String str = AzureCliUtils.executeAzureCli("az account show --output json");
             final TypeReference<HashMap<String, Object>> typeRef = new TypeReference<HashMap<String, Object>>() {
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenCredential;
+import com.azure.core.credential.TokenRequestContext;
+import org.junit.Before;
+import org.junit.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+public class AccessTokenCacheTest {
+    private static final String KEY = "tenant:https://management.azure.com/.default";
+    private static final TokenRequestContext REQUEST = new TokenRequestContext().addScopes("https://management.azure.com/.default");
+
+    private final AtomicInteger requests = new AtomicInteger();
+    /**
+     * proactive refreshes scheduled by the cache, they are run by the test instead of waiting for tokens to expire.
+     */
+    private final Queue<Runnable> scheduled = new ArrayDeque<>();
+    private final TokenCredential credential = request -> Mono.fromCallable(() ->
+        new AccessToken("token-" + requests.incrementAndGet(), OffsetDateTime.now().plusHours(1)));
+    private AccessTokenCache cache;
+
+    @Before
+    public void setUp() {
+        final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+        doAnswer(invocation -> {
+            scheduled.add(invocation.getArgument(0));
+            return null;
+        }).when(scheduler).schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+        cache = new AccessTokenCache(scheduler);
+    }
+
+    @Test
+    public void reuseCachedToken() {
+        final AccessToken token = getToken();
+        assertSame(token, getToken());
+        assertSame(token, getToken());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    public void refreshRequestedTokens() {
+        getToken();
+        assertEquals(1, scheduled.size());
+        for (int i = 0; i < 3; i++) {
+            runScheduled();
+            assertEquals("token-" + (i + 2), getToken().getToken());
+        }
+        assertEquals(4, requests.get());
+        assertEquals(1, scheduled.size());
+    }
+
+    @Test
+    public void stopRefreshingIdleTokens() {
+        getToken();
+        runScheduled(); // requested since the token was loaded
+        assertEquals(2, requests.get());
+
+        runScheduled(); // not requested since the last refresh
+        assertEquals(2, requests.get());
+        assertTrue(scheduled.isEmpty());
+
+        // served from cache until it expires
+        assertEquals("token-2", getToken().getToken());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void stopRefreshingClearedTokens() {
+        getToken();
+        cache.clear();
+        runScheduled();
+        assertEquals(1, requests.get());
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    public void refreshExpiredTokensOnDemand() {
+        final TokenCredential expired = request -> Mono.fromCallable(() ->
+            new AccessToken("token-" + requests.incrementAndGet(), OffsetDateTime.now().minus(AccessTokenCache.REFRESH_BEFORE_EXPIRY)));
+        cache.getToken(KEY, () -> expired.getToken(REQUEST)).block();
+        cache.getToken(KEY, () -> expired.getToken(REQUEST)).block();
+        assertEquals(2, requests.get());
+        // nothing to refresh proactively
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    public void refreshExpiringTokensOnDemand() {
+        final Duration remaining = AccessTokenCache.EXPIRY_SKEW.dividedBy(2);
+        final TokenCredential expiring = request -> Mono.fromCallable(() ->
+            new AccessToken("token-" + requests.incrementAndGet(), OffsetDateTime.now().plus(remaining)));
+        cache.getToken(KEY, () -> expiring.getToken(REQUEST)).block();
+        assertEquals("token-2", cache.getToken(KEY, () -> expiring.getToken(REQUEST)).block().getToken());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void shareConcurrentRequests() {
+        final Sinks.One<AccessToken> response = Sinks.one();
+        final TokenCredential slow = request -> {
+            requests.incrementAndGet();
+            return response.asMono();
+        };
+        final Mono<AccessToken> first = cache.getToken(KEY, () -> slow.getToken(REQUEST)).cache();
+        final Mono<AccessToken> second = cache.getToken(KEY, () -> slow.getToken(REQUEST)).cache();
+        first.subscribe();
+        second.subscribe();
+        response.tryEmitValue(new AccessToken("token", OffsetDateTime.now().plusHours(1)));
+
+        assertSame(first.block(), second.block());
+        assertEquals(1, requests.get());
+    }
+
+    private AccessToken getToken() {
+        return cache.getToken(KEY, () -> credential.getToken(REQUEST)).block();
+    }
+
+    private void runScheduled() {
+        final Runnable task = scheduled.poll();
+        if (task != null) {
+            task.run();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.auth;
+
+import com.azure.core.credential.TokenCredential;
+import com.microsoft.azure.toolkit.lib.common.cache.PersistentCache;
+import com.microsoft.azure.toolkit.lib.common.model.Subscription;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
+import com.microsoft.azure.toolkit.lib.common.task.AzureTaskManager;
+import com.microsoft.azure.toolkit.lib.common.utils.Poller;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class AccountTest {
+    private static final long TIMEOUT = 30;
+    private static final Duration LATENCY = Duration.ofMillis(200);
+    private static final Duration NEVER = Duration.ofDays(1);
+    private static final Duration FAILURE = Duration.ZERO;
+    private static final String USER = "user@contoso.com";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * tenants of the fake resource manager and their latency, {@link #NEVER} responds after the tenant timeout and
+     * {@link #FAILURE} fails immediately.
+     */
+    private final Map<String, Duration> tenants = new LinkedHashMap<>();
+    private final BlockingQueue<String> tenantListings = new LinkedBlockingQueue<>();
+    private final AtomicInteger inflight = new AtomicInteger();
+    private final AtomicInteger maxInflight = new AtomicInteger();
+    private volatile CountDownLatch remote = new CountDownLatch(0);
+    private PersistentCache index;
+
+    @BeforeClass
+    public static void setUpClass() {
+        AzureTaskManager.register(new PooledTaskManager());
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        index = new PersistentCache(folder.newFolder("cache").toPath());
+    }
+
+    @Test
+    public void loadTenantsConcurrentlyWithinBound() {
+        IntStream.range(0, Account.TENANT_CONCURRENCY * 3).forEach(i -> tenants.put("tenant-" + i, LATENCY));
+
+        final List<Subscription> subscriptions = new FakeAccount(USER).loadSubscriptions();
+
+        assertEquals(tenants.size(), subscriptions.size());
+        assertEquals(1, tenantListings.size());
+        assertTrue(String.valueOf(maxInflight.get()), maxInflight.get() > 1);
+        assertTrue(String.valueOf(maxInflight.get()), maxInflight.get() <= Account.TENANT_CONCURRENCY);
+    }
+
+    @Test
+    public void skipSlowAndFailedTenants() {
+        tenants.put("tenant-slow", NEVER);
+        tenants.put("tenant-failed", FAILURE);
+        tenants.put("tenant-ok", LATENCY);
+        final FakeAccount account = new FakeAccount(USER);
+        account.setTenantTimeout(Duration.ofMillis(500));
+
+        final List<Subscription> subscriptions = account.loadSubscriptions();
+
+        assertEquals(Collections.singletonList("tenant-ok"), getTenantIds(subscriptions));
+        assertEquals(0, inflight.get());
+    }
+
+    @Test
+    public void loadFromPersistedIndex() throws InterruptedException {
+        tenants.put("tenant-1", LATENCY);
+        tenants.put("tenant-2", LATENCY);
+        final List<Subscription> loaded = new FakeAccount(USER).loadSubscriptions();
+        assertNotNull(tenantListings.poll());
+
+        // a new session is served from the index while the remote is unavailable, then revalidates it in background
+        remote = new CountDownLatch(1);
+        final List<Subscription> indexed = new FakeAccount(USER).loadSubscriptions();
+        assertEquals(loaded, indexed);
+        assertEquals(Arrays.asList("tenant-1", "tenant-2"), getTenantIds(indexed));
+        assertFalse(indexed.stream().anyMatch(Subscription::isSelected));
+        assertTrue(tenantListings.isEmpty());
+
+        remote.countDown();
+        assertNotNull(tenantListings.poll(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void loadIndexOfSignedInUserOnly() {
+        tenants.put("tenant-1", LATENCY);
+        new FakeAccount(USER).loadSubscriptions();
+        assertNotNull(tenantListings.poll());
+
+        // another user signing in with the same client must not be served with the subscriptions of the previous one
+        new FakeAccount("another@contoso.com").loadSubscriptions();
+        assertNotNull(tenantListings.poll());
+    }
+
+    @Test
+    public void keepSelectionOnRevalidation() throws InterruptedException {
+        tenants.put("tenant-1", LATENCY);
+        tenants.put("tenant-2", LATENCY);
+        new FakeAccount(USER).loadSubscriptions();
+        assertNotNull(tenantListings.poll());
+
+        remote = new CountDownLatch(1);
+        final FakeAccount account = new FakeAccount(USER);
+        account.login();
+        final Subscription indexed = account.getSubscriptions().get(0);
+        account.setSelectedSubscriptions(Collections.singletonList("subscription-of-tenant-2"));
+        remote.countDown();
+
+        // the revalidated subscriptions replace the indexed ones and keep the selection
+        new Poller<>("revalidated subscriptions", account::getSubscriptions)
+            .until(subscriptions -> subscriptions.get(0) != indexed)
+            .withTimeout(Duration.ofSeconds(TIMEOUT))
+            .poll();
+        assertEquals(Collections.singletonList("tenant-2"), getTenantIds(account.getSelectedSubscriptions()));
+    }
+
+    private static List<String> getTenantIds(List<Subscription> subscriptions) {
+        return subscriptions.stream().map(Subscription::getTenantId).sorted().collect(Collectors.toList());
+    }
+
+    /**
+     * an account backed by a fake resource manager, which lists {@link #tenants} and one subscription per tenant.
+     */
+    private class FakeAccount extends Account {
+        FakeAccount(String username) {
+            super(new AuthConfiguration(AuthType.AZURE_CLI));
+            this.username = username;
+            this.setSubscriptionIndex(index);
+        }
+
+        @Override
+        protected void resolveUsername(TokenCredential defaultTokenCredential) {
+        }
+
+        @Nonnull
+        @Override
+        protected TokenCredential buildDefaultTokenCredential() {
+            return mock(TokenCredential.class);
+        }
+
+        @Override
+        public boolean checkAvailable() {
+            return true;
+        }
+
+        @Override
+        public AuthType getType() {
+            return AuthType.AZURE_CLI;
+        }
+
+        @Nonnull
+        @Override
+        protected List<String> listTenantIds() {
+            try {
+                assertTrue(remote.await(TIMEOUT, TimeUnit.SECONDS));
+            } catch (final InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            tenantListings.add("listed");
+            return new ArrayList<>(tenants.keySet());
+        }
+
+        @Nonnull
+        @Override
+        protected Mono<List<Subscription>> listSubscriptions(@Nonnull String tenantId) {
+            final Duration latency = tenants.get(tenantId);
+            if (latency == FAILURE) {
+                return Mono.error(new IllegalStateException("forbidden"));
+            }
+            maxInflight.accumulateAndGet(inflight.incrementAndGet(), Math::max);
+            final Subscription subscription = new Subscription("subscription-of-" + tenantId, tenantId, tenantId, false);
+            return Mono.delay(latency).map(ignore -> Collections.singletonList(subscription))
+                .doFinally(signal -> inflight.decrementAndGet());
+        }
+    }
+
+    private static class PooledTaskManager extends AzureTaskManager {
+        @Override
+        protected void doRead(Runnable runnable, AzureTask<?> task) {
+            throw new UnsupportedOperationException("not support");
+        }
+
+        @Override
+        protected void doWrite(Runnable runnable, AzureTask<?> task) {
+            throw new UnsupportedOperationException("not support");
+        }
+
+        @Override
+        protected void doRunLater(Runnable runnable, AzureTask<?> task) {
+            throw new UnsupportedOperationException("not support");
+        }
+
+        @Override
+        protected void doRunOnPooledThread(Runnable runnable, AzureTask<?> task) {
+            new Thread(runnable).start();
+        }
+
+        @Override
+        protected void doRunAndWait(Runnable runnable, AzureTask<?> task) {
+            runnable.run();
+        }
+
+        @Override
+        protected void doRunInBackground(Runnable runnable, AzureTask<?> task) {
+            doRunOnPooledThread(runnable, task);
+        }
+
+        @Override
+        protected void doRunInModal(Runnable runnable, AzureTask<?> task) {
+            throw new UnsupportedOperationException("not support");
+        }
+    }
+}
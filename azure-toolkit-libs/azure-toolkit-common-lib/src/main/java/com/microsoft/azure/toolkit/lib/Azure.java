@@ -11,15 +11,19 @@ import com.microsoft.azure.toolkit.lib.common.model.AbstractAzResource;
 import com.microsoft.azure.toolkit.lib.common.model.AbstractAzService;
 import com.microsoft.azure.toolkit.lib.common.operation.AzureOperation;
 import com.microsoft.azure.toolkit.lib.resource.AzureResources;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,7 +35,7 @@ public class Azure {
         this.configuration = new AzureConfiguration();
     }
 
-    public static synchronized <T extends AzService> T az(final Class<T> clazz) {
+    public static <T extends AzService> T az(final Class<T> clazz) {
         final T service = Optional.ofNullable(getService(clazz)).orElseGet(() -> {
             ServiceManager.reload();
             return getService(clazz);
@@ -42,7 +46,7 @@ public class Azure {
 
     @Nullable
     private static <T extends AzService> T getService(Class<T> clazz) {
-        return ServiceManager.getServices().stream().filter(clazz::isInstance).map(clazz::cast).findAny().orElse(null);
+        return ServiceManager.getService(clazz).map(clazz::cast).orElse(null);
     }
 
     @Nullable
@@ -97,21 +101,48 @@ public class Azure {
         return this.configuration;
     }
 
+    /**
+     * services are loaded once into an immutable registry, lookups by class (including super classes and interfaces)
+     * are memoized in the registry so that {@link #az(Class)} is lock free after the first call.
+     */
     private static class ServiceManager {
         private static final ServiceLoader<AzService> loader = ServiceLoader.load(AzService.class, Azure.class.getClassLoader());
-        private static final List<AzService> services = new ArrayList<>();
+        private static volatile Registry registry;
 
-        public static synchronized List<AzService> getServices() {
-            if (services.isEmpty()) {
-                reload();
-            }
-            return services;
+        public static List<AzService> getServices() {
+            return getRegistry().services;
+        }
+
+        public static Optional<AzService> getService(@Nonnull final Class<?> clazz) {
+            final Registry current = getRegistry();
+            final Optional<AzService> cached = current.index.get(clazz); // avoid bin locking of `computeIfAbsent` on hits
+            return cached != null ? cached : current.index.computeIfAbsent(clazz, c -> current.services.stream().filter(c::isInstance).findAny());
+        }
+
+        private static Registry getRegistry() {
+            final Registry current = registry;
+            return current != null ? current : load(null);
         }
 
-        public static synchronized void reload() {
+        public static void reload() {
+            load(registry);
+        }
+
+        private static synchronized Registry load(@Nullable final Registry stale) {
+            if (registry != stale) { // already (re)loaded by another thread
+                return registry;
+            }
+            final List<AzService> loaded = new ArrayList<>();
             ServiceManager.loader.reload();
-            services.clear();
-            ServiceManager.loader.forEach(services::add);
+            ServiceManager.loader.forEach(loaded::add);
+            registry = new Registry(Collections.unmodifiableList(loaded));
+            return registry;
+        }
+
+        @RequiredArgsConstructor
+        private static class Registry {
+            private final List<AzService> services;
+            private final Map<Class<?>, Optional<AzService>> index = new ConcurrentHashMap<>();
         }
     }
 }
@@ -5,9 +5,13 @@
 
 package com.microsoft.azure.toolkit.lib.common.cache;
 
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.google.common.cache.AbstractCache;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
 import com.google.common.cache.LoadingCache;
 import com.microsoft.azure.toolkit.lib.common.utils.aspect.ExpressionUtils;
 import com.microsoft.azure.toolkit.lib.common.utils.aspect.MethodInvocation;
@@ -21,30 +25,34 @@ import org.aspectj.lang.reflect.MethodSignature;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.lang.reflect.Method;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 @Aspect
 @Log
 public class CacheManager {
+    private static final long DEFAULT_EXPIRE_AFTER_ACCESS = TimeUnit.HOURS.toSeconds(4); // TODO: justify
     private static final CacheLoader<String, Cache<Object, Object>> loader = new CacheLoader<String, Cache<Object, Object>>() {
         @Nonnull
         @Override
         public Cache<Object, Object> load(@Nonnull String key) {
-            return CacheBuilder.newBuilder()
-                .softValues()
-                .expireAfterAccess(4, TimeUnit.HOURS) // TODO: justify
-                .build();
+            return buildCache(key, -1, -1);
         }
     };
+    // kept apart from the named caches, which are soft values and may be collected together with their own stats
+    private static final Map<String, AbstractCache.SimpleStatsCounter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyRecorder> latencies = new ConcurrentHashMap<>();
     private static final LoadingCache<String, Cache<Object, Object>> caches = CacheBuilder.newBuilder()
         .softValues()
-        .expireAfterAccess(4, TimeUnit.HOURS) // TODO: justify
+        .expireAfterAccess(DEFAULT_EXPIRE_AFTER_ACCESS, TimeUnit.SECONDS)
         .build(loader);
 
     private static final Map<Class<?>, Object> histories = new ConcurrentHashMap<>();
@@ -74,15 +82,18 @@ public class CacheManager {
         }
         final String condition = annotation.condition();
         final boolean toUseCache = StringUtils.isBlank(condition) || ExpressionUtils.evaluate(condition, invocation, true);
-        final Cache<Object, Object> cache = caches.get(name);
+        final Cache<Object, Object> cache = caches.get(name, () -> buildCache(name, annotation.maxSize(), annotation.expireAfterAccess()));
         if (toUseCache) {
             log.fine(String.format("loading data from cache[%s.%s] on method[%s]", name, key, signature.getName()));
-            return readCache(cache, key, point);
+            return readCache(name, cache, key, point, annotation);
         }
         log.fine(String.format("skipping cache[%s.%s] on method[%s]", name, key, signature.getName()));
         final Object result = point.proceed();
         if (Objects.nonNull(result)) {
             cache.put(key, Optional.of(result));
+            if (annotation.persistent()) {
+                PersistentCache.getInstance().put(name, key, result, annotation.persistentTtl());
+            }
         }
         return result;
     }
@@ -112,29 +123,61 @@ public class CacheManager {
         } else if (StringUtils.equals(CacheEvict.ALL, name)) { // invalidate all cache entries if cache name not specified
             log.fine("invalidate all caches");
             caches.invalidateAll();
+            PersistentCache.getInstance().invalidate(name, key);
         } else {
             if (StringUtils.isBlank(key)) {
                 log.warning(String.format("key is not specified when invalidating cache[%s]", name));
             } else if (StringUtils.equals(CacheEvict.ALL, key)) { // invalidate all cache entries of named cache if only cache name is specified
                 log.fine(String.format("invalidate all entries in cache[%s]", name));
                 caches.invalidate(name);
+                PersistentCache.getInstance().invalidate(name, key);
             } else { // invalidate key specified cache entry of named cache if both cache name and key are specified
                 log.fine(String.format("invalidate cache entry[%s.%s]", name, key));
                 caches.get(name).invalidate(key);
+                PersistentCache.getInstance().invalidate(name, key);
             }
         }
     }
 
-    private Object readCache(Cache<Object, Object> cache, String key, ProceedingJoinPoint point) throws Throwable {
+    private Object readCache(String name, Cache<Object, Object> cache, String key, ProceedingJoinPoint point, Cacheable annotation) throws Throwable {
+        final AtomicLong loadNanos = new AtomicLong(-1); // stays negative on cache hit
         final Optional<?> result = (Optional<?>) cache.get(key, () -> {
+            final long start = System.nanoTime();
             try {
                 log.fine(String.format("cache[%s] miss on method[%s]", key, point.getSignature().getName()));
-                return Optional.ofNullable(point.proceed());
+                if (!annotation.persistent()) {
+                    return Optional.ofNullable(point.proceed());
+                }
+                final Method method = ((MethodSignature) point.getSignature()).getMethod();
+                final JavaType type = TypeFactory.defaultInstance().constructType(method.getGenericReturnType());
+                final Object persisted = PersistentCache.getInstance().get(name, key, type);
+                if (Objects.nonNull(persisted)) {
+                    log.fine(String.format("persistent cache[%s.%s] hit on method[%s]", name, key, method.getName()));
+                    return Optional.of(persisted);
+                }
+                final Object loaded = point.proceed();
+                if (Objects.nonNull(loaded)) {
+                    PersistentCache.getInstance().put(name, key, loaded, annotation.persistentTtl());
+                }
+                return Optional.ofNullable(loaded);
             } catch (final Throwable throwable) {
                 log.log(Level.FINE, String.format("error occurs on loading data into cache[%s] on method[%s]", key, point.getSignature().getName()), throwable);
                 return Optional.of(throwable);
+            } finally {
+                loadNanos.set(System.nanoTime() - start);
+                latencies.computeIfAbsent(name, n -> new LatencyRecorder()).record(loadNanos.get());
             }
         });
+        final AbstractCache.SimpleStatsCounter counter = getCounter(name);
+        if (loadNanos.get() < 0) {
+            counter.recordHits(1);
+        } else if (result.isPresent() && result.get() instanceof Throwable) {
+            counter.recordMisses(1);
+            counter.recordLoadException(loadNanos.get());
+        } else {
+            counter.recordMisses(1);
+            counter.recordLoadSuccess(loadNanos.get());
+        }
         if (result.isPresent() && result.get() instanceof Throwable) {
             cache.invalidate(key);
             throw (Throwable) result.get();
@@ -143,6 +186,41 @@ public class CacheManager {
         }
     }
 
+    /**
+     * @return statistics snapshot of all named caches, including the ones that have been invalidated/evicted.
+     */
+    @Nonnull
+    public static Map<String, CacheStatistics> stats() {
+        final Map<String, CacheStatistics> result = new TreeMap<>();
+        counters.forEach((name, counter) -> {
+            final CacheStats stats = counter.snapshot();
+            result.put(name, CacheStatistics.of(name, stats, latencies.getOrDefault(name, new LatencyRecorder())));
+        });
+        return result;
+    }
+
+    @Nonnull
+    private static AbstractCache.SimpleStatsCounter getCounter(@Nonnull String name) {
+        return counters.computeIfAbsent(name, n -> new AbstractCache.SimpleStatsCounter());
+    }
+
+    @Nonnull
+    private static Cache<Object, Object> buildCache(@Nonnull String name, long maxSize, long expireAfterAccess) {
+        final AbstractCache.SimpleStatsCounter counter = getCounter(name);
+        final CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder()
+            .softValues()
+            .expireAfterAccess(expireAfterAccess > 0 ? expireAfterAccess : DEFAULT_EXPIRE_AFTER_ACCESS, TimeUnit.SECONDS)
+            .removalListener(notification -> {
+                if (notification.wasEvicted()) {
+                    counter.recordEviction();
+                }
+            });
+        if (maxSize > 0) {
+            builder.maximumSize(maxSize);
+        }
+        return builder.build();
+    }
+
     @SuppressWarnings("unchecked")
     public static <T> LRUStack<T> getUsageHistory(final Class<T> clazz) {
         if (histories.containsKey(clazz)) {
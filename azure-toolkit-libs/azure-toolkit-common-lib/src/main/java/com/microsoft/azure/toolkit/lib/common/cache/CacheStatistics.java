@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import com.google.common.cache.CacheStats;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * snapshot of the statistics of a named cache managed by {@link CacheManager}.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CacheStatistics {
+    private final String name;
+    private final long hitCount;
+    private final long missCount;
+    private final long loadCount;
+    private final long evictionCount;
+    /**
+     * median of recent load latencies in milliseconds
+     */
+    private final double p50LoadMillis;
+    /**
+     * 99th percentile of recent load latencies in milliseconds
+     */
+    private final double p99LoadMillis;
+
+    static CacheStatistics of(@Nonnull String name, @Nonnull CacheStats stats, @Nonnull LatencyRecorder latencies) {
+        return new CacheStatistics(name, stats.hitCount(), stats.missCount(), stats.loadCount(), stats.evictionCount(),
+            toMillis(latencies.percentile(50)), toMillis(latencies.percentile(99)));
+    }
+
+    public long getRequestCount() {
+        return this.hitCount + this.missCount;
+    }
+
+    public double getHitRate() {
+        final long requests = this.getRequestCount();
+        return requests == 0 ? 1.0 : (double) this.hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("cache[%s]: requests=%d, hit rate=%.1f%%, loads=%d, evictions=%d, load p50=%.1fms, p99=%.1fms",
+            this.name, this.getRequestCount(), this.getHitRate() * 100, this.loadCount, this.evictionCount, this.p50LoadMillis, this.p99LoadMillis);
+    }
+
+    private static double toMillis(long nanos) {
+        return (double) nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
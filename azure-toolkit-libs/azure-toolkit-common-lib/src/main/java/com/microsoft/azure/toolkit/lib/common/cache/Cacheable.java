@@ -42,4 +42,27 @@ public @interface Cacheable {
      * e.g. groovy expression: {@code "this.isLoading()" } {@code "this.loading" },  {@code "this.subscriptionId=='xxx'" }
      */
     String condition() default "";
+
+    /**
+     * maximum number of entries of the named cache, non-positive value means unbounded.
+     * only takes effect when the named cache is created, i.e. the first cached method invoked decides it.
+     */
+    long maxSize() default -1;
+
+    /**
+     * expiration (in seconds) of entries after last access, non-positive value means the default (4 hours).
+     * only takes effect when the named cache is created, i.e. the first cached method invoked decides it.
+     */
+    long expireAfterAccess() default -1;
+
+    /**
+     * whether to also store the result in the on-disk {@link PersistentCache} so that it survives across JVMs.
+     * only opt in for results that are json serializable, not sensitive and change rarely, e.g. regions of a subscription.
+     */
+    boolean persistent() default false;
+
+    /**
+     * time to live (in seconds) of persisted entries, only takes effect when {@link #persistent()} is true.
+     */
+    long persistentTtl() default 24 * 60 * 60;
 }
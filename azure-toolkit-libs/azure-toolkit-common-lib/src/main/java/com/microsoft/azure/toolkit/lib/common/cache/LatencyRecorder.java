@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import java.util.Arrays;
+
+/**
+ * keeps the latest {@link #CAPACITY} samples (in nanoseconds) in a ring buffer for computing percentiles.
+ */
+class LatencyRecorder {
+    private static final int CAPACITY = 1024;
+    private final long[] samples = new long[CAPACITY];
+    private long count = 0;
+
+    public synchronized void record(long nanos) {
+        this.samples[(int) (this.count++ % CAPACITY)] = nanos;
+    }
+
+    /**
+     * @param percentile in range (0, 100]
+     * @return the sample at the given percentile in nanoseconds, 0 if there is no sample.
+     */
+    public long percentile(double percentile) {
+        final long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(this.samples, (int) Math.min(this.count, CAPACITY));
+        }
+        if (sorted.length == 0) {
+            return 0;
+        }
+        Arrays.sort(sorted);
+        final int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+}
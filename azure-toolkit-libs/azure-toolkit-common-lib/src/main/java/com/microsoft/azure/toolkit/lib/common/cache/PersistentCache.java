@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microsoft.azure.toolkit.lib.common.utils.InstallationIdUtils;
+import lombok.Data;
+import lombok.Getter;
+import lombok.extern.java.Log;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.BooleanUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * file based second tier of {@link CacheManager} for {@link Cacheable#persistent()} caches, which survives across JVMs.
+ * every entry is stored as a json file at {@code <root>/<hash of cache name>/<hash of key>.json} and written through
+ * a temp file plus atomic rename, so that concurrent processes never read partially written entries. the root is owned
+ * by this class, but only files in the layout above are ever deleted.
+ */
+@Log
+public class PersistentCache {
+    /**
+     * bump when the layout of entries changes, entries of other versions are treated as missing.
+     */
+    public static final int SCHEMA_VERSION = 1;
+    public static final String DISABLED_PROPERTY = "azure.toolkit.cache.persistent.disabled";
+    // `~/.azure` is shared with azure cli and other tools
+    private static final Path DEFAULT_ROOT = Paths.get(System.getProperty("user.home"), ".azure", "azure-toolkit-cache");
+    private static final String SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final Pattern CACHE_DIRECTORY = Pattern.compile("[0-9a-f]{64}");
+    private static final Pattern ENTRY_FILE = Pattern.compile("[0-9a-f]{64}\\.json(\\d*\\.tmp)?");
+
+    @Getter
+    private static final PersistentCache instance = new PersistentCache(DEFAULT_ROOT);
+
+    private final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    @Getter
+    private final Path root;
+
+    public PersistentCache(@Nonnull final Path root) {
+        this.root = root;
+    }
+
+    public boolean isEnabled() {
+        return !BooleanUtils.toBoolean(System.getProperty(DISABLED_PROPERTY));
+    }
+
+    /**
+     * @return the cached value, or {@code null} if it's absent, expired, of another schema version or not readable.
+     */
+    @Nullable
+    public Object get(@Nonnull final String name, @Nonnull final String key, @Nonnull final JavaType type) {
+        if (!this.isEnabled()) {
+            return null;
+        }
+        final File file = this.getEntryFile(name, key).toFile();
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            final Entry entry = mapper.readValue(file, Entry.class);
+            if (entry.getSchema() != SCHEMA_VERSION || !StringUtils.equals(entry.getName(), name) || !StringUtils.equals(entry.getKey(), key)) {
+                return null;
+            }
+            if (entry.getExpiresAt() < System.currentTimeMillis()) {
+                Files.deleteIfExists(file.toPath());
+                return null;
+            }
+            return mapper.convertValue(entry.getValue(), type);
+        } catch (final Exception e) { // treat corrupted/incompatible entries as missing
+            log.log(Level.FINE, String.format("failed to read persistent cache entry[%s.%s]", name, key), e);
+            FileUtils.deleteQuietly(file);
+            return null;
+        }
+    }
+
+    public void put(@Nonnull final String name, @Nonnull final String key, @Nonnull final Object value, long ttlInSeconds) {
+        if (!this.isEnabled() || ttlInSeconds <= 0) {
+            return;
+        }
+        final Path target = this.getEntryFile(name, key);
+        Path temp = null;
+        try {
+            final Entry entry = new Entry();
+            entry.setSchema(SCHEMA_VERSION);
+            entry.setName(name);
+            entry.setKey(key);
+            entry.setExpiresAt(System.currentTimeMillis() + ttlInSeconds * 1000);
+            entry.setValue(mapper.valueToTree(value));
+            Files.createDirectories(target.getParent());
+            temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), TEMP_SUFFIX);
+            mapper.writeValue(temp.toFile(), entry);
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final Exception e) { // persisting is best effort only
+            log.log(Level.FINE, String.format("failed to persist cache entry[%s.%s]", name, key), e);
+            if (Objects.nonNull(temp)) {
+                FileUtils.deleteQuietly(temp.toFile());
+            }
+        }
+    }
+
+    /**
+     * invalidate entry of the named cache specified by {@code key}, or all entries of the named cache if {@code key} is
+     * {@link CacheEvict#ALL}, or all entries of all caches if {@code name} is {@link CacheEvict#ALL}
+     */
+    public void invalidate(@Nonnull final String name, @Nullable final String key) {
+        try {
+            if (StringUtils.equals(CacheEvict.ALL, name)) {
+                for (final Path directory : list(this.root, CACHE_DIRECTORY)) {
+                    deleteEntries(directory);
+                }
+            } else if (StringUtils.isBlank(key) || StringUtils.equals(CacheEvict.ALL, key)) {
+                deleteEntries(this.getCacheDirectory(name));
+            } else {
+                Files.deleteIfExists(this.getEntryFile(name, key));
+            }
+        } catch (final IOException e) {
+            log.log(Level.FINE, String.format("failed to invalidate persistent cache entry[%s.%s]", name, key), e);
+        }
+    }
+
+    /**
+     * delete entries (and leftover temp files) in the cache directory, and the directory itself if it becomes empty.
+     */
+    private static void deleteEntries(@Nonnull final Path directory) throws IOException {
+        for (final Path file : list(directory, ENTRY_FILE)) {
+            Files.deleteIfExists(file);
+        }
+        if (Files.isDirectory(directory) && list(directory, null).isEmpty()) {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    @Nonnull
+    private static List<Path> list(@Nonnull final Path directory, @Nullable final Pattern pattern) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (final Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> Objects.isNull(pattern) || pattern.matcher(f.getFileName().toString()).matches())
+                .collect(Collectors.toList());
+        }
+    }
+
+    @Nonnull
+    private Path getCacheDirectory(@Nonnull final String name) {
+        return this.root.resolve(InstallationIdUtils.hash("name:" + name));
+    }
+
+    @Nonnull
+    private Path getEntryFile(@Nonnull final String name, @Nonnull final String key) {
+        return this.getCacheDirectory(name).resolve(InstallationIdUtils.hash("key:" + key) + SUFFIX);
+    }
+
+    @Data
+    static class Entry {
+        private int schema;
+        private String name;
+        private String key;
+        private long expiresAt;
+        private JsonNode value;
+    }
+}
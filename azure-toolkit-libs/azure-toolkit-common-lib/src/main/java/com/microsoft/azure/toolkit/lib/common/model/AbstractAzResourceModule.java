@@ -12,7 +12,6 @@ import com.azure.resourcemanager.resources.fluentcore.arm.collection.SupportsGet
 import com.azure.resourcemanager.resources.fluentcore.arm.collection.SupportsGettingByResourceGroup;
 import com.azure.resourcemanager.resources.fluentcore.collection.SupportsDeletingById;
 import com.azure.resourcemanager.resources.fluentcore.collection.SupportsListing;
-import com.google.common.collect.Sets;
 import com.microsoft.azure.toolkit.lib.AzService;
 import com.microsoft.azure.toolkit.lib.Azure;
 import com.microsoft.azure.toolkit.lib.account.IAzureAccount;
@@ -31,22 +30,30 @@ import com.microsoft.azure.toolkit.lib.resource.ResourceGroupModule;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
+import lombok.Setter;
 import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.map.CaseInsensitiveMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.http.HttpStatus;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -61,6 +68,7 @@ import static com.microsoft.azure.toolkit.lib.common.model.AzResource.RESOURCE_G
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P, R>, P extends AbstractAzResource<P, ?, ?>, R>
     implements AzResourceModule<T, P, R> {
+    private static final int SET_REMOTE_BATCH_SIZE = 100;
     @Getter
     @Nonnull
     @ToString.Include
@@ -75,6 +83,26 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
     private final AtomicLong syncTimeRef = new AtomicLong(-1);
     @Nonnull
     private final Map<String, Optional<T>> resources = Collections.synchronizedMap(new CaseInsensitiveMap<>());
+    @Nonnull
+    private final Map<String, CompletableFuture<Optional<T>>> loadingResources = new ConcurrentHashMap<>();
+    /**
+     * time (in millis) when resources were found absent in Azure, keyed by lower-cased resource id.
+     */
+    @Nonnull
+    private final Map<String, Long> absences = new ConcurrentHashMap<>();
+    /**
+     * how long (in millis) an absent resource is remembered before {@link #get(String, String)} checks Azure again.
+     */
+    @Getter
+    @Setter
+    private long negativeCacheLifetime = AzResource.CACHE_LIFETIME;
+    /**
+     * bumped on every change of {@link #resources}, to tell whether {@link #sortedResources} is stale.
+     */
+    @Nonnull
+    private final AtomicLong resourcesVersion = new AtomicLong();
+    @Nullable
+    private volatile Pair<Long, List<T>> sortedResources;
 
     @Nonnull
     private final Debouncer fireEvents = new TailingDebouncer(this::fireChildrenChangedEvent, 300);
@@ -93,6 +121,8 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         if (this.lock.tryLock()) {
             try {
                 this.resources.entrySet().removeIf(e -> !e.getValue().isPresent());
+                this.onResourcesChanged();
+                this.absences.clear();
                 this.syncTimeRef.set(-1);
             } finally {
                 this.lock.unlock();
@@ -123,8 +153,28 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
             }
         }
         log.debug("[{}]:list->this.resources.values()", this.name);
-        return this.resources.values().stream().filter(Optional::isPresent).map(Optional::get)
-            .sorted(Comparator.comparing(AbstractAzResource::getName)).collect(Collectors.toList());
+        return new ArrayList<>(this.getSortedResources());
+    }
+
+    /**
+     * @return an immutable snapshot of cached resources sorted by name, which is rebuilt only if resources changed.
+     * it's shared, so public methods return copies of it, which callers may sort or filter in place.
+     */
+    @Nonnull
+    private List<T> getSortedResources() {
+        final long version = this.resourcesVersion.get();
+        final Pair<Long, List<T>> snapshot = this.sortedResources;
+        if (Objects.nonNull(snapshot) && snapshot.getKey() == version) {
+            return snapshot.getValue();
+        }
+        final List<T> sorted = Collections.unmodifiableList(this.resources.values().stream().filter(Optional::isPresent).map(Optional::get)
+            .sorted(Comparator.comparing(AbstractAzResource::getName)).collect(Collectors.toList()));
+        this.sortedResources = Pair.of(version, sorted);
+        return sorted;
+    }
+
+    private void onResourcesChanged() {
+        this.resourcesVersion.incrementAndGet();
     }
 
     private void reloadResources() {
@@ -132,19 +182,23 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         this.syncTimeRef.set(0);
         try {
             log.debug("[{}]:reloadResources->loadResourcesFromAzure()", this.name);
-            final Map<String, R> loadedResources = this.loadResourcesFromAzure()
-                .collect(Collectors.toMap(r -> this.newResource(r).getId().toLowerCase(), r -> r));
-            log.debug("[{}]:reloadResources->setResources(xxx)", this.name);
-            this.setResources(loadedResources);
+            final Set<String> loaded = new HashSet<>();
+            try (Stream<R> remotes = this.loadResourcesFromAzure()) {
+                log.debug("[{}]:reloadResources->syncResources(xxx)", this.name);
+                this.syncResources(remotes.iterator(), loaded);
+            }
+            log.debug("[{}]:reloadResources->deleteStaleResources(xxx)", this.name);
+            this.deleteStaleResources(loaded);
         } catch (Exception e) {
-            log.debug("[{}]:reloadResources->setResources([])", this.name);
+            log.debug("[{}]:reloadResources->EXCEPTION", this.name);
             final Throwable cause = e instanceof ManagementException ? e : ExceptionUtils.getRootCause(e);
             if (cause instanceof ManagementException && HttpStatus.SC_NOT_FOUND == ((ManagementException) cause).getResponse().getStatusCode()) {
                 log.debug("[{}]:reloadResources->loadResourceFromAzure()=SC_NOT_FOUND", this.name, e);
-                this.setResources(Collections.emptyMap());
+                this.deleteStaleResources(Collections.emptySet());
             } else {
                 log.debug("[{}]:reloadResources->loadResourcesFromAzure()=EXCEPTION", this.name, e);
                 this.resources.clear();
+                this.onResourcesChanged();
                 this.syncTimeRef.compareAndSet(0, -1);
                 AzureMessager.getMessager().error(e);
                 throw e;
@@ -152,34 +206,47 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         }
     }
 
-    private void setResources(Map<String, R> loadedResources) {
-        final Set<String> localResources = this.resources.values().stream().filter(Optional::isPresent).map(Optional::get)
-            .map(AbstractAzResource::getId).map(String::toLowerCase).collect(Collectors.toSet());
-        final Set<String> creating = this.resources.values().stream().filter(Optional::isPresent).map(Optional::get)
-            .filter(AbstractAzResource::isDraftForCreating)
-            .map(AbstractAzResource::getId).map(String::toLowerCase).collect(Collectors.toSet());
-        log.debug("[{}]:reload().creating={}", this.name, creating);
-        final Sets.SetView<String> refreshed = Sets.intersection(localResources, loadedResources.keySet());
-        log.debug("[{}]:reload().refreshed={}", this.name, refreshed);
-        final Sets.SetView<String> deleted = Sets.difference(Sets.difference(localResources, loadedResources.keySet()), creating);
-        log.debug("[{}]:reload().deleted={}", this.name, deleted);
-        final Sets.SetView<String> added = Sets.difference(loadedResources.keySet(), localResources);
-        log.debug("[{}]:reload().added={}", this.name, added);
-        log.debug("[{}]:reload.deleted->deleteResourceFromLocal", this.name);
-        deleted.forEach(id -> this.resources.get(id).ifPresent(r -> {
-            r.deleteFromCache();
-            r.setRemote(null);
-        }));
-
+    /**
+     * apply remote resources to local one by one while they are being paged in, so that the full listing is never
+     * materialized. {@link AbstractAzResource#setRemote} of refreshed/added resources are dispatched to pooled threads in batches.
+     */
+    private void syncResources(@Nonnull Iterator<R> remotes, @Nonnull Set<String> loaded) {
         final AzureTaskManager m = AzureTaskManager.getInstance();
-        log.debug("[{}]:reload.refreshed->resource.setRemote", this.name);
-        refreshed.forEach(id -> this.resources.get(id).ifPresent(r -> m.runOnPooledThread(() -> r.setRemote(loadedResources.get(id)))));
-        log.debug("[{}]:reload.added->addResourceToLocal", this.name);
-        added.forEach(id -> {
-            final R remote = loadedResources.get(id);
+        List<Runnable> batch = new ArrayList<>(SET_REMOTE_BATCH_SIZE);
+        while (remotes.hasNext()) {
+            final R remote = remotes.next();
             final T resource = this.newResource(remote);
-            m.runOnPooledThread(() -> resource.setRemote(remote));
-            this.addResourceToLocal(id, resource, true);
+            final String id = resource.getId().toLowerCase();
+            loaded.add(id);
+            final Optional<T> local = this.resources.getOrDefault(id, Optional.empty());
+            if (local.isPresent()) {
+                log.debug("[{}]:reload.refreshed({})->resource.setRemote", this.name, id);
+                batch.add(() -> local.get().setRemote(remote));
+            } else {
+                log.debug("[{}]:reload.added({})->addResourceToLocal", this.name, id);
+                batch.add(() -> resource.setRemote(remote));
+                this.addResourceToLocal(id, resource, true);
+            }
+            if (batch.size() >= SET_REMOTE_BATCH_SIZE) {
+                final List<Runnable> full = batch;
+                m.runOnPooledThread(() -> full.forEach(Runnable::run));
+                batch = new ArrayList<>(SET_REMOTE_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            final List<Runnable> rest = batch;
+            m.runOnPooledThread(() -> rest.forEach(Runnable::run));
+        }
+    }
+
+    private void deleteStaleResources(@Nonnull Set<String> loaded) {
+        final List<T> deleted = this.resources.values().stream().filter(Optional::isPresent).map(Optional::get)
+            .filter(r -> !r.isDraftForCreating() && !loaded.contains(r.getId().toLowerCase()))
+            .collect(Collectors.toList());
+        log.debug("[{}]:reload().deleted={}", this.name, deleted.size());
+        deleted.forEach(r -> {
+            r.deleteFromCache();
+            r.setRemote(null);
         });
         this.syncTimeRef.set(System.currentTimeMillis());
     }
@@ -189,6 +256,8 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         try {
             this.lock.lock();
             this.resources.clear();
+            this.onResourcesChanged();
+            this.absences.clear();
             this.syncTimeRef.set(-1);
         } finally {
             this.lock.unlock();
@@ -206,21 +275,28 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         }
         Azure.az(IAzureAccount.class).account();
         final String id = this.toResourceId(name, resourceGroup).toLowerCase();
-        if (!this.resources.containsKey(id)) {
-            R remote = null;
-            try {
-                log.debug("[{}]:get({}, {})->loadResourceFromAzure()", this.name, name, resourceGroup);
-                remote = loadResourceFromAzure(name, resourceGroup);
-            } catch (Exception e) {
-                log.debug("[{}]:get({}, {})->loadResourceFromAzure()=EXCEPTION", this.name, name, resourceGroup, e);
-                final Throwable cause = e instanceof ManagementException ? e : ExceptionUtils.getRootCause(e);
-                if (cause instanceof ManagementException) {
-                    if (HttpStatus.SC_NOT_FOUND != ((ManagementException) cause).getResponse().getStatusCode()) {
-                        log.debug("[{}]:get({}, {})->loadResourceFromAzure()=SC_NOT_FOUND", this.name, name, resourceGroup, e);
-                        throw e;
-                    }
-                }
-            }
+        if (!this.resources.containsKey(id) || this.isAbsenceExpired(id)) {
+            return this.loadResourceSingleFlight(id, name, resourceGroup);
+        }
+        log.debug("[{}]:get({}, {})->this.resources.get({})", this.name, id, resourceGroup, name);
+        return this.resources.get(id).orElse(null);
+    }
+
+    /**
+     * concurrent callers asking for the same missing resource share the same in-flight {@link #loadResourceFromAzure} call
+     * and get the same local resource, which is published before the in-flight call is removed, so that late callers
+     * always find either of them.
+     */
+    @Nullable
+    private T loadResourceSingleFlight(@Nonnull String id, @Nonnull String name, @Nullable String resourceGroup) {
+        final CompletableFuture<Optional<T>> future = new CompletableFuture<>();
+        final CompletableFuture<Optional<T>> inflight = this.loadingResources.putIfAbsent(id, future);
+        if (Objects.nonNull(inflight)) {
+            log.debug("[{}]:get({}, {})->join in-flight loadResourceFromAzure()", this.name, name, resourceGroup);
+            return join(inflight);
+        }
+        try {
+            final R remote = this.loadResourceFromAzureIfExists(name, resourceGroup);
             if (Objects.isNull(remote)) {
                 log.debug("[{}]:get({}, {})->addResourceToLocal({}, null)", this.name, name, resourceGroup, name);
                 this.addResourceToLocal(id, null, true);
@@ -230,9 +306,51 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
                 log.debug("[{}]:get({}, {})->addResourceToLocal({}, resource)", this.name, name, resourceGroup, name);
                 this.addResourceToLocal(resource.getId(), resource, true);
             }
+            future.complete(this.resources.getOrDefault(id, Optional.empty()));
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        } finally {
+            this.loadingResources.remove(id, future);
         }
-        log.debug("[{}]:get({}, {})->this.resources.get({})", this.name, id, resourceGroup, name);
-        return this.resources.get(id).orElse(null);
+        return join(future);
+    }
+
+    @Nullable
+    private R loadResourceFromAzureIfExists(@Nonnull String name, @Nullable String resourceGroup) {
+        try {
+            log.debug("[{}]:get({}, {})->loadResourceFromAzure()", this.name, name, resourceGroup);
+            return loadResourceFromAzure(name, resourceGroup);
+        } catch (Exception e) {
+            log.debug("[{}]:get({}, {})->loadResourceFromAzure()=EXCEPTION", this.name, name, resourceGroup, e);
+            final Throwable cause = e instanceof ManagementException ? e : ExceptionUtils.getRootCause(e);
+            if (cause instanceof ManagementException) {
+                if (HttpStatus.SC_NOT_FOUND != ((ManagementException) cause).getResponse().getStatusCode()) {
+                    log.debug("[{}]:get({}, {})->loadResourceFromAzure()=SC_NOT_FOUND", this.name, name, resourceGroup, e);
+                    throw e;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Nullable
+    private T join(@Nonnull CompletableFuture<Optional<T>> future) {
+        try {
+            return future.join().orElse(null);
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new AzureToolkitRuntimeException(cause);
+        }
+    }
+
+    private boolean isAbsenceExpired(@Nonnull String id) {
+        final Long since = this.absences.get(id);
+        return Objects.nonNull(since) && System.currentTimeMillis() - since > this.negativeCacheLifetime;
     }
 
     @Nullable
@@ -294,8 +412,7 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
 
     @Nonnull
     public List<T> listCachedResources() { // getResources
-        return this.resources.values().stream().filter(Optional::isPresent).map(Optional::get)
-            .sorted(Comparator.comparing(AbstractAzResource::getName)).collect(Collectors.toList());
+        return new ArrayList<>(this.getSortedResources());
     }
 
     @Nonnull
@@ -384,6 +501,7 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         log.debug("[{}]:deleteResourceFromLocal->this.resources.remove({})", this.name, id);
         id = id.toLowerCase();
         final Optional<T> removed = this.resources.remove(id);
+        this.onResourcesChanged();
         if (Objects.nonNull(removed) && removed.isPresent()) {
             this.deleteResourceFromLocalResourceGroup(removed.get(), silent);
             if ((silent.length == 0 || !silent[0])) {
@@ -408,9 +526,15 @@ public abstract class AbstractAzResourceModule<T extends AbstractAzResource<T, P
         id = id.toLowerCase();
         final Optional<T> oldResource = this.resources.getOrDefault(id, Optional.empty());
         final Optional<T> newResource = Optional.ofNullable(resource);
+        if (newResource.isPresent()) {
+            this.absences.remove(id);
+        } else if (!oldResource.isPresent()) {
+            this.absences.put(id, System.currentTimeMillis());
+        }
         if (!oldResource.isPresent()) {
             log.debug("[{}]:addResourceToLocal->this.resources.put({}, {})", this.name, id, resource);
             this.resources.put(id, newResource);
+            this.onResourcesChanged();
             if (newResource.isPresent()) {
                 this.addResourceToLocalResourceGroup(id, resource, silent);
                 if (silent.length == 0 || !silent[0]) {
@@ -15,6 +15,11 @@ import lombok.SneakyThrows;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 
@@ -39,6 +44,12 @@ public class AzureTask<T> extends OperationBase {
     @Builder.Default
     private String type = "ASYNC";
     private Monitor monitor;
+    /**
+     * tasks that must complete before this task starts, honored by {@link AzureTaskGraph}.
+     */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private final List<AzureTask<?>> dependencies = new ArrayList<>();
 
     public AzureTask() {
         this((Callable<T>) null);
@@ -153,6 +164,20 @@ public class AzureTask<T> extends OperationBase {
         return Optional.ofNullable(this.body).orElse(this::doExecute);
     }
 
+    /**
+     * declare tasks that must complete before this task starts, {@code null}s are ignored.
+     */
+    @Nonnull
+    public AzureTask<T> dependsOn(@Nullable AzureTask<?>... tasks) {
+        Optional.ofNullable(tasks).map(Arrays::stream).ifPresent(s -> s.filter(Objects::nonNull).forEach(this.dependencies::add));
+        return this;
+    }
+
+    @Nonnull
+    public List<AzureTask<?>> getDependencies() {
+        return Collections.unmodifiableList(this.dependencies);
+    }
+
     @SneakyThrows
     public final T execute() {
         return this.getBody().call();
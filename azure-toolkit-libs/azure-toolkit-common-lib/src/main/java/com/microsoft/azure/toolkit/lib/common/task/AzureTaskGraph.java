@@ -0,0 +1,218 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.task;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import com.microsoft.azure.toolkit.lib.common.operation.OperationThreadContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * executes {@link AzureTask}s according to their {@link AzureTask#getDependencies() dependencies}: a task starts as soon
+ * as all its dependencies completed, so that independent tasks run concurrently on a bounded pool. dependencies that
+ * are not in the given tasks are executed too. once a task fails, tasks that have not started yet are skipped.
+ */
+public class AzureTaskGraph {
+    public static final int DEFAULT_PARALLELISM = 4;
+    private static final AtomicInteger poolCount = new AtomicInteger();
+
+    private final int parallelism;
+
+    public AzureTaskGraph() {
+        this(DEFAULT_PARALLELISM);
+    }
+
+    public AzureTaskGraph(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * execute the {@code tasks} and wait for all of them to complete.
+     *
+     * @return timings of the executed tasks, including the critical path.
+     * @throws Exception the first error thrown by the tasks.
+     */
+    @Nonnull
+    public Report execute(@Nonnull Collection<? extends AzureTask<?>> tasks) throws Exception {
+        final List<AzureTask<?>> sorted = sort(tasks);
+        final Map<AzureTask<?>, Node> nodes = new IdentityHashMap<>();
+        final List<Node> ordered = new ArrayList<>();
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final int poolSize = Math.max(1, Math.min(this.parallelism, sorted.size()));
+        final int poolId = poolCount.incrementAndGet();
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(poolSize, r -> {
+            final Thread thread = new Thread(r, String.format("azure-task-graph-%d-%d", poolId, threadCount.incrementAndGet()));
+            thread.setDaemon(true);
+            return thread;
+        });
+        final long origin = System.nanoTime();
+        try {
+            for (final AzureTask<?> task : sorted) {
+                final List<Node> dependencies = task.getDependencies().stream().map(nodes::get).collect(Collectors.toList());
+                final Node node = new Node(task, dependencies, origin);
+                final CompletableFuture<?>[] upstreams = dependencies.stream().map(d -> d.future).toArray(CompletableFuture[]::new);
+                final OperationThreadContext context = OperationThreadContext.current().derive();
+                node.future = CompletableFuture.allOf(upstreams).thenRunAsync(() -> node.run(context, failure), pool);
+                nodes.put(task, node);
+                ordered.add(node);
+            }
+            CompletableFuture.allOf(ordered.stream().map(n -> n.future).toArray(CompletableFuture[]::new)).handle((r, e) -> null).join();
+        } finally {
+            pool.shutdownNow();
+        }
+        final Throwable error = failure.get();
+        if (error instanceof Exception) {
+            throw (Exception) error;
+        } else if (error instanceof Error) {
+            throw (Error) error;
+        }
+        return new Report(ordered, Duration.ofNanos(System.nanoTime() - origin));
+    }
+
+    @Nonnull
+    private static List<AzureTask<?>> sort(@Nonnull Collection<? extends AzureTask<?>> tasks) {
+        final List<AzureTask<?>> sorted = new ArrayList<>();
+        final Map<AzureTask<?>, Boolean> visited = new IdentityHashMap<>(); // false: visiting, true: visited
+        tasks.stream().filter(Objects::nonNull).forEach(t -> visit(t, visited, sorted));
+        return sorted;
+    }
+
+    private static void visit(@Nonnull AzureTask<?> task, @Nonnull Map<AzureTask<?>, Boolean> visited, @Nonnull List<AzureTask<?>> sorted) {
+        final Boolean state = visited.get(task);
+        if (Boolean.TRUE.equals(state)) {
+            return;
+        } else if (Boolean.FALSE.equals(state)) {
+            throw new AzureToolkitRuntimeException(String.format("circular dependency detected on task %s", task));
+        }
+        visited.put(task, false);
+        task.getDependencies().forEach(d -> visit(d, visited, sorted));
+        visited.put(task, true);
+        sorted.add(task);
+    }
+
+    @RequiredArgsConstructor
+    private static class Node {
+        private final AzureTask<?> task;
+        private final List<Node> dependencies;
+        private final long origin;
+        private CompletableFuture<Void> future;
+        private volatile long start = -1;
+        private volatile long end = -1;
+
+        private void run(@Nonnull OperationThreadContext context, @Nonnull AtomicReference<Throwable> failure) {
+            if (Objects.nonNull(failure.get())) {
+                throw new CancellationException(String.format("task %s is skipped due to previous failure", this.task));
+            }
+            final AtomicReference<Throwable> error = new AtomicReference<>();
+            context.run(() -> {
+                this.start = System.nanoTime() - this.origin;
+                try {
+                    this.task.getBody().call();
+                } catch (final Throwable t) {
+                    failure.compareAndSet(null, t);
+                    error.set(t);
+                } finally {
+                    this.end = System.nanoTime() - this.origin;
+                }
+            });
+            if (Objects.nonNull(error.get())) {
+                throw new CompletionException(error.get());
+            }
+        }
+
+        private boolean isExecuted() {
+            return this.end >= 0;
+        }
+
+        @Nonnull
+        private Timing toTiming() {
+            return new Timing(this.task, Duration.ofNanos(this.start), Duration.ofNanos(this.end));
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Timing {
+        private final AzureTask<?> task;
+        /**
+         * offset from the start of the graph execution.
+         */
+        private final Duration start;
+        private final Duration end;
+
+        @Nonnull
+        public Duration getDuration() {
+            return this.end.minus(this.start);
+        }
+
+        @Override
+        public String toString() {
+            final String name = Objects.nonNull(this.task.getDescription()) ? this.task.getDescription().toString() : this.task.getId();
+            return String.format("%s(%.1fs)", name, this.getDuration().toMillis() / 1000.0);
+        }
+    }
+
+    @Getter
+    public static class Report {
+        private final List<Timing> timings;
+        /**
+         * the chain of dependent tasks that determined the total time: starting from the last finished task, each step
+         * goes to the dependency that finished last.
+         */
+        private final List<Timing> criticalPath;
+        private final Duration wallTime;
+
+        private Report(@Nonnull List<Node> nodes, @Nonnull Duration wallTime) {
+            this.timings = Collections.unmodifiableList(nodes.stream().filter(Node::isExecuted).map(Node::toTiming).collect(Collectors.toList()));
+            this.criticalPath = Collections.unmodifiableList(getCriticalPath(nodes));
+            this.wallTime = wallTime;
+        }
+
+        @Nonnull
+        private static List<Timing> getCriticalPath(@Nonnull List<Node> nodes) {
+            final LinkedList<Timing> path = new LinkedList<>();
+            Node current = last(nodes);
+            while (Objects.nonNull(current)) {
+                path.addFirst(current.toTiming());
+                current = last(current.dependencies);
+            }
+            return path;
+        }
+
+        @Nullable
+        private static Node last(@Nonnull List<Node> nodes) {
+            return nodes.stream().filter(Node::isExecuted).max(Comparator.comparingLong(n -> n.end)).orElse(null);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("finished %d task(s) in %.1fs, critical path: %s", this.timings.size(), this.wallTime.toMillis() / 1000.0,
+                this.criticalPath.stream().map(Timing::toString).collect(Collectors.joining(" -> ")));
+        }
+    }
+}
@@ -6,6 +6,8 @@
 package com.microsoft.azure.toolkit.lib.common.telemetry;
 
 import com.microsoft.applicationinsights.TelemetryClient;
+import com.microsoft.applicationinsights.TelemetryConfiguration;
+import com.microsoft.applicationinsights.channel.TelemetryChannel;
 import lombok.Getter;
 import lombok.Setter;
 import org.apache.commons.lang3.StringUtils;
@@ -16,6 +18,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -42,7 +46,9 @@ public class AzureTelemetryClient {
         put(TOKEN_REGEX, "<REDACTED: token>");
     }};
 
+    private final TelemetryConfiguration configuration;
     private final TelemetryClient client;
+    private final AzureTelemetrySender sender;
     @Setter
     private Map<String, String> defaultProperties;
     private boolean isEnabled = true;     // Telemetry is enabled by default.
@@ -52,7 +58,16 @@ public class AzureTelemetryClient {
     }
 
     public AzureTelemetryClient(@Nonnull final Map<String, String> defaultProperties) {
-        this.client = new TelemetryClient();
+        this(defaultProperties, TelemetryConfiguration.getActive());
+    }
+
+    /**
+     * @param configuration configuration (and channel) events are sent with, it's stopped by {@link #close(long, TimeUnit)}.
+     */
+    public AzureTelemetryClient(@Nonnull final Map<String, String> defaultProperties, @Nonnull final TelemetryConfiguration configuration) {
+        this.configuration = configuration;
+        this.client = new TelemetryClient(configuration);
+        this.sender = new AzureTelemetrySender(this.client, AzureTelemetryClient::anonymizePersonallyIdentifiableInformation);
         this.defaultProperties = new HashMap<>();
         initDefaultProperties();
         this.defaultProperties.putAll(defaultProperties);
@@ -91,11 +106,36 @@ public class AzureTelemetryClient {
             return;
         }
 
-        final Map<String, String> properties = mergeProperties(getDefaultProperties(), customProperties, overrideDefaultProperties);
+        // snapshot properties on caller's thread, since default properties may change before the event is sent.
+        final Map<String, String> properties = new HashMap<>(mergeProperties(getDefaultProperties(), customProperties, overrideDefaultProperties));
         properties.entrySet().removeIf(stringStringEntry -> StringUtils.isEmpty(stringStringEntry.getValue())); // filter out null values
-        anonymizePersonallyIdentifiableInformation(properties);
-        client.trackEvent(eventName, properties, metrics);
-        client.flush();
+        sender.send(eventName, properties, metrics);
+    }
+
+    /**
+     * wait until tracked events are sent or the timeout elapses, returns immediately if there are no pending events.
+     *
+     * @return true if all tracked events are sent.
+     */
+    public boolean drain(long timeout, @Nonnull TimeUnit unit) {
+        return sender.drain(timeout, unit);
+    }
+
+    /**
+     * drain tracked events, stop the sender thread and the channel within the timeout. events flushed to the channel
+     * are transmitted asynchronously, stopping the channel waits for the transmission. the client can't send events
+     * afterwards.
+     *
+     * @return true if all tracked events are drained before the channel is stopped.
+     */
+    public boolean close(long timeout, @Nonnull TimeUnit unit) {
+        final long deadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        final boolean drained = sender.close(timeout, unit);
+        final TelemetryChannel channel = configuration.getChannel();
+        if (Objects.nonNull(channel)) {
+            channel.stop(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+        }
+        return drained;
     }
 
     protected Map<String, String> mergeProperties(Map<String, String> defaultProperties,
@@ -125,15 +165,26 @@ public class AzureTelemetryClient {
             if (StringUtils.isBlank(value) || StringUtils.equalsAnyIgnoreCase(key, SYSTEM_PROPERTIES)) {
                 return value;
             }
-            return Arrays.stream(value.split("\\r?\\n")).map(line -> {
-                final String input = FILE_PATH_PATTERN.matcher(line).replaceAll("<REDACTED: user-file-path>");
-                for (final Pattern pattern : PATTERN_MAP.keySet()) {
-                    if (pattern.matcher(input).find()) {
-                        return PATTERN_MAP.get(pattern);
-                    }
-                }
-                return input;
-            }).collect(Collectors.joining(StringUtils.LF));
+            if (value.indexOf('\n') < 0) {
+                return anonymize(value);
+            }
+            return Arrays.stream(value.split("\\r?\\n")).map(AzureTelemetryClient::anonymize).collect(Collectors.joining(StringUtils.LF));
         });
     }
+
+    private static String anonymize(final String line) {
+        // cheap pre-checks to skip regex matching: file paths need a separator, emails need `@` and slack tokens need `-`
+        final String input = StringUtils.containsAny(line, '/', '\\') ?
+            FILE_PATH_PATTERN.matcher(line).replaceAll("<REDACTED: user-file-path>") : line;
+        if (input.indexOf('@') >= 0 && EMAIL_PATTERN.matcher(input).find()) {
+            return PATTERN_MAP.get(EMAIL_PATTERN);
+        }
+        if (SECRET_PATTERN.matcher(input).find()) {
+            return PATTERN_MAP.get(SECRET_PATTERN);
+        }
+        if (input.indexOf('-') >= 0 && TOKEN_REGEX.matcher(input).find()) {
+            return PATTERN_MAP.get(TOKEN_REGEX);
+        }
+        return input;
+    }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.telemetry;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * sends telemetry events on a background daemon thread: events are buffered in a bounded queue (dropped when it's full),
+ * scrubbed and tracked in batches, and the underlying {@link TelemetryClient} is flushed when a batch is full or
+ * {@link #FLUSH_INTERVAL} has passed, instead of once per event on the caller's thread.
+ */
+@Slf4j
+class AzureTelemetrySender {
+    static final int QUEUE_CAPACITY = 1024;
+    static final int BATCH_SIZE = 64;
+    static final long FLUSH_INTERVAL = TimeUnit.SECONDS.toMillis(1);
+    private static final Event FLUSH = new Event("<flush>", null, null);
+
+    private final TelemetryClient client;
+    private final Consumer<Map<String, String>> scrubber;
+    private final BlockingQueue<Event> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    /**
+     * number of events that are accepted but not flushed yet.
+     */
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Object lock = new Object();
+    private Thread worker;
+    private boolean closed;
+
+    AzureTelemetrySender(@Nonnull TelemetryClient client, @Nonnull Consumer<Map<String, String>> scrubber) {
+        this.client = client;
+        this.scrubber = scrubber;
+    }
+
+    public void send(@Nonnull String eventName, @Nonnull Map<String, String> properties, @Nullable Map<String, Double> metrics) {
+        if (!this.startIfNot()) {
+            log.debug("telemetry sender is closed, event {} is dropped.", eventName);
+            return;
+        }
+        this.pending.incrementAndGet();
+        if (!this.queue.offer(new Event(eventName, properties, metrics))) {
+            this.pending.decrementAndGet();
+            log.debug("telemetry queue is full, {} event(s) dropped so far.", this.dropped.incrementAndGet());
+        }
+    }
+
+    /**
+     * wait until all accepted events are flushed or the timeout elapses, returns immediately if there are no pending events.
+     *
+     * @return true if all events are flushed.
+     */
+    public boolean drain(long timeout, @Nonnull TimeUnit unit) {
+        if (this.pending.get() <= 0) {
+            return true;
+        }
+        this.queue.offer(FLUSH); // wake up the worker to flush immediately, a full queue will be flushed anyway
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (this.lock) {
+            while (this.pending.get() > 0) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    log.debug("timeout draining telemetry, {} event(s) pending.", this.pending.get());
+                    return false;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.timedWait(this.lock, remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * drain pending events, then stop the worker thread, both within the timeout. events sent afterwards are dropped.
+     *
+     * @return true if all events are flushed.
+     */
+    public boolean close(long timeout, @Nonnull TimeUnit unit) {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        final boolean drained = this.drain(timeout, unit);
+        final Thread thread;
+        synchronized (this) {
+            this.closed = true;
+            thread = this.worker;
+        }
+        if (Objects.nonNull(thread)) {
+            thread.interrupt();
+            try {
+                TimeUnit.NANOSECONDS.timedJoin(thread, deadline - System.nanoTime());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return drained;
+    }
+
+    synchronized boolean isRunning() {
+        final Thread thread = this.worker;
+        return Objects.nonNull(thread) && thread.isAlive();
+    }
+
+    public long getPendingCount() {
+        return this.pending.get();
+    }
+
+    /**
+     * @return false if the sender is closed.
+     */
+    private synchronized boolean startIfNot() {
+        if (this.closed) {
+            return false;
+        }
+        if (Objects.isNull(this.worker)) {
+            this.worker = new Thread(this::run, "azure-telemetry-sender");
+            this.worker.setDaemon(true);
+            this.worker.start();
+        }
+        return true;
+    }
+
+    private void run() {
+        final List<Event> batch = new ArrayList<>(BATCH_SIZE);
+        long flushAt = System.currentTimeMillis() + FLUSH_INTERVAL;
+        while (!Thread.currentThread().isInterrupted()) {
+            final Event event;
+            try {
+                event = this.queue.poll(Math.max(0, flushAt - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (Objects.nonNull(event) && event != FLUSH) {
+                batch.add(event);
+            }
+            if (event == FLUSH || batch.size() >= BATCH_SIZE || System.currentTimeMillis() >= flushAt) {
+                this.flush(batch);
+                batch.clear();
+                flushAt = System.currentTimeMillis() + FLUSH_INTERVAL;
+            }
+        }
+        this.flush(batch);
+    }
+
+    private void flush(@Nonnull List<Event> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            for (final Event event : batch) {
+                this.scrubber.accept(event.properties);
+                this.client.trackEvent(event.name, event.properties, event.metrics);
+            }
+            this.client.flush();
+        } catch (Throwable t) { // never let telemetry break the worker
+            log.debug("failed to send telemetry.", t);
+        } finally {
+            this.pending.addAndGet(-batch.size());
+            synchronized (this.lock) {
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class Event {
+        private final String name;
+        private final Map<String, String> properties;
+        private final Map<String, Double> metrics;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.annotation.Nonnull;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * polls a status source until its value is ready or the deadline is reached, waiting exponentially longer (with
+ * jitter) between polls, so that a fast operation is noticed soon and a slow one is not polled too often. exceptions
+ * thrown by the source are considered as not ready.
+ */
+@Slf4j
+public class Poller<T> {
+    private final String name;
+    private final Callable<? extends T> source;
+    private Predicate<? super T> ready = Objects::nonNull;
+    private Duration initialInterval = Duration.ofSeconds(1);
+    private Duration maxInterval = Duration.ofSeconds(15);
+    private double multiplier = 2;
+    private double jitter = 0.2;
+    private Duration timeout = Duration.ofMinutes(3);
+    private Clock clock = Clock.SYSTEM;
+
+    /**
+     * @param name describes what is polled, e.g. "deployment status"
+     */
+    public Poller(@Nonnull String name, @Nonnull Callable<? extends T> source) {
+        this.name = name;
+        this.source = source;
+    }
+
+    public Poller<T> until(@Nonnull Predicate<? super T> ready) {
+        this.ready = ready;
+        return this;
+    }
+
+    public Poller<T> withInterval(@Nonnull Duration initial, @Nonnull Duration max) {
+        this.initialInterval = initial;
+        this.maxInterval = max;
+        return this;
+    }
+
+    public Poller<T> withMultiplier(double multiplier) {
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    /**
+     * @param jitter intervals are randomized within {@code [1 - jitter, 1 + jitter]} times of their nominal values.
+     */
+    public Poller<T> withJitter(double jitter) {
+        this.jitter = jitter;
+        return this;
+    }
+
+    public Poller<T> withTimeout(@Nonnull Duration timeout) {
+        this.timeout = timeout;
+        return this;
+    }
+
+    public Poller<T> withClock(@Nonnull Clock clock) {
+        this.clock = clock;
+        return this;
+    }
+
+    /**
+     * @return the first ready value
+     * @throws AzureToolkitRuntimeException if no value is ready before the deadline, caused by the last exception
+     *                                      thrown by the source if any.
+     */
+    public T poll() throws InterruptedException {
+        final long deadline = this.clock.millis() + this.timeout.toMillis();
+        double interval = this.initialInterval.toMillis();
+        for (int attempt = 1; ; attempt++) {
+            Exception error = null;
+            try {
+                final T value = this.source.call();
+                if (this.ready.test(value)) {
+                    log.debug("{} is ready after {} attempt(s).", this.name, attempt);
+                    return value;
+                }
+            } catch (final InterruptedException e) {
+                throw e;
+            } catch (final Exception e) {
+                log.debug("failed to poll {} (attempt {}).", this.name, attempt, e);
+                error = e;
+            }
+            final long remaining = deadline - this.clock.millis();
+            if (remaining <= 0) {
+                throw new AzureToolkitRuntimeException(String.format("%s is not ready in %d seconds.", this.name, this.timeout.getSeconds()), error);
+            }
+            final double randomized = interval * (1 + this.jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1));
+            this.clock.sleep(Math.min(remaining, Math.max(0, Math.round(randomized))));
+            interval = Math.min(interval * this.multiplier, this.maxInterval.toMillis());
+        }
+    }
+
+    /**
+     * the time source of a poller, replaceable by a virtual one in tests.
+     */
+    public interface Clock {
+        Clock SYSTEM = new Clock() {
+            @Override
+            public long millis() {
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+            }
+
+            @Override
+            public void sleep(long millis) throws InterruptedException {
+                TimeUnit.MILLISECONDS.sleep(millis);
+            }
+        };
+
+        long millis();
+
+        void sleep(long millis) throws InterruptedException;
+    }
+}
@@ -6,6 +6,8 @@
 package com.microsoft.azure.toolkit.lib.common.utils.aspect;
 
 import com.azure.resourcemanager.resources.fluentcore.arm.ResourceUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ImmutableMap;
 import groovy.text.SimpleTemplateEngine;
 import groovy.text.Template;
@@ -22,12 +24,20 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
+import java.util.regex.Pattern;
 
 @Log
 public class ExpressionUtils {
     private static final ImmutableMap<String, Boolean> valueMap = ImmutableMap.of("true", true, "false", false);
     private static final SimpleTemplateEngine engine = new SimpleTemplateEngine();
     private static final String INVALID_TEMPLATE = "error occurs when evaluate template(%s) with bindings(%s)";
+    private static final Pattern THIS_PATTERN = Pattern.compile("(\\W)this(\\.)");
+    private static final int MAX_CACHED_TEMPLATES = 2048;
+    // compiled templates are immutable and `make` creates a new script instance per binding, so they can be shared.
+    private static final Cache<String, Template> templates = CacheBuilder.newBuilder()
+        .maximumSize(MAX_CACHED_TEMPLATES)
+        .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+        .build();
 
     public static boolean evaluate(@Nonnull final String expression, @Nonnull final MethodInvocation invocation, boolean defaultVal) {
         final String result = interpret(expression, invocation);
@@ -43,9 +53,8 @@ public class ExpressionUtils {
             return template;
         }
         final Map<String, Object> bindings = initBindings(invocation);
-        final String fixed = template.replaceAll("(\\W)this(\\.)", "$1_this_$2"); // resolve `this`
         try {
-            final Template tpl = engine.createTemplate(fixed);
+            final Template tpl = templates.get(template, () -> compile(template));
             return tpl.make(bindings).toString();
         } catch (final Throwable e) { // swallow all exceptions during render
             log.log(Level.SEVERE, String.format(INVALID_TEMPLATE, template, bindings), e);
@@ -53,6 +62,12 @@ public class ExpressionUtils {
         return template;
     }
 
+    @Nonnull
+    private static Template compile(@Nonnull final String template) throws Exception {
+        final String fixed = THIS_PATTERN.matcher(template).replaceAll("$1_this_$2"); // resolve `this`
+        return engine.createTemplate(fixed);
+    }
+
     @Nonnull
     private static Map<String, Object> initBindings(@Nonnull final MethodInvocation invocation) {
         final List<Triple<String, Parameter, Object>> args = invocation.getArgs();
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CacheManagerTest {
+    private final CacheManager manager = new CacheManager();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    // only the annotations are used, results come from the mocked join points
+    @Cacheable(cacheName = "test/stats", key = "$id")
+    public String load(String id) {
+        return "value-" + id;
+    }
+
+    @Cacheable(cacheName = "test/retired", key = "$id")
+    public String loadRetired(String id) {
+        return "value-" + id;
+    }
+
+    @Cacheable(cacheName = "test/failures", key = "$id")
+    public String loadFailure(String id) {
+        throw new IllegalStateException(id);
+    }
+
+    @Test
+    public void recordHitsAndMisses() throws Throwable {
+        assertEquals("value-a", invoke("load", "a"));
+        assertEquals("value-a", invoke("load", "a"));
+        assertEquals("value-a", invoke("load", "a"));
+        assertEquals("value-b", invoke("load", "b"));
+
+        final CacheStatistics stats = CacheManager.stats().get("test/stats");
+        assertEquals(2, loads.get());
+        assertEquals(4, stats.getRequestCount());
+        assertEquals(2, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(2, stats.getLoadCount());
+        assertEquals(0.5, stats.getHitRate(), 0.001);
+        assertTrue(stats.toString().startsWith("cache[test/stats]: requests=4, hit rate=50.0%, loads=2"));
+    }
+
+    @Test
+    public void keepStatisticsOfRetiredCaches() throws Throwable {
+        invoke("loadRetired", "a");
+        invoke("loadRetired", "a");
+        // the named cache is dropped as if it was invalidated or garbage collected
+        CacheManager.evictCache("test/retired", CacheEvict.ALL);
+        invoke("loadRetired", "a");
+
+        final CacheStatistics stats = CacheManager.stats().get("test/retired");
+        assertEquals(2, loads.get());
+        assertEquals(3, stats.getRequestCount());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getLoadCount());
+    }
+
+    @Test
+    public void recordFailedLoads() throws Throwable {
+        try {
+            invoke("loadFailure", "a");
+            fail("load should fail.");
+        } catch (final IllegalStateException e) {
+            assertEquals("a", e.getMessage());
+        }
+        final CacheStatistics stats = CacheManager.stats().get("test/failures");
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getLoadCount());
+        assertEquals(0, stats.getHitCount());
+    }
+
+    private Object invoke(String methodName, String id) throws Throwable {
+        final Method method = CacheManagerTest.class.getMethod(methodName, String.class);
+        final MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getMethod()).thenReturn(method);
+        when(signature.getName()).thenReturn(methodName);
+        when(signature.getParameterNames()).thenReturn(new String[]{"id"});
+        final ProceedingJoinPoint point = mock(ProceedingJoinPoint.class);
+        when(point.getSignature()).thenReturn(signature);
+        when(point.getArgs()).thenReturn(new Object[]{id});
+        when(point.getThis()).thenReturn(this);
+        when(point.proceed()).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            if (methodName.equals("loadFailure")) {
+                throw new IllegalStateException(id);
+            }
+            return "value-" + id;
+        });
+        return manager.aroundCacheable(point);
+    }
+}
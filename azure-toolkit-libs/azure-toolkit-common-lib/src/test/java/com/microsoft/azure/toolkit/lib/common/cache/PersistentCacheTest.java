@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.cache;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PersistentCacheTest {
+    private static final JavaType REGIONS = TypeFactory.defaultInstance().constructCollectionType(List.class, String.class);
+    private static final long TTL = 60;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path root;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        root = folder.newFolder(".azure", "azure-toolkit-cache").toPath();
+    }
+
+    @Test
+    public void loadOnceAcrossRestart() {
+        final PersistentCache first = new PersistentCache(root);
+        assertEquals(Arrays.asList("eastus", "westus"), getOrLoad(first, "subscription-1"));
+        assertEquals(Arrays.asList("eastus", "westus"), getOrLoad(first, "subscription-1"));
+        assertEquals(1, loads.get());
+
+        // a new process reads what the previous one persisted
+        final PersistentCache second = new PersistentCache(root);
+        assertEquals(Arrays.asList("eastus", "westus"), getOrLoad(second, "subscription-1"));
+        assertEquals(1, loads.get());
+        getOrLoad(second, "subscription-2");
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void reloadInvalidatedEntries() {
+        final PersistentCache cache = new PersistentCache(root);
+        getOrLoad(cache, "subscription-1");
+        getOrLoad(cache, "subscription-2");
+        cache.invalidate("subscriptions/{}/regions", "subscription-1");
+
+        getOrLoad(new PersistentCache(root), "subscription-1");
+        getOrLoad(new PersistentCache(root), "subscription-2");
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void treatCorruptedEntriesAsMissing() throws IOException {
+        final PersistentCache cache = new PersistentCache(root);
+        getOrLoad(cache, "subscription-1");
+        final List<Path> entries = listFiles();
+        assertEquals(1, entries.size());
+        FileUtils.write(entries.get(0).toFile(), "{corrupted", StandardCharsets.UTF_8);
+
+        assertNull(cache.get("subscriptions/{}/regions", "subscription-1", REGIONS));
+        assertFalse(Files.exists(entries.get(0)));
+        getOrLoad(cache, "subscription-1");
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void invalidateAllDeletesOwnEntriesOnly() throws IOException {
+        final PersistentCache cache = new PersistentCache(root);
+        getOrLoad(cache, "subscription-1");
+        cache.put("subscriptions/{}", "subscription-1", "subscription", TTL);
+        final File foreignFile = new File(root.toFile(), "config");
+        final File foreignEntry = new File(root.toFile(), "tool/" + listFiles().get(0).getFileName());
+        FileUtils.write(foreignFile, "[core]", StandardCharsets.UTF_8);
+        FileUtils.write(foreignEntry, "{}", StandardCharsets.UTF_8);
+
+        cache.invalidate(CacheEvict.ALL, null);
+
+        assertNull(cache.get("subscriptions/{}/regions", "subscription-1", REGIONS));
+        assertNull(cache.get("subscriptions/{}", "subscription-1", TypeFactory.defaultInstance().constructType(String.class)));
+        assertTrue(foreignFile.isFile());
+        assertTrue(foreignEntry.isFile());
+        assertEquals(Arrays.asList(foreignFile.toPath(), foreignEntry.toPath()), listFiles());
+    }
+
+    @Test
+    public void ownDefaultRoot() {
+        assertEquals(Paths.get(System.getProperty("user.home"), ".azure", "azure-toolkit-cache"), PersistentCache.getInstance().getRoot());
+    }
+
+    /**
+     * the persistent path of {@link CacheManager} with a fake loader counting remote calls.
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> getOrLoad(PersistentCache cache, String subscriptionId) {
+        final Object persisted = cache.get("subscriptions/{}/regions", subscriptionId, REGIONS);
+        if (persisted != null) {
+            return (List<String>) persisted;
+        }
+        loads.incrementAndGet();
+        final List<String> loaded = Arrays.asList("eastus", "westus");
+        cache.put("subscriptions/{}/regions", subscriptionId, loaded, TTL);
+        return loaded;
+    }
+
+    private List<Path> listFiles() throws IOException {
+        try (final Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class AbstractAzResourceModuleTest {
+    private static final int THREADS = 16;
+    private static final String PARENT_ID = "/subscriptions/sub/resourceGroups/rg/providers/Microsoft.Test/parents/parent";
+
+    private final AtomicInteger remoteLoads = new AtomicInteger();
+    private final AtomicInteger newResources = new AtomicInteger();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private ExecutorService executor;
+    private AbstractAzResourceModule module;
+    private volatile String remote = "remote";
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+        final AbstractAzResource parent = mock(AbstractAzResource.class);
+        when(parent.getId()).thenReturn(PARENT_ID);
+        when(parent.getResourceGroupName()).thenReturn("rg");
+        module = mock(AbstractAzResourceModule.class, withSettings().useConstructor("things", parent).defaultAnswer(CALLS_REAL_METHODS));
+        // a slow remote, which returns only after the test releases it
+        doAnswer(invocation -> {
+            remoteLoads.incrementAndGet();
+            assertTrue(release.await(30, TimeUnit.SECONDS));
+            if (remote == null) {
+                return null;
+            } else if (remote.equals("error")) {
+                throw new IllegalStateException("service unavailable");
+            }
+            return remote + "-" + invocation.getArgument(0);
+        }).when(module).loadResourceFromAzure(anyString(), any());
+        doAnswer(invocation -> {
+            newResources.incrementAndGet();
+            final AbstractAzResource resource = mock(AbstractAzResource.class);
+            when(resource.getId()).thenReturn(PARENT_ID + "/things/thing");
+            return resource;
+        }).when(module).newResource(any());
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void loadOnceForConcurrentGets() throws Exception {
+        final List<Future<Object>> results = getConcurrently();
+        final Object first = results.get(0).get();
+        assertNotNull(first);
+        for (final Future<Object> result : results) {
+            assertSame(first, result.get());
+        }
+        assertEquals(1, remoteLoads.get());
+        assertEquals(1, newResources.get());
+        // later calls are served locally
+        assertSame(first, module.get("thing", "rg"));
+        assertEquals(1, remoteLoads.get());
+    }
+
+    @Test
+    public void shareFailureOfInflightLoad() throws Exception {
+        remote = "error";
+        for (final Future<Object> result : getConcurrently()) {
+            try {
+                result.get();
+                fail("get should fail.");
+            } catch (final ExecutionException e) {
+                assertEquals("service unavailable", e.getCause().getMessage());
+            }
+        }
+        // failures are not cached
+        remote = "remote";
+        final int loads = remoteLoads.get();
+        assertNotNull(module.get("thing", "rg"));
+        assertEquals(loads + 1, remoteLoads.get());
+    }
+
+    @Test
+    public void rememberAbsentResources() throws Exception {
+        remote = null;
+        for (final Future<Object> result : getConcurrently()) {
+            assertNull(result.get());
+        }
+        assertEquals(1, remoteLoads.get());
+        assertNull(module.get("thing", "rg"));
+        assertEquals(1, remoteLoads.get());
+
+        module.setNegativeCacheLifetime(-1);
+        remote = "remote";
+        assertNotNull(module.get("thing", "rg"));
+        assertEquals(2, remoteLoads.get());
+    }
+
+    @Test
+    public void listModifiableCopies() throws Exception {
+        release.countDown();
+        final Object resource = module.get("thing", "rg");
+        final List<Object> cached = module.listCachedResources();
+        assertEquals(1, cached.size());
+        cached.removeIf(r -> r == resource);
+        cached.sort(null);
+
+        assertTrue(cached.isEmpty());
+        assertEquals(1, module.listCachedResources().size());
+        assertSame(resource, module.listCachedResources().get(0));
+    }
+
+    /**
+     * @return results of {@link #THREADS} concurrent gets of the same resource, the remote is released once all of them are started.
+     */
+    private List<Future<Object>> getConcurrently() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(THREADS);
+        final List<Future<Object>> results = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            results.add(executor.submit(() -> {
+                started.countDown();
+                return module.get("thing", "rg");
+            }));
+        }
+        assertTrue(started.await(30, TimeUnit.SECONDS));
+        release.countDown();
+        return results;
+    }
+}
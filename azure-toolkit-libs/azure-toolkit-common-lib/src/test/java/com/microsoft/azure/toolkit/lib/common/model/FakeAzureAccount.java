@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.model;
+
+import com.microsoft.azure.toolkit.lib.account.IAccount;
+import com.microsoft.azure.toolkit.lib.account.IAzureAccount;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * signed in account required by resource modules, registered as a service for tests only.
+ */
+public class FakeAzureAccount implements IAzureAccount {
+    @Override
+    public IAccount account() {
+        return null;
+    }
+
+    @Override
+    public List<Region> listRegions(String subscriptionId) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getName() {
+        return "Fake Account";
+    }
+
+    @Override
+    public void refresh() {
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.task;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AzureTaskGraphTest {
+    private static final long TIMEOUT = 30;
+
+    @Test
+    public void executeIndependentTasksConcurrently() throws Exception {
+        // same topology as CreateOrUpdateFunctionAppTask: group -> (plan, insights) -> app
+        final List<String> events = new CopyOnWriteArrayList<>();
+        // plan and insights only finish if they are running at the same time
+        final CountDownLatch concurrent = new CountDownLatch(2);
+        final AzureTask<?> group = record("group", events, () -> {
+        });
+        final AzureTask<?> plan = record("plan", events, () -> await(concurrent)).dependsOn(group);
+        final AzureTask<?> insights = record("insights", events, () -> await(concurrent)).dependsOn(group);
+        final AzureTask<?> app = record("app", events, () -> {
+        }).dependsOn(group, plan, insights);
+
+        final AzureTaskGraph.Report report = new AzureTaskGraph().execute(Arrays.asList(app, insights, plan, group));
+
+        assertEquals(4, report.getTimings().size());
+        assertEquals(Arrays.asList("start group", "end group"), events.subList(0, 2));
+        assertEquals(Arrays.asList("start app", "end app"), events.subList(6, 8));
+        assertTrue(events.subList(2, 4).containsAll(Arrays.asList("start plan", "start insights")));
+        final List<String> path = report.getCriticalPath().stream().map(t -> t.getTask().getDescription().toString()).collect(Collectors.toList());
+        assertEquals(3, path.size());
+        assertEquals("group", path.get(0));
+        assertTrue(path.get(1).equals("plan") || path.get(1).equals("insights"));
+        assertEquals("app", path.get(2));
+    }
+
+    @Test
+    public void executeUndeclaredDependencies() throws Exception {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final AzureTask<?> group = record("group", events, () -> {
+        });
+        final AzureTask<?> app = record("app", events, () -> {
+        }).dependsOn(group);
+
+        new AzureTaskGraph().execute(Collections.singletonList(app));
+
+        assertEquals(Arrays.asList("start group", "end group", "start app", "end app"), events);
+    }
+
+    @Test
+    public void skipDependentsOfFailedTask() {
+        final AtomicInteger executed = new AtomicInteger();
+        final AzureTask<?> group = new AzureTask<>("group", (Callable<Void>) () -> {
+            throw new IllegalStateException("expected");
+        });
+        final AzureTask<?> app = new AzureTask<>("app", (Runnable) executed::incrementAndGet).dependsOn(group);
+        try {
+            new AzureTaskGraph().execute(Arrays.asList(group, app));
+            fail("error of failed task should be rethrown.");
+        } catch (final Exception e) {
+            assertTrue(e instanceof IllegalStateException);
+        }
+        assertEquals(0, executed.get());
+    }
+
+    @Test(expected = AzureToolkitRuntimeException.class)
+    public void rejectCircularDependencies() throws Exception {
+        final AzureTask<?> a = new AzureTask<>("a", (Callable<Void>) () -> null);
+        final AzureTask<?> b = new AzureTask<>("b", (Callable<Void>) () -> null).dependsOn(a);
+        a.dependsOn(b);
+        new AzureTaskGraph().execute(Arrays.asList(a, b));
+    }
+
+    @Test
+    public void respectParallelism() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        // tasks only finish in pairs, which requires 2 of them running at the same time
+        final CyclicBarrier pair = new CyclicBarrier(2);
+        final List<AzureTask<Void>> tasks = IntStream.range(0, 6).mapToObj(i -> new AzureTask<>("stub-" + i, (Callable<Void>) () -> {
+            peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+            pair.await(TIMEOUT, TimeUnit.SECONDS);
+            running.decrementAndGet();
+            return null;
+        })).collect(Collectors.toList());
+
+        new AzureTaskGraph(2).execute(tasks);
+
+        assertEquals(2, peak.get());
+        assertEquals(0, running.get());
+    }
+
+    private static AzureTask<Void> record(String name, List<String> events, Runnable body) {
+        return new AzureTask<>(name, () -> {
+            events.add("start " + name);
+            body.run();
+            events.add("end " + name);
+            return null;
+        });
+    }
+
+    private static void await(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            assertTrue("tasks are not running concurrently.", latch.await(TIMEOUT, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
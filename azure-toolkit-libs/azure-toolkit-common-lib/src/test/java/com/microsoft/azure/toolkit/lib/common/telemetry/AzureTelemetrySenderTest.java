@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.telemetry;
+
+import com.microsoft.applicationinsights.TelemetryClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetrySender.BATCH_SIZE;
+import static com.microsoft.azure.toolkit.lib.common.telemetry.AzureTelemetrySender.QUEUE_CAPACITY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class AzureTelemetrySenderTest {
+    private static final long TIMEOUT = 30;
+
+    private final AtomicInteger tracked = new AtomicInteger();
+    private final AtomicInteger batch = new AtomicInteger();
+    private final List<Integer> batches = new CopyOnWriteArrayList<>();
+    private final CountDownLatch tracking = new CountDownLatch(1);
+    private volatile CountDownLatch release = new CountDownLatch(0);
+    private volatile CountDownLatch flushed = new CountDownLatch(1);
+    private TelemetryClient client;
+    private AzureTelemetrySender sender;
+
+    @Before
+    public void setUp() {
+        client = mock(TelemetryClient.class);
+        // the worker blocks in tracking until the test releases it
+        doAnswer(invocation -> {
+            tracking.countDown();
+            assertTrue(release.await(TIMEOUT, TimeUnit.SECONDS));
+            tracked.incrementAndGet();
+            batch.incrementAndGet();
+            return null;
+        }).when(client).trackEvent(anyString(), any(), any());
+        doAnswer(invocation -> {
+            batches.add(batch.getAndSet(0));
+            flushed.countDown();
+            return null;
+        }).when(client).flush();
+        sender = new AzureTelemetrySender(client, properties -> properties.put("scrubbed", "true"));
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        sender.close(TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void drainWithoutPendingEvents() {
+        assertTrue(sender.drain(0, TimeUnit.MILLISECONDS));
+        verify(client, never()).flush();
+    }
+
+    @Test
+    public void trackInBatches() {
+        final int events = BATCH_SIZE * 3 + 10;
+        for (int i = 0; i < events; i++) {
+            send("event-" + i);
+        }
+        assertTrue(sender.drain(TIMEOUT, TimeUnit.SECONDS));
+
+        assertEquals(0, sender.getPendingCount());
+        assertEquals(events, tracked.get());
+        assertEquals(events, batches.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batches.stream().allMatch(size -> size > 0 && size <= BATCH_SIZE));
+        // one flush per batch instead of per event, an extra one is allowed if the interval elapses in between
+        assertTrue(batches.toString(), batches.size() <= events / BATCH_SIZE + 2);
+    }
+
+    @Test
+    public void flushWithinInterval() throws InterruptedException {
+        final Map<String, String> properties = new HashMap<>();
+        sender.send("event", properties, null);
+
+        // sent without drain, when the flush interval elapses
+        assertTrue(flushed.await(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(1), batches);
+        assertEquals("true", properties.get("scrubbed"));
+        assertTrue(sender.drain(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void dropEventsWhenQueueIsFull() throws InterruptedException {
+        release = new CountDownLatch(1);
+        blockWorkerWithFullBatch();
+
+        // the worker holds a full batch, the queue takes another QUEUE_CAPACITY events and drops the rest
+        for (int i = 0; i < QUEUE_CAPACITY + 10; i++) {
+            send("queued-" + i);
+        }
+        assertEquals(BATCH_SIZE + QUEUE_CAPACITY, sender.getPendingCount());
+
+        release.countDown();
+        assertTrue(sender.drain(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals(BATCH_SIZE + QUEUE_CAPACITY, tracked.get());
+        assertEquals(0, sender.getPendingCount());
+    }
+
+    @Test
+    public void drainTimeout() throws InterruptedException {
+        release = new CountDownLatch(1);
+        blockWorkerWithFullBatch();
+
+        assertFalse(sender.drain(100, TimeUnit.MILLISECONDS));
+        assertEquals(BATCH_SIZE, sender.getPendingCount());
+
+        release.countDown();
+        assertTrue(sender.drain(TIMEOUT, TimeUnit.SECONDS));
+        assertEquals(BATCH_SIZE, tracked.get());
+    }
+
+    @Test
+    public void stopWorkerOnClose() {
+        send("event");
+        assertTrue(sender.isRunning());
+
+        assertTrue(sender.close(TIMEOUT, TimeUnit.SECONDS));
+
+        assertFalse(sender.isRunning());
+        assertEquals(1, tracked.get());
+        // dropped without starting another worker
+        send("closed");
+        assertFalse(sender.isRunning());
+        assertEquals(0, sender.getPendingCount());
+    }
+
+    /**
+     * sends a full batch and waits until the worker is tracking it.
+     */
+    private void blockWorkerWithFullBatch() throws InterruptedException {
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            send("blocked-" + i);
+        }
+        assertTrue(tracking.await(TIMEOUT, TimeUnit.SECONDS));
+    }
+
+    private void send(String name) {
+        sender.send(name, new HashMap<>(), null);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) Microsoft Corporation. All rights reserved.
+ * Licensed under the MIT License. See License.txt in the project root for license information.
+ */
+
+package com.microsoft.azure.toolkit.lib.common.utils;
+
+import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class PollerTest {
+    private static final Duration INITIAL = Duration.ofSeconds(1);
+    private static final Duration MAX = Duration.ofSeconds(15);
+    private static final double JITTER = 0.2;
+
+    @Test
+    public void pollUntilReadyAtRandomTimes() throws InterruptedException {
+        final Random random = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            final VirtualClock clock = new VirtualClock();
+            final long readyAt = random.nextInt(120_000);
+            final AtomicInteger polls = new AtomicInteger();
+
+            final String status = poller("deployment status", () -> {
+                polls.incrementAndGet();
+                return clock.millis() >= readyAt ? "Success" : "Building";
+            }, clock).until("Success"::equals).poll();
+
+            assertEquals("Success", status);
+            // noticed within one (randomized) interval after it's ready
+            assertTrue(clock.millis() >= readyAt);
+            assertTrue(clock.millis() - readyAt <= MAX.toMillis() * (1 + JITTER));
+            // far fewer polls than a fixed 1 second interval
+            assertTrue(polls.get() <= 6 + readyAt / Math.round(MAX.toMillis() * (1 - JITTER)));
+        }
+    }
+
+    @Test
+    public void backOffExponentiallyWithJitter() throws InterruptedException {
+        final VirtualClock clock = new VirtualClock();
+        final AtomicInteger polls = new AtomicInteger();
+
+        poller("site state", () -> polls.incrementAndGet() > 8 ? "Stopped" : "Running", clock).until("Stopped"::equals).poll();
+
+        assertEquals(8, clock.sleeps.size());
+        double nominal = INITIAL.toMillis();
+        for (final long sleep : clock.sleeps) {
+            assertTrue(sleep >= Math.round(nominal * (1 - JITTER)));
+            assertTrue(sleep <= Math.round(nominal * (1 + JITTER)));
+            nominal = Math.min(nominal * 2, MAX.toMillis());
+        }
+    }
+
+    @Test
+    public void failAtDeadline() throws InterruptedException {
+        final VirtualClock clock = new VirtualClock();
+        final IllegalStateException error = new IllegalStateException("503");
+        try {
+            poller("triggers", () -> {
+                throw error;
+            }, clock).withTimeout(Duration.ofSeconds(50)).poll();
+            fail("poller should time out.");
+        } catch (final AzureToolkitRuntimeException e) {
+            assertEquals(error, e.getCause());
+        }
+        // the last wait is cut at the deadline
+        assertEquals(50_000, clock.millis());
+    }
+
+    @Test
+    public void treatErrorsAsNotReady() throws InterruptedException {
+        final VirtualClock clock = new VirtualClock();
+        final AtomicInteger polls = new AtomicInteger();
+
+        final Integer result = poller("trigger synchronization", () -> {
+            if (polls.incrementAndGet() <= 3) {
+                throw new IllegalStateException("host is restarting");
+            }
+            return polls.get();
+        }, clock).poll();
+
+        assertEquals(Integer.valueOf(4), result);
+    }
+
+    @Test
+    public void returnImmediatelyIfReady() throws InterruptedException {
+        final VirtualClock clock = new VirtualClock();
+
+        assertEquals("ready", poller("status", () -> "ready", clock).poll());
+        assertEquals(0, clock.millis());
+    }
+
+    private static <T> Poller<T> poller(String name, Callable<T> source, VirtualClock clock) {
+        return new Poller<T>(name, source).withInterval(INITIAL, MAX).withJitter(JITTER).withTimeout(Duration.ofMinutes(5)).withClock(clock);
+    }
+
+    /**
+     * time passes only when the poller sleeps.
+     */
+    private static class VirtualClock implements Poller.Clock {
+        private final List<Long> sleeps = new ArrayList<>();
+        private long now = 0;
+
+        @Override
+        public long millis() {
+            return now;
+        }
+
+        @Override
+        public void sleep(long millis) {
+            sleeps.add(millis);
+            now += millis;
+        }
+    }
+}
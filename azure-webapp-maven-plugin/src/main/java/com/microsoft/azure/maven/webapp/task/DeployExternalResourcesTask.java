@@ -6,7 +6,6 @@
 package com.microsoft.azure.maven.webapp.task;
 
 import com.microsoft.azure.maven.model.DeploymentResource;
-import com.microsoft.azure.maven.webapp.utils.FTPUtils;
 import com.microsoft.azure.maven.webapp.utils.Utils;
 import com.microsoft.azure.toolkit.lib.appservice.AppServiceAppBase;
 import com.microsoft.azure.toolkit.lib.appservice.model.PublishingProfile;
@@ -15,16 +14,20 @@ import com.microsoft.azure.toolkit.lib.common.bundle.AzureString;
 import com.microsoft.azure.toolkit.lib.common.exception.AzureToolkitRuntimeException;
 import com.microsoft.azure.toolkit.lib.common.messager.AzureMessager;
 import com.microsoft.azure.toolkit.lib.common.task.AzureTask;
-import org.apache.commons.net.ftp.FTPClient;
+import com.microsoft.azure.toolkit.lib.legacy.appservice.handlers.artifact.ParallelFTPUploader;
+import org.apache.commons.lang3.StringUtils;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Deprecated
 public class DeployExternalResourcesTask extends AzureTask<WebAppBase<?, ?, ?>> {
     private static final String DEPLOY_START = "Trying to deploy external resources to %s...";
     private static final String DEPLOY_FINISH = "Successfully deployed the resources to %s";
+    private static final String MANIFEST_PATH = "/site/" + ParallelFTPUploader.MANIFEST_NAME;
 
     final WebAppBase<?, ?, ?> target;
     final List<DeploymentResource> resources;
@@ -49,21 +52,17 @@ public class DeployExternalResourcesTask extends AzureTask<WebAppBase<?, ?, ?>>
         AzureMessager.getMessager().info(AzureString.format("Uploading resources to %s", target.name()));
         final PublishingProfile publishingProfile = target.getPublishingProfile();
         final String serverUrl = publishingProfile.getFtpUrl().split("/", 2)[0];
-        try {
-            final FTPClient ftpClient = FTPUtils.getFTPClient(serverUrl, publishingProfile.getFtpUsername(), publishingProfile.getFtpPassword());
-            for (final DeploymentResource externalResource : resources) {
-                uploadResource(externalResource, ftpClient);
+        final Map<File, String> files = new LinkedHashMap<>();
+        for (final DeploymentResource resource : resources) {
+            final String targetPath = StringUtils.removeEnd(resource.getAbsoluteTargetPath(), "/");
+            for (final File file : Utils.getArtifacts(resource)) {
+                files.put(file, targetPath + "/" + file.getName());
             }
+        }
+        try (final ParallelFTPUploader uploader = new ParallelFTPUploader(serverUrl, publishingProfile.getFtpUsername(), publishingProfile.getFtpPassword())) {
+            uploader.upload(files, MANIFEST_PATH);
         } catch (IOException e) {
             throw new AzureToolkitRuntimeException(e);
         }
     }
-
-    private static void uploadResource(DeploymentResource resource, FTPClient ftpClient) throws IOException {
-        final List<File> files = Utils.getArtifacts(resource);
-        final String target = resource.getAbsoluteTargetPath();
-        for (final File file : files) {
-            FTPUtils.uploadFile(ftpClient, file.getPath(), target);
-        }
-    }
 }